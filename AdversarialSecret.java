@@ -0,0 +1,80 @@
+//The "secret" of an adversarial (evil) game: instead of picking a word up front,
+//it keeps every secret word consistent with the feedback given so far, and answers
+//each guess with the feedback pattern shared by the most of them.
+//
+//Answering a guess is one pass over the surviving candidates, scoring each and
+//counting it in a preallocated 243-bucket histogram, then a second pass that
+//compacts the candidates of the chosen bucket to the front of the same array. Both
+//passes only touch arrays allocated up front, so a guess allocates nothing.
+//
+//Ties go to the pattern with fewer greens, then the lower pattern code, so the same
+//guesses always get the same answers (and recorded games replay exactly).
+public final class AdversarialSecret {
+
+   //Packed words of the surviving candidates (the first count entries)
+   private final int[] candidates;
+   private int count;
+   //Pattern code of each candidate against the guess being answered
+   private final byte[] codes;
+   //Candidates per pattern code (all zero between guesses), and the codes seen
+   private final int[] buckets = new int[FeedbackScorer.PATTERN_COUNT];
+   private final int[] touched = new int[FeedbackScorer.PATTERN_COUNT];
+   private final int[] secrets;
+
+   //Starts with every secret word of the argument dictionary possible
+   public AdversarialSecret(WordDictionary dictionary){
+      secrets = dictionary.secrets().toArray();
+      candidates = new int[secrets.length];
+      codes = new byte[secrets.length];
+      reset();
+   }
+
+   //Makes every secret word possible again
+   public void reset(){
+      System.arraycopy(secrets, 0, candidates, 0, secrets.length);
+      count = secrets.length;
+   }
+
+   //Returns the pattern code the packed guess gets, keeping only the candidates
+   //that give it (the largest group of them)
+   public int respond(int guess){
+      int numTouched = 0;
+      for (int i = 0; i < count; i++){
+         int code = FeedbackScorer.score(guess, candidates[i]);
+         codes[i] = (byte)code;
+         if (buckets[code]++ == 0)
+            touched[numTouched++] = code;
+      }
+
+      int best = -1, bestSize = 0, bestGreens = 0;
+      for (int t = 0; t < numTouched; t++){
+         int code = touched[t];
+         int size = buckets[code];
+         buckets[code] = 0;
+         int greens = FeedbackScorer.greenCount(code);
+         if (size > bestSize || (size == bestSize && (greens < bestGreens || (greens == bestGreens && code < best)))){
+            best = code;
+            bestSize = size;
+            bestGreens = greens;
+         }
+      }
+
+      int kept = 0;
+      for (int i = 0; i < count; i++){
+         if ((codes[i] & 0xFF) == best)
+            candidates[kept++] = candidates[i];
+      }
+      count = kept;
+      return best;
+   }
+
+   //Returns the number of secret words still possible
+   public int remainingCount(){
+      return count;
+   }
+
+   //Returns the argument surviving candidate (packed), 0 <= index < remainingCount()
+   public int getCandidate(int index){
+      return candidates[index];
+   }
+}
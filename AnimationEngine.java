@@ -0,0 +1,90 @@
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import javax.swing.JComponent;
+import javax.swing.Timer;
+
+//Drives animations in the game window at a fixed frame rate.
+//Animations move forward by the time elapsed since they started (not by how many
+//times the window was painted), so they run at the same speed on every machine.
+//The frame timer only runs while at least one animation is active, and each frame
+//only repaints the regions the active animations draw in.
+//
+//Everything here runs on the Swing event thread (javax.swing.Timer fires there).
+public class AnimationEngine {
+
+   //One animation (e.g. a row wiggling, a tile flipping)
+   public interface Animation {
+
+      //Moves the animation to elapsedNanos after it started.
+      //Returns false once the animation has finished (after putting things back
+      //the way they were).
+      boolean update(long elapsedNanos);
+
+      //Returns the region of the component this animation draws in, or null if it
+      //may draw anywhere
+      Rectangle bounds();
+   }
+
+   //Frames per second while something is animating
+   public static final int FRAMES_PER_SECOND = 60;
+
+   //Animations running, and the time each one started
+   private final ArrayList<Animation> active = new ArrayList<Animation>();
+   private final ArrayList<Long> startTimes = new ArrayList<Long>();
+
+   private final JComponent component;
+   private final Timer timer;
+
+   //Creates an engine that repaints the argument component
+   public AnimationEngine(JComponent component){
+      this.component = component;
+      timer = new Timer(1000 / FRAMES_PER_SECOND, event -> frame());
+      timer.setCoalesce(true);
+   }
+
+   //Starts an animation (it is updated to time 0 right away)
+   public void start(Animation animation){
+      long now = System.nanoTime();
+      active.add(animation);
+      startTimes.add(now);
+      animation.update(0);
+      repaint(animation);
+      if (!timer.isRunning())
+         timer.start();
+   }
+
+   //Returns true if the argument animation is still running
+   public boolean isRunning(Animation animation){
+      return active.contains(animation);
+   }
+
+   //Returns true if any animation is running
+   public boolean isAnimating(){
+      return !active.isEmpty();
+   }
+
+   //Advances every animation to the current time, then repaints what they cover.
+   //Stops the timer once nothing is left to animate.
+   private void frame(){
+      long now = System.nanoTime();
+      for (int i = active.size() - 1; i >= 0; i--){
+         Animation animation = active.get(i);
+         boolean running = animation.update(now - startTimes.get(i));
+         repaint(animation);
+         if (!running){
+            active.remove(i);
+            startTimes.remove(i);
+         }
+      }
+      if (active.isEmpty())
+         timer.stop();
+   }
+
+   private void repaint(Animation animation){
+      Rectangle bounds = animation.bounds();
+      if (bounds == null)
+         component.repaint();
+      else
+         component.repaint(bounds);
+   }
+}
@@ -0,0 +1,186 @@
+//Scores one guess against many secret words at once: fills an array with the
+//FeedbackScorer pattern code of the guess against every secret (e.g. one row of the
+//FeedbackMatrix, or every candidate a solver is weighing).
+//
+//The secrets are stored structure-of-arrays style, one byte per letter:
+//lanes[pos][i] is the letter (0-25) at position pos of secret i. A SIMD kernel can
+//then load the same position of many secrets into one vector and score them all
+//with a fixed sequence of lane-wise compares and blends.
+//
+//That kernel (VectorBatchKernel, in simd/) uses the incubating Java Vector API. The
+//Maven build (pom.xml) compiles it with the rest of the game, but the module has to
+//be added when the game is run for it to load:
+//
+//   java --add-modules jdk.incubator.vector ...
+//
+//It is looked up reflectively, and when it is missing (or the module isn't added)
+//every secret is scored with FeedbackScorer.score instead, which gives the same codes.
+//
+//Run "java BatchScorer" to check FeedbackScorer on pairs with duplicate letters,
+//check both paths agree on every pair and time them.
+public final class BatchScorer {
+
+   //Scores a guess against the first secrets of a batch (see VectorBatchKernel)
+   interface Kernel {
+      //Writes the pattern codes of guess against secrets [0, n) into codes and
+      //returns n, at most count (the caller scores the rest)
+      int score(int guess, byte[][] lanes, int count, byte[] codes);
+   }
+
+   //Name of the Vector API kernel class
+   private static final String VECTOR_KERNEL_CLASS = "VectorBatchKernel";
+
+   //The Vector API kernel, or null if it can't be used in this JVM
+   private static final Kernel VECTOR_KERNEL = loadVectorKernel();
+
+   private final int[] secrets;
+   //Letters of the secrets by position (null when scoring with FeedbackScorer)
+   private final byte[][] lanes;
+   //Kernel used by scoreAll (null to score every secret with FeedbackScorer)
+   private final Kernel kernel;
+
+   //Creates a batch of the argument packed secrets, scored with the Vector API kernel
+   //if it is available
+   public BatchScorer(int[] secrets){
+      this(secrets, true);
+   }
+
+   //Creates a batch of the argument packed secrets; useVectors false always scores
+   //with FeedbackScorer
+   public BatchScorer(int[] secrets, boolean useVectors){
+      this.secrets = secrets.clone();
+      kernel = useVectors ? VECTOR_KERNEL : null;
+      //(only the kernel reads the lanes, so the scalar path doesn't build them)
+      lanes = kernel != null ? new byte[PackedWord.LENGTH][secrets.length] : null;
+      if (lanes != null){
+         for (int i = 0; i < secrets.length; i++){
+            for (int pos = 0; pos < PackedWord.LENGTH; pos++)
+               lanes[pos][i] = (byte)PackedWord.letterAt(secrets[i], pos);
+         }
+      }
+   }
+
+   //Returns the number of secrets in the batch
+   public int size(){
+      return secrets.length;
+   }
+
+   //Returns true if scoreAll uses the Vector API kernel
+   public boolean isVectorized(){
+      return kernel != null;
+   }
+
+   //Returns true if the Vector API kernel can be used in this JVM
+   public static boolean vectorKernelAvailable(){
+      return VECTOR_KERNEL != null;
+   }
+
+   //Writes the pattern code of the packed guess against secret i into codes[i] (as
+   //an unsigned byte) for every secret in the batch
+   public void scoreAll(int guess, byte[] codes){
+      int done = kernel != null ? kernel.score(guess, lanes, secrets.length, codes) : 0;
+      for (int i = done; i < secrets.length; i++)
+         codes[i] = (byte)FeedbackScorer.score(guess, secrets[i]);
+   }
+
+   private static Kernel loadVectorKernel(){
+      try {
+         Kernel kernel = (Kernel)Class.forName(VECTOR_KERNEL_CLASS).getDeclaredConstructor().newInstance();
+         //(score one word so a missing jdk.incubator.vector module shows up here)
+         kernel.score(0, new byte[PackedWord.LENGTH][1], 1, new byte[1]);
+         return kernel;
+      }
+      catch (ReflectiveOperationException | LinkageError e){
+         return null;
+      }
+   }
+
+   //Guess, secret and the feedback expected (G green, Y yellow, - gray) for pairs
+   //where duplicate letters make the Wordle rules easy to get wrong
+   private static final String[][] TRICKY_PAIRS = {
+      {"SPEED", "ABIDE", "--Y-Y"},   //two E's against one: only the first is yellow
+      {"SPEED", "ERASE", "Y-YY-"},
+      {"ABIDE", "SPEED", "---YY"},
+      {"EERIE", "THEME", "Y---G"},   //three E's against two: the green takes one
+      {"EERIE", "ABIDE", "---YG"},   //three E's against one, matched green
+      {"THEME", "EERIE", "--Y-G"},
+      {"GEESE", "EERIE", "-GY-G"},
+      {"ALLOY", "LLAMA", "YGY--"},
+      {"LLAMA", "ALLOY", "YGY--"},
+      {"BOBBY", "ABBEY", "Y-G-G"},   //three B's against two
+      {"BOBBY", "BLOCK", "GY---"},   //three B's against one
+      {"ABBEY", "KEBAB", "YYGY-"},
+      {"KEBAB", "ABBEY", "-YGYY"},
+      {"MAMMA", "MAXIM", "GGY--"},
+      {"SASSY", "CLASS", "YY-G-"},   //three S's against two
+      {"STEEL", "LEVEL", "--YGG"},
+      {"CRANE", "CRANE", "GGGGG"},
+      {"FJORD", "BUXOM", "--Y--"},
+   };
+
+   //Returns the pattern code of a feedback string like "G-Y--"
+   private static int patternCode(String feedback){
+      int code = 0;
+      for (int pos = PackedWord.LENGTH - 1; pos >= 0; pos--)
+         code = code * 3 + "-YG".indexOf(feedback.charAt(pos));
+      return code;
+   }
+
+   //Checks FeedbackScorer against TRICKY_PAIRS and the Vector API kernel against
+   //FeedbackScorer for every (valid guess, secret) pair, then times scoring every
+   //valid guess against every secret both ways
+   public static void main(String[] args) throws java.io.IOException {
+      int wrong = 0;
+      for (String[] pair : TRICKY_PAIRS){
+         int code = FeedbackScorer.score(PackedWord.pack(pair[0]), PackedWord.pack(pair[1]));
+         if (code != patternCode(pair[2])){
+            wrong++;
+            System.out.println("Wrong feedback: " + pair[0] + " vs " + pair[1] + ": " + code
+                               + " instead of " + patternCode(pair[2]) + " (" + pair[2] + ")");
+         }
+      }
+      System.out.println(TRICKY_PAIRS.length + " duplicate letter pairs, " + wrong + " wrong");
+
+      WordDictionary dictionary = new WordDictionary(DictionaryLoader.load(GameLogic.SECRET_WORDS_FILENAME),
+                                                     DictionaryLoader.load(GameLogic.VALID_GUESSES_FILENAME));
+      int[] guesses = dictionary.validGuesses().toArray();
+      int[] secrets = dictionary.secrets().toArray();
+      long pairs = (long)guesses.length * secrets.length;
+      BatchScorer scalar = new BatchScorer(secrets, false);
+      BatchScorer vector = new BatchScorer(secrets);
+      System.out.println("Batch scoring: " + guesses.length + " guesses x " + secrets.length + " secrets, "
+                         + (vector.isVectorized() ? "Vector API kernel loaded"
+                                                  : "no Vector API kernel (see BatchScorer), scalar only"));
+
+      byte[] expected = new byte[secrets.length];
+      byte[] codes = new byte[secrets.length];
+      long mismatches = 0;
+      for (int guess : guesses){
+         scalar.scoreAll(guess, expected);
+         vector.scoreAll(guess, codes);
+         for (int i = 0; i < secrets.length; i++){
+            if (codes[i] != expected[i] && mismatches++ == 0)
+               System.out.println("Mismatch: " + PackedWord.toString(guess) + " vs " + PackedWord.toString(secrets[i])
+                                  + ": " + (codes[i] & 0xFF) + " instead of " + (expected[i] & 0xFF));
+         }
+      }
+      System.out.println(mismatches + " mismatched pairs");
+
+      for (BatchScorer batch : vector.isVectorized() ? new BatchScorer[] {scalar, vector} : new BatchScorer[] {scalar}){
+         //one untimed pass so the JIT has compiled the kernel
+         long sum = 0;
+         for (int guess : guesses)
+            batch.scoreAll(guess, codes);
+         long start = System.nanoTime();
+         for (int guess : guesses){
+            batch.scoreAll(guess, codes);
+            sum += codes[guess % secrets.length];
+         }
+         long nanos = System.nanoTime() - start;
+         System.out.printf("%-7s %8.1f ms  %8.1f M pairs/s  (%d)%n", batch.isVectorized() ? "vector" : "scalar",
+                           nanos / 1e6, pairs / (nanos / 1e3), sum);
+      }
+      if (wrong > 0 || mismatches > 0)
+         System.exit(1);
+   }
+}
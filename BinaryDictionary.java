@@ -0,0 +1,120 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.zip.CRC32;
+
+//Reads and writes the precompiled binary dictionary (words.bin), a compact copy of
+//secrets.txt and valids.txt that can be mapped straight into memory instead of
+//parsing the text files on every launch. The file is created by DictionaryCompiler.
+//
+//Layout (all values big endian):
+//   int   magic number ("JWDB")
+//   int   format version
+//   int   number of secret words
+//   int   number of valid guesses
+//   long  size of secrets.txt when compiled
+//   long  last modified time of secrets.txt when compiled
+//   long  size of valids.txt when compiled
+//   long  last modified time of valids.txt when compiled
+//   long  CRC32 of the word data below
+//   int[] packed secret words, then int[] packed valid guesses (25 bits used per int)
+public final class BinaryDictionary {
+
+   //Identifies a binary dictionary file, and the layout version described above
+   private static final int MAGIC = 0x4A574442;
+   private static final int VERSION = 1;
+
+   //Size in bytes of everything before the word data
+   private static final int HEADER_BYTES = 4 * 4 + 8 * 5;
+
+   private BinaryDictionary(){ }
+
+   //Loads the binary dictionary file. Returns null if it is missing, corrupt, from
+   //another format version, or stale (either text word list has changed since the
+   //binary file was compiled), in which case the text files should be read instead.
+   public static WordDictionary load(String binaryFilename, String secretsFilename, String validsFilename){
+      Path path = Paths.get(binaryFilename);
+      if (!Files.isRegularFile(path))
+         return null;
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+         long fileSize = channel.size();
+         if (fileSize < HEADER_BYTES)
+            return null;
+         MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+         if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+            return null;
+         int numSecrets = buffer.getInt();
+         int numValids = buffer.getInt();
+         if (numSecrets < 0 || numValids < 0 || fileSize != HEADER_BYTES + 4L * (numSecrets + (long)numValids))
+            return null;
+         if (!matchesSource(secretsFilename, buffer.getLong(), buffer.getLong())
+             || !matchesSource(validsFilename, buffer.getLong(), buffer.getLong()))
+            return null;
+         long expectedCrc = buffer.getLong();
+
+         ByteBuffer data = buffer.slice();
+         CRC32 crc = new CRC32();
+         crc.update(data.duplicate());
+         if (crc.getValue() != expectedCrc)
+            return null;
+
+         IntBuffer words = data.asIntBuffer();
+         int[] secrets = new int[numSecrets];
+         int[] valids = new int[numValids];
+         words.get(secrets);
+         words.get(valids);
+         return new WordDictionary(secrets, valids);
+      }
+      catch (IOException e){
+         return null;
+      }
+   }
+
+   //Writes the packed word lists to a binary dictionary file, recording the size
+   //and modification time of the text files they came from
+   public static void write(String binaryFilename, int[] secrets, int[] valids,
+                            String secretsFilename, String validsFilename) throws IOException {
+      ByteBuffer data = ByteBuffer.allocate(4 * (secrets.length + valids.length));
+      data.asIntBuffer().put(secrets).put(valids);
+      CRC32 crc = new CRC32();
+      crc.update(data.duplicate());
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+      header.putInt(MAGIC).putInt(VERSION);
+      header.putInt(secrets.length).putInt(valids.length);
+      putSourceStamp(header, secretsFilename);
+      putSourceStamp(header, validsFilename);
+      header.putLong(crc.getValue());
+      header.flip();
+
+      Path path = Paths.get(binaryFilename);
+      Path temp = Paths.get(binaryFilename + ".tmp");
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                                                   StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+         while (header.hasRemaining())
+            channel.write(header);
+         while (data.hasRemaining())
+            channel.write(data);
+      }
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+   }
+
+   //Writes the size and modification time of the argument file
+   private static void putSourceStamp(ByteBuffer header, String filename) throws IOException {
+      Path source = Paths.get(filename);
+      header.putLong(Files.size(source));
+      header.putLong(Files.getLastModifiedTime(source).toMillis());
+   }
+
+   //Checks a recorded size/modification time against the text file. A missing text
+   //file doesn't make the binary stale (the binary is then the only copy).
+   private static boolean matchesSource(String filename, long size, long lastModified) throws IOException {
+      Path source = Paths.get(filename);
+      if (!Files.exists(source))
+         return true;
+      return Files.size(source) == size && Files.getLastModifiedTime(source).toMillis() <= lastModified;
+   }
+}
@@ -0,0 +1,190 @@
+import java.util.Arrays;
+
+//Bitset index over the secret words for tracking which of them are still possible.
+//The live set of candidates is a long[] "mask" (one bit per secret word, see
+//newMask). Applying one row of feedback to a mask takes a handful of word-parallel
+//AND / AND NOT passes over these precomputed bitsets, instead of scoring every
+//secret word again:
+//   - one bitset per (position, letter): secrets with that letter at that position
+//   - one bitset per (letter, k): secrets containing that letter at least k times
+//
+//An index never changes once built, so one instance is shared by every session.
+public final class CandidateIndex {
+
+   //Letters in the alphabet and letters per word
+   private static final int ALPHABET_SIZE = 26;
+   private static final int LENGTH = PackedWord.LENGTH;
+
+   //Number of secret words and longs per bitset
+   private final int size;
+   private final int longs;
+
+   //(position, letter) bitsets, stored one after the other
+   private final long[] positionBits;
+   //(letter, k) bitsets for k = 1 to 5, stored one after the other
+   private final long[] atLeastBits;
+
+   //Builds the index over the argument secret words
+   public CandidateIndex(WordSet secrets){
+      size = secrets.size();
+      longs = (size + 63) >>> 6;
+      positionBits = new long[LENGTH * ALPHABET_SIZE * longs];
+      atLeastBits = new long[ALPHABET_SIZE * LENGTH * longs];
+      int[] counts = new int[ALPHABET_SIZE];
+      for (int s = 0; s < size; s++){
+         int word = secrets.get(s);
+         int w = s >>> 6;
+         long bit = 1L << s;
+         Arrays.fill(counts, 0);
+         for (int pos = 0; pos < LENGTH; pos++){
+            int letter = PackedWord.letterAt(word, pos);
+            positionBits[positionOffset(pos, letter) + w] |= bit;
+            counts[letter]++;
+         }
+         for (int letter = 0; letter < ALPHABET_SIZE; letter++){
+            for (int k = 1; k <= counts[letter]; k++)
+               atLeastBits[atLeastOffset(letter, k) + w] |= bit;
+         }
+      }
+   }
+
+   //Returns the number of secret words indexed
+   public int size(){
+      return size;
+   }
+
+   //Returns a new mask with every secret word still possible
+   public long[] newMask(){
+      long[] mask = new long[longs];
+      Arrays.fill(mask, -1L);
+      if ((size & 63) != 0)
+         mask[longs - 1] = (1L << size) - 1;
+      return mask;
+   }
+
+   //Removes from the mask every secret that wouldn't have given the argument pattern
+   //code for the argument packed guess
+   public void apply(long[] mask, int guess, int code){
+      //exact positions: greens must match, any other guess letter must not
+      for (int pos = 0; pos < LENGTH; pos++){
+         int offset = positionOffset(pos, PackedWord.letterAt(guess, pos));
+         if (FeedbackScorer.colorAt(code, pos) == FeedbackScorer.GREEN)
+            and(mask, positionBits, offset);
+         else
+            andNot(mask, positionBits, offset);
+      }
+
+      //letter counts: each distinct guess letter appears at least (greens + yellows)
+      //times, and exactly that many times if one of its copies was gray
+      int seen = 0;
+      for (int pos = 0; pos < LENGTH; pos++){
+         int letter = PackedWord.letterAt(guess, pos);
+         if ((seen & (1 << letter)) != 0)
+            continue;
+         seen |= 1 << letter;
+         int found = 0;
+         boolean gray = false;
+         for (int i = pos; i < LENGTH; i++){
+            if (PackedWord.letterAt(guess, i) != letter)
+               continue;
+            if (FeedbackScorer.colorAt(code, i) == FeedbackScorer.GRAY)
+               gray = true;
+            else
+               found++;
+         }
+         if (found > 0)
+            and(mask, atLeastBits, atLeastOffset(letter, found));
+         if (gray && found < LENGTH)
+            andNot(mask, atLeastBits, atLeastOffset(letter, found + 1));
+      }
+   }
+
+   //Returns the number of secrets left in the mask
+   public int count(long[] mask){
+      int count = 0;
+      for (long bits : mask)
+         count += Long.bitCount(bits);
+      return count;
+   }
+
+   //Writes the indices of the secrets left in the mask into out (in order) and
+   //returns how many there are. out must have room for count(mask) entries.
+   public int list(long[] mask, int[] out){
+      int count = 0;
+      for (int w = 0; w < mask.length; w++){
+         long bits = mask[w];
+         while (bits != 0){
+            out[count++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+            bits &= bits - 1;
+         }
+      }
+      return count;
+   }
+
+   //Returns true if the secret at the argument index is still in the mask
+   public static boolean contains(long[] mask, int secretIndex){
+      return (mask[secretIndex >>> 6] & (1L << secretIndex)) != 0;
+   }
+
+   private int positionOffset(int pos, int letter){
+      return (pos * ALPHABET_SIZE + letter) * longs;
+   }
+
+   //Offset of the bitset for "letter appears at least k times" (k from 1 to 5)
+   private int atLeastOffset(int letter, int k){
+      return (letter * LENGTH + k - 1) * longs;
+   }
+
+   private static void and(long[] mask, long[] bits, int offset){
+      for (int w = 0; w < mask.length; w++)
+         mask[w] &= bits[offset + w];
+   }
+
+   private static void andNot(long[] mask, long[] bits, int offset){
+      for (int w = 0; w < mask.length; w++)
+         mask[w] &= ~bits[offset + w];
+   }
+
+   //Plays random 3 row games and checks, after every row, that the mask holds exactly
+   //the secrets that give the same feedback as the real secret to every row so far.
+   //Half the guesses are any valid guess, half a secret still in the mask (so later
+   //rows are full of greens and repeated letters).
+   //Usage: java CandidateIndex [games]
+   public static void main(String[] args) throws java.io.IOException {
+      int games = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+      WordDictionary dictionary = new WordDictionary(DictionaryLoader.load(GameLogic.SECRET_WORDS_FILENAME),
+                                                     DictionaryLoader.load(GameLogic.VALID_GUESSES_FILENAME));
+      int[] guesses = dictionary.validGuesses().toArray();
+      int[] secrets = dictionary.secrets().toArray();
+      CandidateIndex index = dictionary.candidateIndex();
+      java.util.Random rand = new java.util.Random(42);
+      int[] rowGuesses = new int[3], rowCodes = new int[3];
+      int[] left = new int[secrets.length];
+      long checks = 0, mismatches = 0;
+      for (int game = 0; game < games; game++){
+         int secret = secrets[rand.nextInt(secrets.length)];
+         long[] mask = index.newMask();
+         for (int row = 0; row < rowGuesses.length; row++){
+            int guess = rand.nextBoolean() ? guesses[rand.nextInt(guesses.length)]
+                                           : secrets[left[rand.nextInt(index.list(mask, left))]];
+            rowGuesses[row] = guess;
+            rowCodes[row] = FeedbackScorer.score(guess, secret);
+            index.apply(mask, guess, rowCodes[row]);
+            for (int s = 0; s < secrets.length; s++){
+               boolean possible = true;
+               for (int r = 0; r <= row && possible; r++)
+                  possible = FeedbackScorer.score(rowGuesses[r], secrets[s]) == rowCodes[r];
+               checks++;
+               if (possible != contains(mask, s) && mismatches++ == 0)
+                  System.out.println("Mismatch: " + PackedWord.toString(secrets[s]) + " after "
+                                     + PackedWord.toString(rowGuesses[row]) + " (row " + row + ", secret "
+                                     + PackedWord.toString(secret) + ") is " + (possible ? "possible" : "ruled out")
+                                     + " but the mask says otherwise");
+            }
+         }
+      }
+      System.out.println(games + " games, " + checks + " secrets checked, " + mismatches + " mismatches");
+      if (mismatches > 0)
+         System.exit(1);
+   }
+}
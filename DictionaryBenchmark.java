@@ -0,0 +1,162 @@
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Scanner;
+
+//Microbenchmark comparing the old way of checking a guess (upper casing it and
+//scanning every String in the valid guess list) with the packed WordSet lookup
+//GameLogic.validWordCheck now uses, and with following the guess letter by letter
+//through the WordGraph GameSession uses while typing. Also prints the memory each
+//of the three takes.
+//
+//Run from the folder containing valids.txt:  java DictionaryBenchmark
+public class DictionaryBenchmark {
+
+   //Name of file containing all the valid guess words
+   private static final String VALID_GUESSES_FILENAME = "valids.txt";
+
+   //Number of guesses checked per measured round, and number of rounds
+   private static final int QUERIES = 512;
+   private static final int WARMUP_ROUNDS = 5;
+   private static final int MEASURED_ROUNDS = 10;
+   //The packed lookup is so much faster it's repeated to get a stable reading
+   private static final int PACKED_REPEAT = 200;
+
+   //Keeps the JIT from throwing away the work being measured
+   private static int sink;
+
+   public static void main(String[] args) throws FileNotFoundException {
+      String[] strings = readValids();
+      int[] packed = new int[strings.length];
+      for (int i = 0; i < strings.length; i++)
+         packed[i] = PackedWord.pack(strings[i]);
+      WordSet set = new WordSet(packed, packed.length);
+      WordGraph graph = new WordGraph(set);
+
+      //Half the queries are real words, the other half random letters (mostly misses)
+      Random rand = new Random(42);
+      char[][] queries = new char[QUERIES][];
+      for (int i = 0; i < QUERIES; i++){
+         if (i % 2 == 0)
+            queries[i] = strings[rand.nextInt(strings.length)].toLowerCase().toCharArray();
+         else{
+            queries[i] = new char[PackedWord.LENGTH];
+            for (int c = 0; c < PackedWord.LENGTH; c++)
+               queries[i][c] = (char)('A' + rand.nextInt(26));
+         }
+      }
+
+      for (int i = 0; i < WARMUP_ROUNDS; i++){
+         sink += scanStrings(strings, queries);
+         for (int r = 0; r < PACKED_REPEAT; r++){
+            sink += lookupPacked(set, queries);
+            sink += lookupGraph(graph, queries);
+         }
+      }
+
+      long scanNanos = 0, packedNanos = 0, graphNanos = 0;
+      for (int i = 0; i < MEASURED_ROUNDS; i++){
+         long start = System.nanoTime();
+         sink += scanStrings(strings, queries);
+         scanNanos += System.nanoTime() - start;
+
+         start = System.nanoTime();
+         for (int r = 0; r < PACKED_REPEAT; r++)
+            sink += lookupPacked(set, queries);
+         packedNanos += System.nanoTime() - start;
+
+         start = System.nanoTime();
+         for (int r = 0; r < PACKED_REPEAT; r++)
+            sink += lookupGraph(graph, queries);
+         graphNanos += System.nanoTime() - start;
+      }
+
+      double totalQueries = (double)QUERIES * MEASURED_ROUNDS;
+      double scanPerGuess = scanNanos / totalQueries;
+      double packedPerGuess = packedNanos / (totalQueries * PACKED_REPEAT);
+      System.out.printf("String[] scan:    %12.1f ns/guess%n", scanPerGuess);
+      System.out.printf("WordSet lookup:   %12.1f ns/guess%n", packedPerGuess);
+      System.out.printf("Speedup:          %12.1fx%n", scanPerGuess / packedPerGuess);
+      System.out.printf("WordGraph walk:   %12.1f ns/guess%n", graphNanos / (totalQueries * PACKED_REPEAT));
+
+      //retained sizes: what building the String[] and the WordSet allocates (neither
+      //makes any garbage), and the arrays of the graph
+      char[][] letters = new char[strings.length][];
+      for (int i = 0; i < strings.length; i++)
+         letters[i] = strings[i].toCharArray();
+      long stringBytes = allocatedBytes(() -> {
+         String[] copy = new String[letters.length];
+         for (int i = 0; i < letters.length; i++)
+            copy[i] = new String(letters[i]);
+         sink += copy.length;
+      });
+      long setBytes = allocatedBytes(() -> sink += new WordSet(packed, packed.length).size());
+      System.out.printf("%d valid guesses:%n", strings.length);
+      System.out.printf("String[]:         %12d bytes%n", stringBytes);
+      System.out.printf("WordSet:          %12d bytes%n", setBytes);
+      System.out.printf("WordGraph:        %12d bytes (%d nodes, %d edges)%n", graph.memoryBytes(),
+                        graph.nodeCount(), graph.edgeCount());
+      System.out.println("(sink " + sink + ")");
+   }
+
+   //The validWordCheck loop as it was before WordSet
+   private static int scanStrings(String[] validGuesses, char[][] queries){
+      int found = 0;
+      for (char[] userInput : queries){
+         String checker = String.valueOf(userInput).toUpperCase();
+         for (int i = 0; i < validGuesses.length; i++){
+            if (checker.equals(validGuesses[i].toUpperCase())){
+               found++;
+               break;
+            }
+         }
+      }
+      return found;
+   }
+
+   //The validWordCheck lookup using WordSet
+   private static int lookupPacked(WordSet validGuesses, char[][] queries){
+      int found = 0;
+      for (char[] userInput : queries){
+         if (validGuesses.contains(PackedWord.pack(userInput)))
+            found++;
+      }
+      return found;
+   }
+
+   //Checks each guess one letter at a time through the graph, like GameSession does
+   //while the player types
+   private static int lookupGraph(WordGraph validGuesses, char[][] queries){
+      int found = 0;
+      for (char[] userInput : queries){
+         int node = validGuesses.root();
+         for (int i = 0; i < userInput.length; i++)
+            node = validGuesses.step(node, PackedWord.letterIndex(userInput[i]));
+         if (validGuesses.isWord(node))
+            found++;
+      }
+      return found;
+   }
+
+   //Returns the bytes the calling thread allocates while running the argument code
+   private static long allocatedBytes(Runnable code){
+      com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+      long threadId = Thread.currentThread().getId();
+      long before = threads.getThreadAllocatedBytes(threadId);
+      code.run();
+      return threads.getThreadAllocatedBytes(threadId) - before;
+   }
+
+   //Reads the valid guesses file the same way GameLogic used to
+   private static String[] readValids() throws FileNotFoundException {
+      Scanner scanner = new Scanner(new File(VALID_GUESSES_FILENAME));
+      int numWords = scanner.nextInt();
+      String[] words = new String[numWords];
+      int count = 0;
+      while (count < numWords && scanner.hasNext())
+         words[count++] = scanner.next();
+      scanner.close();
+      return Arrays.copyOf(words, count);
+   }
+}
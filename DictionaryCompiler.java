@@ -0,0 +1,25 @@
+import java.io.*;
+
+//Offline tool that compiles secrets.txt and valids.txt into the binary dictionary
+//file (words.bin) that GameLogic.initializeGame maps on startup.
+//Run it again whenever either word list changes (the game falls back to the text
+//files while the binary file is stale).
+//
+//Usage:  java DictionaryCompiler [secrets file] [valids file] [output file]
+public class DictionaryCompiler {
+
+   public static void main(String[] args) throws IOException {
+      String secretsFilename = args.length > 0 ? args[0] : GameLogic.SECRET_WORDS_FILENAME;
+      String validsFilename = args.length > 1 ? args[1] : GameLogic.VALID_GUESSES_FILENAME;
+      String outputFilename = args.length > 2 ? args[2] : GameLogic.BINARY_DICTIONARY_FILENAME;
+
+      int[] secrets = DictionaryLoader.load(secretsFilename);
+      int[] valids = DictionaryLoader.load(validsFilename);
+      BinaryDictionary.write(outputFilename, secrets, valids, secretsFilename, validsFilename);
+
+      long textBytes = new File(secretsFilename).length() + new File(validsFilename).length();
+      System.out.println("Wrote " + outputFilename + ": " + secrets.length + " secret words, "
+                         + valids.length + " valid guesses, " + new File(outputFilename).length()
+                         + " bytes (text files: " + textBytes + " bytes)");
+   }
+}
@@ -0,0 +1,95 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.InputMismatchException;
+
+//Reads a word list file (a word count on the first line followed by one 5 letter
+//word per line, as in secrets.txt and valids.txt) straight out of a memory mapped
+//buffer. Each word is packed into an int (see PackedWord) as it is parsed, so no
+//String is ever created for a word.
+public final class DictionaryLoader {
+
+   private DictionaryLoader(){ }
+
+   //Loads the argument word list file and returns its words as packed ints.
+   //Reads as many words as the count header says, or until the end of the file if
+   //it holds fewer.
+   //Throws FileNotFoundException if the file doesn't exist, and
+   //InputMismatchException if the count header or one of the words is malformed.
+   public static int[] load(String filename) throws IOException {
+      Path path = Paths.get(filename);
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+         MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+         return parse(buffer, filename);
+      }
+      catch (NoSuchFileException e){
+         throw new FileNotFoundException(filename);
+      }
+   }
+
+   //Parses the count header and the words out of the argument buffer
+   private static int[] parse(ByteBuffer buffer, String filename){
+      int pos = skipWhitespace(buffer, 0);
+      int limit = buffer.limit();
+
+      //count header
+      long count = 0;
+      int digits = 0;
+      while (pos < limit && isDigit(buffer.get(pos))){
+         count = count * 10 + (buffer.get(pos) - '0');
+         if (count > Integer.MAX_VALUE)
+            throw new InputMismatchException("Word count too large in " + filename);
+         digits++;
+         pos++;
+      }
+      if (digits == 0 || (pos < limit && !isWhitespace(buffer.get(pos))))
+         throw new InputMismatchException("Missing word count in " + filename);
+
+      //each record is 5 letters followed by whitespace (or the end of the file), so
+      //the buffer can't hold more than (remaining + 1) / 6 words whatever the header says
+      pos = skipWhitespace(buffer, pos);
+      int capacity = (int)Math.min(count, ((long)(limit - pos) + 1) / (PackedWord.LENGTH + 1));
+      int[] words = new int[capacity];
+      int numWords = 0;
+      while (numWords < capacity && pos < limit){
+         if (pos + PackedWord.LENGTH > limit)
+            throw new InputMismatchException("Truncated word in " + filename + " at byte " + pos);
+         int packed = 0;
+         for (int i = 0; i < PackedWord.LENGTH; i++){
+            int letter = PackedWord.letterIndex((char)(buffer.get(pos + i) & 0xFF));
+            if (letter < 0)
+               throw new InputMismatchException("Invalid word in " + filename + " at byte " + pos);
+            packed = (packed << PackedWord.LETTER_BITS) | letter;
+         }
+         pos += PackedWord.LENGTH;
+         if (pos < limit && !isWhitespace(buffer.get(pos)))
+            throw new InputMismatchException("Invalid word in " + filename + " at byte " + (pos - PackedWord.LENGTH));
+         words[numWords++] = packed;
+         pos = skipWhitespace(buffer, pos);
+      }
+
+      if (numWords == words.length)
+         return words;
+      int[] trimmed = new int[numWords];
+      System.arraycopy(words, 0, trimmed, 0, numWords);
+      return trimmed;
+   }
+
+   //Returns the position of the first non whitespace byte at or after pos
+   private static int skipWhitespace(ByteBuffer buffer, int pos){
+      int limit = buffer.limit();
+      while (pos < limit && isWhitespace(buffer.get(pos)))
+         pos++;
+      return pos;
+   }
+
+   private static boolean isDigit(byte b){
+      return b >= '0' && b <= '9';
+   }
+
+   private static boolean isWhitespace(byte b){
+      return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+   }
+}
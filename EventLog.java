@@ -0,0 +1,301 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.InputMismatchException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+//Structured log of what happens in games (keys typed, rows scored, games won/lost).
+//
+//Logging an event never blocks and never allocates: it claims a slot in a
+//preallocated ring buffer with one compare-and-set and writes a fixed size record
+//(timestamp, session, key, row, col, outcome) into it. A background daemon thread
+//drains the ring in batches to a binary file, which is rotated once it grows past
+//MAX_FILE_BYTES and when a new run starts logging (keeping MAX_FILES old ones, so
+//the last run's log is never overwritten). If the ring is full, the event is
+//dropped and counted, and the count is written to the file as a DROPPED event.
+//
+//The level is read once from the jwordle.log system property (off, info or debug;
+//off by default). Callers check the INFO_ENABLED / DEBUG_ENABLED constants before
+//logging, so a disabled level is compiled out by the JIT.
+//
+//   java -Djwordle.log=debug JWordleLauncher    (log every key to jwordle-events.log)
+//   java EventLog jwordle-events.log            (print a log file as text)
+public final class EventLog {
+
+   //Log levels
+   public static final int OFF = 0;
+   public static final int INFO = 1;
+   public static final int DEBUG = 2;
+
+   //Level events are logged at (see the class comment)
+   public static final int LEVEL = parseLevel(System.getProperty("jwordle.log", "off"));
+   public static final boolean INFO_ENABLED = LEVEL >= INFO;
+   public static final boolean DEBUG_ENABLED = LEVEL >= DEBUG;
+
+   //Event types
+   public static final int SESSION_STARTED = 1;   //outcome = packed secret word
+   public static final int KEY = 2;               //key typed (DEBUG), outcome = 1 if it changed the board
+   public static final int ROW_SCORED = 3;        //outcome = pattern code
+   public static final int ROW_REJECTED = 4;      //outcome = REJECTED_INCOMPLETE, _NOT_A_WORD or _HARD_MODE
+   public static final int GAME_OVER = 5;         //outcome = GameSession.WON or LOST
+   public static final int DROPPED = 6;           //outcome = events dropped since the last DROPPED
+   private static final String[] TYPE_NAMES = {"?", "SESSION_STARTED", "KEY", "ROW_SCORED",
+                                               "ROW_REJECTED", "GAME_OVER", "DROPPED"};
+
+   //Outcomes of ROW_REJECTED events
+   public static final int REJECTED_INCOMPLETE = 0;
+   public static final int REJECTED_NOT_A_WORD = 1;
+   public static final int REJECTED_HARD_MODE = 2;
+
+   //File the log is written to (older files get .1, .2, ... appended)
+   public static final String FILENAME = System.getProperty("jwordle.log.file", "jwordle-events.log");
+   //Size a file may reach before it is rotated, and number of old files kept
+   private static final long MAX_FILE_BYTES = 4L << 20;
+   private static final int MAX_FILES = 3;
+
+   //File header: magic number ("JWEL"), format version and record size
+   private static final int MAGIC = 0x4A57454C;
+   private static final int VERSION = 1;
+   private static final int HEADER_BYTES = 12;
+
+   //Each record is 3 longs (24 bytes):
+   //   timestamp (epoch nanoseconds)
+   //   session id << 32 | outcome
+   //   key << 32 | type << 16 | row << 8 | col
+   private static final int RECORD_LONGS = 3;
+   private static final int RECORD_BYTES = RECORD_LONGS * 8;
+
+   //Slots in the ring (a power of 2), and records written to the file per batch
+   private static final int CAPACITY = 1 << 14;
+   private static final int BATCH_RECORDS = 1024;
+   //How long the writer thread sleeps once it has emptied the ring
+   private static final long DRAIN_INTERVAL_NANOS = 10000000L;
+
+   //Ring buffer: slot i holds its record in data[i * RECORD_LONGS ...], and
+   //sequence[i] tells producers and the writer who may use it next. A slot whose
+   //sequence equals a producer's claimed position is free for that position;
+   //position + 1 means the record is written and ready to be drained.
+   private static final long[] data = new long[CAPACITY * RECORD_LONGS];
+   private static final AtomicLongArray sequence = new AtomicLongArray(CAPACITY);
+   //Next position producers will claim, and next position the writer will drain
+   private static final AtomicLong tail = new AtomicLong();
+   private static long head = 0;
+   //Events dropped because the ring was full
+   private static final AtomicLong dropped = new AtomicLong();
+
+   //Converts System.nanoTime() to epoch nanoseconds
+   private static final long EPOCH_OFFSET_NANOS = System.currentTimeMillis() * 1000000L - System.nanoTime();
+
+   //The background thread writing the log (null until the first event)
+   private static volatile Thread writer = null;
+   //The file being written, and its size (only used while holding the class lock)
+   private static FileChannel channel = null;
+   private static long fileBytes = 0;
+   //True once this run has opened the file (the first open rotates the previous
+   //run's log out of the way instead of overwriting it)
+   private static boolean opened = false;
+   //Records drained from the ring, waiting to be written to the file
+   private static final ByteBuffer batch = ByteBuffer.allocateDirect(BATCH_RECORDS * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+
+   static {
+      for (int i = 0; i < CAPACITY; i++)
+         sequence.set(i, i);
+   }
+
+   private EventLog(){ }
+
+   //Adds an event to the log (callers check INFO_ENABLED or DEBUG_ENABLED first).
+   //Never blocks: if the ring is full the event is dropped.
+   public static void log(int type, int session, char key, int row, int col, int outcome){
+      if (writer == null)
+         startWriter();
+      long now = System.nanoTime() + EPOCH_OFFSET_NANOS;
+      long pos = tail.get();
+      while (true){
+         int slot = (int)pos & (CAPACITY - 1);
+         long seq = sequence.get(slot);
+         if (seq == pos){
+            if (tail.compareAndSet(pos, pos + 1))
+               break;
+            pos = tail.get();
+         }
+         else if (seq < pos){
+            //the writer hasn't drained this slot since the ring last wrapped
+            dropped.incrementAndGet();
+            return;
+         }
+         else
+            pos = tail.get();
+      }
+      int slot = (int)pos & (CAPACITY - 1);
+      int base = slot * RECORD_LONGS;
+      data[base] = now;
+      data[base + 1] = ((long)session << 32) | (outcome & 0xFFFFFFFFL);
+      data[base + 2] = ((long)key << 32) | (type << 16) | ((row & 0xFF) << 8) | (col & 0xFF);
+      //publishes the record to the writer
+      sequence.lazySet(slot, pos + 1);
+   }
+
+   //Starts the writer thread (once), and flushes the ring when the program exits
+   private static synchronized void startWriter(){
+      if (writer != null)
+         return;
+      Thread thread = new Thread(EventLog::drainLoop, "jwordle-event-log");
+      thread.setDaemon(true);
+      thread.start();
+      Runtime.getRuntime().addShutdownHook(new Thread(EventLog::flush, "jwordle-event-log-flush"));
+      writer = thread;
+   }
+
+   //Body of the writer thread
+   private static void drainLoop(){
+      while (true){
+         if (drain() == 0)
+            LockSupport.parkNanos(DRAIN_INTERVAL_NANOS);
+      }
+   }
+
+   //Writes everything in the ring to the file
+   public static void flush(){
+      while (drain() > 0)
+         ;
+      synchronized (EventLog.class){
+         try {
+            if (channel != null)
+               channel.force(false);
+         }
+         catch (IOException e){
+            System.err.println("Event log: " + e.getMessage());
+         }
+      }
+   }
+
+   //Writes up to one batch of records from the ring to the file and returns how
+   //many were written
+   private static synchronized int drain(){
+      batch.clear();
+      long lost = dropped.getAndSet(0);
+      if (lost > 0)
+         putRecord(System.nanoTime() + EPOCH_OFFSET_NANOS, ((long)-1 << 32) | (lost & 0xFFFFFFFFL), (long)DROPPED << 16);
+      int count = 0;
+      while (count < BATCH_RECORDS && batch.remaining() >= RECORD_BYTES){
+         int slot = (int)head & (CAPACITY - 1);
+         if (sequence.get(slot) != head + 1)
+            break;
+         int base = slot * RECORD_LONGS;
+         putRecord(data[base], data[base + 1], data[base + 2]);
+         //frees the slot for the producer one lap later
+         sequence.lazySet(slot, head + CAPACITY);
+         head++;
+         count++;
+      }
+      if (batch.position() == 0)
+         return 0;
+      batch.flip();
+      try {
+         write(batch);
+      }
+      catch (IOException e){
+         System.err.println("Event log: " + e.getMessage());
+      }
+      return count;
+   }
+
+   private static void putRecord(long timestamp, long sessionOutcome, long keyTypeRowCol){
+      batch.putLong(timestamp);
+      batch.putLong(sessionOutcome);
+      batch.putLong(keyTypeRowCol);
+   }
+
+   //Appends a batch to the file, rotating it first if it is full (or, when this run
+   //first opens it, if it holds an earlier run's log)
+   private static void write(ByteBuffer buffer) throws IOException {
+      if (channel != null && fileBytes + buffer.remaining() > MAX_FILE_BYTES){
+         channel.close();
+         channel = null;
+         rotate();
+      }
+      if (channel == null){
+         Path path = Paths.get(FILENAME);
+         if (!opened && Files.exists(path) && Files.size(path) > 0)
+            rotate();
+         opened = true;
+         channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                    StandardOpenOption.TRUNCATE_EXISTING);
+         ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+         header.putInt(MAGIC).putInt(VERSION).putInt(RECORD_BYTES).flip();
+         while (header.hasRemaining())
+            channel.write(header);
+         fileBytes = HEADER_BYTES;
+      }
+      while (buffer.hasRemaining())
+         fileBytes += channel.write(buffer);
+   }
+
+   //Shifts FILENAME -> FILENAME.1 -> FILENAME.2 ..., deleting the oldest
+   private static void rotate() throws IOException {
+      Files.deleteIfExists(Paths.get(FILENAME + "." + MAX_FILES));
+      for (int i = MAX_FILES - 1; i >= 1; i--){
+         Path older = Paths.get(FILENAME + "." + i);
+         if (Files.exists(older))
+            Files.move(older, Paths.get(FILENAME + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+      }
+      Files.move(Paths.get(FILENAME), Paths.get(FILENAME + ".1"), StandardCopyOption.REPLACE_EXISTING);
+   }
+
+   private static int parseLevel(String level){
+      switch (level.toLowerCase()){
+         case "debug": return DEBUG;
+         case "info":  return INFO;
+         case "off":   return OFF;
+         default:
+            System.err.println("Unknown jwordle.log level '" + level + "' (expected off, info or debug)");
+            return OFF;
+      }
+   }
+
+   //Prints the argument log files (FILENAME if none) as text, one event per line
+   public static void main(String[] args) throws IOException {
+      if (args.length == 0)
+         args = new String[] {FILENAME};
+      for (String filename : args){
+         ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(Paths.get(filename))).order(ByteOrder.LITTLE_ENDIAN);
+         if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+             || buffer.getInt() != RECORD_BYTES)
+            throw new InputMismatchException(filename + " is not a JWordle event log");
+         while (buffer.remaining() >= RECORD_BYTES){
+            long timestamp = buffer.getLong();
+            long sessionOutcome = buffer.getLong();
+            long keyTypeRowCol = buffer.getLong();
+            int type = (int)(keyTypeRowCol >>> 16) & 0xFFFF;
+            int outcome = (int)sessionOutcome;
+            String detail;
+            if (type == KEY){
+               char key = (char)(keyTypeRowCol >>> 32);
+               detail = "key=" + (key == GameLogic.ENTER_KEY ? "ENTER" : key == GameLogic.BACKSPACE_KEY ? "BACKSPACE" : "" + key)
+                        + " changed=" + (outcome != 0);
+            }
+            else if (type == SESSION_STARTED)
+               detail = "secret=" + PackedWord.toString(outcome);
+            else if (type == ROW_SCORED)
+               detail = "code=" + outcome + (outcome == FeedbackScorer.ALL_GREEN ? " (solved)" : "");
+            else if (type == ROW_REJECTED)
+               detail = outcome == REJECTED_INCOMPLETE ? "incomplete" : outcome == REJECTED_NOT_A_WORD ? "not a word"
+                      : "breaks hard mode";
+            else if (type == GAME_OVER)
+               detail = outcome == GameSession.WON ? "won" : "lost";
+            else
+               detail = "count=" + outcome;
+            System.out.printf("%s session=%d %-15s row=%d col=%d %s%n",
+                              Instant.ofEpochSecond(timestamp / 1000000000L, timestamp % 1000000000L),
+                              (int)(sessionOutcome >> 32), type < TYPE_NAMES.length ? TYPE_NAMES[type] : "?",
+                              (keyTypeRowCol >>> 8) & 0xFF, keyTypeRowCol & 0xFF, detail);
+         }
+      }
+   }
+}
@@ -0,0 +1,202 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+//Precomputed table of FeedbackScorer pattern codes for every (valid guess, secret
+//word) pair in a WordDictionary: one byte per pair, guesses as rows and secrets as
+//columns (about 30 MB for the standard word lists).
+//
+//The table is built in parallel with fork-join (each row scored with BatchScorer,
+//which uses the Vector API when it is available) and stored in a memory mapped cache
+//file, so later runs map the file instead of rebuilding it. The cache header holds
+//the dictionary checksum and is rebuilt whenever the word lists change.
+//
+//Run "java FeedbackMatrix" to time the build for each number of cores.
+public final class FeedbackMatrix {
+
+   //Default name of the cache file
+   public static final String CACHE_FILENAME = "feedback.cache";
+
+   //Identifies a feedback cache file and its layout version
+   private static final int MAGIC = 0x4A574643;
+   private static final int VERSION = 1;
+   //magic, version, dictionary checksum, rows, cols
+   private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4;
+
+   //Number of guess rows each fork-join task fills before it stops splitting
+   private static final int ROWS_PER_TASK = 32;
+
+   //Pattern codes, row major, starting at position 0
+   private final ByteBuffer codes;
+   private final int rows;
+   private final int cols;
+   private final long dictionaryChecksum;
+
+   private FeedbackMatrix(ByteBuffer codes, int rows, int cols, long dictionaryChecksum){
+      this.codes = codes;
+      this.rows = rows;
+      this.cols = cols;
+      this.dictionaryChecksum = dictionaryChecksum;
+   }
+
+   //Returns the pattern code of the guess at guessIndex (in the dictionary's valid
+   //guesses) against the secret at secretIndex (in the dictionary's secrets)
+   public int get(int guessIndex, int secretIndex){
+      return codes.get(guessIndex * cols + secretIndex) & 0xFF;
+   }
+
+   //Returns the number of guesses (rows)
+   public int guessCount(){
+      return rows;
+   }
+
+   //Returns the number of secrets (columns)
+   public int secretCount(){
+      return cols;
+   }
+
+   //Returns true if this table was built from the argument dictionary
+   public boolean matches(WordDictionary dictionary){
+      return dictionaryChecksum == dictionary.checksum()
+             && rows == dictionary.validGuesses().size() && cols == dictionary.secrets().size();
+   }
+
+   //Maps the cache file if it matches the dictionary, otherwise builds the table with
+   //the common fork-join pool and writes it to the cache file. If the cache file
+   //can't be written the table is built in memory instead.
+   public static FeedbackMatrix open(WordDictionary dictionary, String cacheFilename){
+      FeedbackMatrix cached = load(dictionary, cacheFilename);
+      if (cached != null)
+         return cached;
+      try {
+         return buildToFile(dictionary, cacheFilename, ForkJoinPool.commonPool());
+      }
+      catch (IOException e){
+         System.err.println("Warning: could not write " + cacheFilename + " (" + e.getMessage() + "), building in memory");
+         return build(dictionary, ForkJoinPool.commonPool());
+      }
+   }
+
+   //Maps an existing cache file. Returns null if it is missing or was built from
+   //different word lists.
+   public static FeedbackMatrix load(WordDictionary dictionary, String cacheFilename){
+      Path path = Paths.get(cacheFilename);
+      if (!Files.isRegularFile(path))
+         return null;
+      int rows = dictionary.validGuesses().size();
+      int cols = dictionary.secrets().size();
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+         if (channel.size() != HEADER_BYTES + (long)rows * cols)
+            return null;
+         MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+         if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getLong() != dictionary.checksum()
+             || buffer.getInt() != rows || buffer.getInt() != cols)
+            return null;
+         return new FeedbackMatrix(buffer.slice(), rows, cols, dictionary.checksum());
+      }
+      catch (IOException e){
+         return null;
+      }
+   }
+
+   //Builds the table in memory (nothing is written to disk)
+   public static FeedbackMatrix build(WordDictionary dictionary, ForkJoinPool pool){
+      int rows = dictionary.validGuesses().size();
+      int cols = dictionary.secrets().size();
+      ByteBuffer codes = ByteBuffer.allocate(rows * cols);
+      pool.invoke(new FillTask(codes, dictionary.validGuesses().toArray(), new BatchScorer(dictionary.secrets().toArray()), 0, rows));
+      return new FeedbackMatrix(codes, rows, cols, dictionary.checksum());
+   }
+
+   //Builds the table straight into a memory mapped cache file
+   private static FeedbackMatrix buildToFile(WordDictionary dictionary, String cacheFilename, ForkJoinPool pool) throws IOException {
+      int rows = dictionary.validGuesses().size();
+      int cols = dictionary.secrets().size();
+      Path path = Paths.get(cacheFilename);
+      Path temp = Paths.get(cacheFilename + ".tmp");
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                                   StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+         MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long)rows * cols);
+         buffer.putInt(MAGIC).putInt(VERSION).putLong(dictionary.checksum()).putInt(rows).putInt(cols);
+         ByteBuffer codes = buffer.slice();
+         pool.invoke(new FillTask(codes, dictionary.validGuesses().toArray(), new BatchScorer(dictionary.secrets().toArray()), 0, rows));
+         buffer.force();
+      }
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+      FeedbackMatrix mapped = load(dictionary, cacheFilename);
+      if (mapped == null)
+         throw new IOException("cache file unreadable after writing");
+      return mapped;
+   }
+
+   //Fills the rows [fromRow, toRow) of the table, splitting in half until a task
+   //has at most ROWS_PER_TASK rows
+   private static class FillTask extends RecursiveAction {
+
+      private final ByteBuffer codes;
+      private final int[] guesses;
+      private final BatchScorer secrets;
+      private final int fromRow, toRow;
+
+      private FillTask(ByteBuffer codes, int[] guesses, BatchScorer secrets, int fromRow, int toRow){
+         this.codes = codes;
+         this.guesses = guesses;
+         this.secrets = secrets;
+         this.fromRow = fromRow;
+         this.toRow = toRow;
+      }
+
+      protected void compute(){
+         if (toRow - fromRow > ROWS_PER_TASK){
+            int mid = (fromRow + toRow) >>> 1;
+            invokeAll(new FillTask(codes, guesses, secrets, fromRow, mid),
+                      new FillTask(codes, guesses, secrets, mid, toRow));
+            return;
+         }
+         int cols = secrets.size();
+         byte[] row = new byte[cols];
+         for (int r = fromRow; r < toRow; r++){
+            secrets.scoreAll(guesses[r], row);
+            codes.put(r * cols, row, 0, cols);
+         }
+      }
+   }
+
+   //Times an in-memory build with 1, 2, 4, ... cores up to every available core,
+   //then opens (building if needed) the cache file and times mapping it
+   public static void main(String[] args) throws IOException {
+      WordDictionary dictionary = new WordDictionary(DictionaryLoader.load(GameLogic.SECRET_WORDS_FILENAME),
+                                                     DictionaryLoader.load(GameLogic.VALID_GUESSES_FILENAME));
+      long pairs = (long)dictionary.validGuesses().size() * dictionary.secrets().size();
+      int maxCores = Runtime.getRuntime().availableProcessors();
+      System.out.println("Feedback matrix: " + dictionary.validGuesses().size() + " x " + dictionary.secrets().size()
+                         + " = " + pairs + " pairs, " + maxCores + " core(s) available"
+                         + (BatchScorer.vectorKernelAvailable() ? ", Vector API scoring" : ""));
+
+      //one untimed build so the JIT has compiled the scorer before timing
+      build(dictionary, ForkJoinPool.commonPool());
+      for (int cores = 1; ; cores = Math.min(cores * 2, maxCores)){
+         ForkJoinPool pool = new ForkJoinPool(cores);
+         long start = System.nanoTime();
+         build(dictionary, pool);
+         long nanos = System.nanoTime() - start;
+         pool.shutdown();
+         double pairsPerSecond = pairs / (nanos / 1e9);
+         System.out.printf("%3d core(s): %8.1f ms  %8.1f M pairs/s  %8.1f M pairs/s/core%n",
+                           cores, nanos / 1e6, pairsPerSecond / 1e6, pairsPerSecond / 1e6 / cores);
+         if (cores == maxCores)
+            break;
+      }
+
+      long start = System.nanoTime();
+      FeedbackMatrix matrix = open(dictionary, CACHE_FILENAME);
+      System.out.printf("open(%s): %.1f ms%n", CACHE_FILENAME, (System.nanoTime() - start) / 1e6);
+      start = System.nanoTime();
+      matrix = load(dictionary, CACHE_FILENAME);
+      System.out.printf("map existing %s: %.2f ms%n", CACHE_FILENAME, (System.nanoTime() - start) / 1e6);
+   }
+}
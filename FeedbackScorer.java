@@ -0,0 +1,113 @@
+//Scores a guess against a secret word without touching the game window.
+//The feedback for a whole guess is returned as a single "pattern code" between 0
+//and 242: each position contributes GRAY (0), YELLOW (1) or GREEN (2) times 3^pos,
+//so position 0 is the lowest base 3 digit.
+//
+//Duplicate letters follow the usual Wordle rules: greens are matched first, then
+//each remaining guess letter (left to right) is yellow only while the secret still
+//has an unmatched copy of that letter, otherwise it is gray.
+public final class FeedbackScorer {
+
+   //Feedback for a single position
+   public static final int GRAY = 0;
+   public static final int YELLOW = 1;
+   public static final int GREEN = 2;
+
+   //Number of distinct pattern codes (3^5)
+   public static final int PATTERN_COUNT = 243;
+
+   //Pattern code of a correct guess (every position green)
+   public static final int ALL_GREEN = PATTERN_COUNT - 1;
+
+   //Marks a guess letter already scored green, and a secret letter already matched
+   //(different values, so the two can never compare equal)
+   private static final int MATCHED = -1;
+   private static final int USED = -2;
+
+   //Powers of 3 used to decode a single position out of a pattern code
+   private static final int[] POW3 = {1, 3, 9, 27, 81};
+
+   private FeedbackScorer(){ }
+
+   //Scores a packed guess against a packed secret (see PackedWord).
+   //Every letter is held in a local variable and the loops are written out by hand,
+   //so this runs the same fixed set of comparisons for any pair of words.
+   public static int score(int guess, int secret){
+      int g0 = guess >>> 20, g1 = (guess >>> 15) & PackedWord.LETTER_MASK, g2 = (guess >>> 10) & PackedWord.LETTER_MASK,
+          g3 = (guess >>> 5) & PackedWord.LETTER_MASK, g4 = guess & PackedWord.LETTER_MASK;
+      int s0 = secret >>> 20, s1 = (secret >>> 15) & PackedWord.LETTER_MASK, s2 = (secret >>> 10) & PackedWord.LETTER_MASK,
+          s3 = (secret >>> 5) & PackedWord.LETTER_MASK, s4 = secret & PackedWord.LETTER_MASK;
+      int code = 0;
+
+      //greens first: a matched secret letter can't also make a yellow
+      if (g0 == s0){ code += 2; g0 = MATCHED; s0 = USED; }
+      if (g1 == s1){ code += 6; g1 = MATCHED; s1 = USED; }
+      if (g2 == s2){ code += 18; g2 = MATCHED; s2 = USED; }
+      if (g3 == s3){ code += 54; g3 = MATCHED; s3 = USED; }
+      if (g4 == s4){ code += 162; g4 = MATCHED; s4 = USED; }
+
+      //then each remaining guess letter, left to right, takes the first unmatched
+      //copy of itself in the secret (if there is one) and becomes yellow
+      if (g0 >= 0){
+         if (g0 == s0){ s0 = USED; code += 1; }
+         else if (g0 == s1){ s1 = USED; code += 1; }
+         else if (g0 == s2){ s2 = USED; code += 1; }
+         else if (g0 == s3){ s3 = USED; code += 1; }
+         else if (g0 == s4){ s4 = USED; code += 1; }
+      }
+      if (g1 >= 0){
+         if (g1 == s0){ s0 = USED; code += 3; }
+         else if (g1 == s1){ s1 = USED; code += 3; }
+         else if (g1 == s2){ s2 = USED; code += 3; }
+         else if (g1 == s3){ s3 = USED; code += 3; }
+         else if (g1 == s4){ s4 = USED; code += 3; }
+      }
+      if (g2 >= 0){
+         if (g2 == s0){ s0 = USED; code += 9; }
+         else if (g2 == s1){ s1 = USED; code += 9; }
+         else if (g2 == s2){ s2 = USED; code += 9; }
+         else if (g2 == s3){ s3 = USED; code += 9; }
+         else if (g2 == s4){ s4 = USED; code += 9; }
+      }
+      if (g3 >= 0){
+         if (g3 == s0){ s0 = USED; code += 27; }
+         else if (g3 == s1){ s1 = USED; code += 27; }
+         else if (g3 == s2){ s2 = USED; code += 27; }
+         else if (g3 == s3){ s3 = USED; code += 27; }
+         else if (g3 == s4){ s4 = USED; code += 27; }
+      }
+      if (g4 >= 0){
+         if (g4 == s0){ s0 = USED; code += 81; }
+         else if (g4 == s1){ s1 = USED; code += 81; }
+         else if (g4 == s2){ s2 = USED; code += 81; }
+         else if (g4 == s3){ s3 = USED; code += 81; }
+         else if (g4 == s4){ s4 = USED; code += 81; }
+      }
+      return code;
+   }
+
+   //Scores a guess against a secret given as letter arrays (either case).
+   //Throws IllegalArgumentException if either isn't 5 letters.
+   public static int score(char[] guess, char[] secret){
+      int packedGuess = PackedWord.pack(guess);
+      int packedSecret = PackedWord.pack(secret);
+      if (packedGuess == PackedWord.INVALID || packedSecret == PackedWord.INVALID)
+         throw new IllegalArgumentException("Guess and secret must both be 5 letters");
+      return score(packedGuess, packedSecret);
+   }
+
+   //Returns the feedback (GRAY, YELLOW or GREEN) at the argument position of a pattern code
+   public static int colorAt(int code, int pos){
+      return (code / POW3[pos]) % 3;
+   }
+
+   //Returns the number of green positions in a pattern code
+   public static int greenCount(int code){
+      int greens = 0;
+      for (int i = 0; i < PackedWord.LENGTH; i++){
+         if (colorAt(code, i) == GREEN)
+            greens++;
+      }
+      return greens;
+   }
+}
@@ -1,13 +1,15 @@
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.*;
+import java.awt.image.*;
 import javax.swing.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.io.*;
 
 
 //Handles all of the graphics/UI logic for the JWordle game
-public class GameGUI extends JComponent implements KeyListener, MouseListener{
+public class GameGUI extends JComponent implements KeyListener, MouseListener, GameSessionListener{
    
    //Returns the secret word the player needs to guess in the form
    //of a char array.  Returns a NEW COPY of this array each time called
@@ -22,7 +24,7 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
       if (letter != GameLogic.NULL_CHAR){
          letter = charToUpperCase(letter);
          //ensure argument char is an actual letter
-         if (ALL_LETTERS.indexOf(letter) < 0)
+         if (!isLetter(letter))
             throw new IllegalArgumentException("Invalid character applied to Cell at: " + row + ", " + col + " set to '" + letter + "'!");
       }
       cells[row][col].setLetter(letter);
@@ -59,9 +61,9 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
    //The argument key is the letter of the key whose color is to be returned.
    public static Color getKeyColor(char key){
       key = charToUpperCase(key);
-      if (ALL_LETTERS.indexOf(key) < 0)
+      if (!isLetter(key))
          throw new IllegalArgumentException("Invalid Key specified: \'" + key + "\'");
-      return keyboard.get(key).getColor();
+      return keyboard[keyIndex(key)].getColor();
    }  
    
    
@@ -69,9 +71,9 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
    //The argument key is the letter of the key whose color is to be returned.
    public static void setKeyColor(char key, Color newColor){
       key = charToUpperCase(key);
-      if (ALL_LETTERS.indexOf(key) < 0)
+      if (!isLetter(key))
          throw new IllegalArgumentException("Invalid Key specified: \'" + key + "\'");  
-      keyboard.get(key).setColor(newColor);
+      keyboard[keyIndex(key)].setColor(newColor);
    }  
    
 
@@ -81,9 +83,10 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
       if (!isValidRowCol(row, 0))
          throw new IllegalArgumentException("Invalid row specified, row: " + row);        
       //if there's already a row wiggling
-      if (rowWiggling > -1)
+      if (rowWiggle != null && animations.isRunning(rowWiggle))
          return;
-      rowWiggling = row;          
+      rowWiggle = new RowWiggle(row);
+      animations.start(rowWiggle);
    }  
    
    
@@ -94,6 +97,7 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
          isGameOver = GAMEOVER_WIN;
       else
          isGameOver = GAMEOVER_LOSE;
+      canvas.repaint(GAMEOVER_BOUNDS);
    }
    
    //*************     Constants    **************    
@@ -127,6 +131,13 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
    private static final int KEYBOARD_KEY_HEIGHT = 50;
    //"Padding" space between keys
    private static final int KEYBOARD_KEY_PADDING = 7;       
+   //Cell/key colors for each FeedbackScorer value (GRAY, YELLOW, GREEN)
+   private static final Color WRONG_COLOR = Color.DARK_GRAY;
+   private static final Color WRONG_PLACE_COLOR = new Color(235, 216, 52);
+   private static final Color CORRECT_COLOR = new Color(53, 209, 42);
+   private static final Color[] FEEDBACK_COLORS = {WRONG_COLOR, WRONG_PLACE_COLOR, CORRECT_COLOR};
+   //Outline of the typed cells of a row once no valid guess starts with them
+   private static final Color DEAD_PREFIX_COLOR = new Color(189, 32, 15);
    //Letters for keys on the graphical keyboard interface
    private static final String ALL_LETTERS = "QWERTYUIOPASDFGHJKLZXCVBNM";
    //Number of keys per row for graphical keyboard interface
@@ -141,11 +152,25 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
    private static final char ENTER_KB_DISPLAY_CHAR = '»';
    //Character drawn on the backspace key
    private static final char BACKSPACE_KB_DISPLAY_CHAR = '⌫';
+   //Character drawn on the hint key
+   private static final char HINT_KB_DISPLAY_CHAR = '?';
+   
+   //Index of each key in the keyboard array: the letters in alphabetical order
+   //('A' = 0), then the enter, backspace and hint keys
+   private static final int ENTER_KEY_INDEX = 26;
+   private static final int BACKSPACE_KEY_INDEX = 27;
+   private static final int HINT_KEY_INDEX = 28;
+   private static final int KEY_COUNT = 29;
+   //Index returned for characters and locations that aren't a key
+   private static final int NO_KEY = -1;
    
    
    //Governs the distance and numebr of times a row "wiggles" when animated
+   //(the row moves 1 pixel per step in the WIGGLE_INTERVAL direction, for
+   //WIGGLE_BOUND steps, one step every WIGGLE_STEP_NANOS)
    private static final int[] WIGGLE_INTERVAL = {-1, 1, -1, 1, -1, 1, -1};
    private static final int[] WIGGLE_BOUND = {10, 20, 20, 20, 20, 20, 10};
+   private static final long WIGGLE_STEP_NANOS = 3000000L;
    
    
    //Text to be displayed upon a game over (win/lose scenarios, lines 1 and 2)
@@ -166,12 +191,19 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
    //Font attributes for the game over text
    private static final int GAMEOVER_FONT_SIZE = 20;  
    private static final Font GAMEOVER_FONT = new Font("Arial", Font.BOLD, GAMEOVER_FONT_SIZE); 
+   //Region the game over text is drawn in (both lines)
+   private static final Rectangle GAMEOVER_BOUNDS = new Rectangle(0, GAMEOVER_TEXT_Y - 2 * GAMEOVER_FONT_SIZE,
+                                                                  FRAME_WIDTH, 4 * GAMEOVER_FONT_SIZE);
    
    
    //Text to be displayed for various debug toggles
    private static final String DEBUGTXT_VISIBLE = "[SECRET = ";       
    private static final String DEBUGTXT_HARDCODE = "[PRESET USED]";       
    private static final String DEBUGTXT_VALIDATION = "[ALL GUESSES VALID]"; 
+   private static final String DEBUGTXT_CANDIDATES = " LEFT]";
+   private static final String DEBUGTXT_HINT = "[HINT = ";
+   private static final String DEBUGTXT_HINT_THINKING = "[HINT = ...]";
+   private static final String DEBUGTXT_NO_HINT = "[NO HINT]";
    //Font attributes for the Debug text
    private static final int DEBUG_FONT_SIZE = 14;
    private static final Color DEBUG_FONT_COLOR = Color.ORANGE;    
@@ -179,6 +211,9 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
    ////Left and top Margins for upper-left corner of debug text
    private static final int DEBUG_TEXT_X = 10;
    private static final int DEBUG_TEXT_Y = KEYBOARD_MARGIN_Y - 10;
+   //Region the debug text is drawn in
+   private static final Rectangle DEBUG_TEXT_BOUNDS = new Rectangle(0, DEBUG_TEXT_Y - 2 * DEBUG_FONT_SIZE,
+                                                                    FRAME_WIDTH, 3 * DEBUG_FONT_SIZE);
    
    
 
@@ -191,8 +226,11 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
    
    //2D array of all the of cell objects drawn on the screen (row x col)
    private static LetterCell[][] cells = new LetterCell[MAX_GUESSES][WORD_LENGTH];
-   //Map of all the key objects on the graphical keyboard interface (keys are keyboard letters)
-   private static HashMap<Character, KeyboardCell> keyboard;
+   //All of the key objects on the graphical keyboard interface, by key index (see keyIndex)
+   private static KeyboardCell[] keyboard;
+   //Index of the key covering each x coordinate of each keyboard row (NO_KEY for
+   //none), so a mouse click finds its key without checking every key
+   private static byte[][] keyGrid;
    
    //Tracks whether or not the game is currently over, per the constants above
    private static int isGameOver = GAMEOVER_FALSE;
@@ -203,10 +241,43 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
    //Tracks the secret word the user is trying to guess, generated by GameLogic
    private static char[] secretWord = null;
    
-   //Tracks whether a row is currently "wiggling" and where in the animation it is
-   private static int rowWiggling = -1;
-   private static int wiggleStep = 0;
-   private static int wiggleCount = 0;
+   //The game being played in this window (holds the board, keyboard state and result)
+   private static GameSession session;
+   //Records the keys typed into the session (null if the game isn't being recorded)
+   private static GameJournal.Recorder recorder = null;
+   
+   //Remembers and ranks guesses for the hint key, once created in the background
+   //(see hintCache(); null until it is started)
+   private static CompletableFuture<HintCache> hintCache;
+   //Text describing the latest hint (null if there is none to show)
+   private static String hintText = null;
+   //True while a hint is being computed in the background
+   private static boolean hintPending = false;
+   
+   //System.nanoTime() when launchGame was called, and whether the first frame has
+   //been painted since, for reporting how long the window took to start
+   private static long launchNanos = 0;
+   private static boolean firstFramePainted = false;
+   
+   //Runs the animations in the game window (see AnimationEngine)
+   private static AnimationEngine animations;
+   //The latest row "wiggle" animation started (null if there hasn't been one)
+   private static RowWiggle rowWiggle = null;
+   
+   //Everything drawn before the first key press (black window, empty cells and
+   //uncolored keys), kept in video memory when there is a screen to draw to
+   private static VolatileImage background = null;
+   //Used instead of the VolatileImage when painting without a screen (headless)
+   private static BufferedImage backgroundBuffer = null;
+   //Sprites of the letter cells and keyboard keys, by letter and colors
+   private static SpriteCache cellSprites = new SpriteCache(CELL_SIZE + 2 * BORDER_THICKNESS, CELL_SIZE + 2 * BORDER_THICKNESS,
+                                                           Color.BLACK);
+   private static SpriteCache keySprites = new SpriteCache(KEYBOARD_KEY_WIDTH + 2, KEYBOARD_KEY_HEIGHT + 2, Color.BLACK);
+   //The debug text currently shown, and an image of it
+   private static String debugText = null;
+   private static BufferedImage debugTextImage = null;
+   //Region being repainted (reused by every paint)
+   private static final Rectangle clipBounds = new Rectangle();
    
    
    //Initializes the game window
@@ -216,6 +287,7 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
       window.setSize(FRAME_WIDTH, FRAME_HEIGHT);
       //Wordle object needed for mouse/keyboard listeners
       canvas = new GameGUI();
+      animations = new AnimationEngine(canvas);
       window.add(canvas);
       
       //Fix Windows listener bug(?)
@@ -224,7 +296,9 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
       canvas.requestFocusInWindow();      
       canvas.setBackground(Color.BLACK);
       window.getContentPane().setBackground(Color.BLACK);      
-      canvas.setOpaque(false);
+      //the canvas paints every pixel of its dirty regions, so Swing doesn't need to
+      //paint the window underneath first
+      canvas.setOpaque(true);
       
       window.setVisible(true);
       window.setResizable(false);
@@ -235,9 +309,54 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
    }
    
    //converts a character to upper case
-   //if char argument provided is not a letter, returns -1;
-   private static char charToUpperCase(char ch){              
-      return ((ch + "").toUpperCase()).charAt(0);
+   //(only 'a' to 'z' are changed; any other char is returned as is)
+   //(package private so WindowCases can measure it)
+   static char charToUpperCase(char ch){              
+      return (ch >= 'a' && ch <= 'z') ? (char)(ch - ('a' - 'A')) : ch;
+   }
+   
+   //Returns true if the argument char is an upper case letter
+   private static boolean isLetter(char ch){
+      return ch >= 'A' && ch <= 'Z';
+   }
+   
+   //Returns the index in the keyboard array of the argument (upper case) key, or
+   //NO_KEY if it isn't on the keyboard
+   private static int keyIndex(char key){
+      if (isLetter(key))
+         return key - 'A';
+      switch (key){
+         case GameLogic.ENTER_KEY:     return ENTER_KEY_INDEX;
+         case GameLogic.BACKSPACE_KEY: return BACKSPACE_KEY_INDEX;
+         case GameLogic.HINT_KEY:      return HINT_KEY_INDEX;
+         default:                      return NO_KEY;
+      }
+   }
+   
+   //Returns the key typed when the key at the argument index is clicked
+   private static char keyChar(int index){
+      switch (index){
+         case ENTER_KEY_INDEX:     return GameLogic.ENTER_KEY;
+         case BACKSPACE_KEY_INDEX: return GameLogic.BACKSPACE_KEY;
+         case HINT_KEY_INDEX:      return GameLogic.HINT_KEY;
+         default:                  return (char)('A' + index);
+      }
+   }
+   
+   //Returns the index of the key at the argument window location, or NO_KEY
+   private static int keyAt(int x, int y){
+      int dy = y - KEYBOARD_MARGIN_Y;
+      if (dy < 0 || x < 0 || x >= FRAME_WIDTH)
+         return NO_KEY;
+      int row = dy / (KEYBOARD_KEY_HEIGHT + KEYBOARD_KEY_PADDING);
+      //below the keyboard, or in the gap between two rows
+      if (row >= KEYBOARD_ROWS || dy % (KEYBOARD_KEY_HEIGHT + KEYBOARD_KEY_PADDING) >= KEYBOARD_KEY_HEIGHT)
+         return NO_KEY;
+      int index = keyGrid[row][x];
+      //(the grid covers whole rectangles; the keys have rounded corners)
+      if (index == NO_KEY || !keyboard[index].contains(x, y))
+         return NO_KEY;
+      return index;
    }
    
    //Initializes the cells in the game windows (where the letters are typed/drawn)
@@ -256,9 +375,9 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
    
    //Initializes the "keys" drawn for the graphical keyboard interface
    private static void initKeyboard(){
-      //Stores keys as KeyboardCell objects, kept in a map
-      //Map keys is the letter of the respective key
-      keyboard = new HashMap<Character, KeyboardCell>();
+      //Stores keys as KeyboardCell objects, kept in an array
+      //indexed by the key (see keyIndex)
+      keyboard = new KeyboardCell[KEY_COUNT];
       int ct = 0;
       for (int row = 0; row < KEYBOARD_ROWS; row++){
          for (int key = 0; key < KEYBOARD_KEYS_PER_ROW[row]; key++){
@@ -266,7 +385,7 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
             int x = KEYBOARD_MARGIN_X[row] + (key * (KEYBOARD_KEY_WIDTH + KEYBOARD_KEY_PADDING));
             int y = KEYBOARD_MARGIN_Y + (row * (KEYBOARD_KEY_HEIGHT + KEYBOARD_KEY_PADDING));
             KeyboardCell temp = new KeyboardCell(x, y, letter);
-            keyboard.put(letter, temp);
+            keyboard[keyIndex(letter)] = temp;
             ct++;
          }
          
@@ -275,67 +394,176 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
       
       //Create the Enter and Backspace keys separately, since they are sized differently
       //Enter
-      KeyboardCell zKey = keyboard.get('Z'); //Enter goes to the left of the 'Z' key
+      KeyboardCell zKey = keyboard[keyIndex('Z')]; //Enter goes to the left of the 'Z' key
       KeyboardCell enter = new KeyboardCell((int)zKey.cell.getX() - (KEYBOARD_KEY_WIDTH_WIDE + KEYBOARD_KEY_PADDING), 
                                             (int)zKey.cell.getY(), ENTER_KB_DISPLAY_CHAR , KEYBOARD_KEY_WIDTH_WIDE, KEYBOARD_KEY_HEIGHT);
-      keyboard.put(GameLogic.ENTER_KEY, enter);
+      keyboard[ENTER_KEY_INDEX] = enter;
       
       //Backspace
-      KeyboardCell mKey = keyboard.get('M'); //Backspace goes to the rigth of the 'M' key
+      KeyboardCell mKey = keyboard[keyIndex('M')]; //Backspace goes to the rigth of the 'M' key
       KeyboardCell backspace = new KeyboardCell((int)mKey.cell.getX() + (KEYBOARD_KEY_WIDTH + KEYBOARD_KEY_PADDING), 
                                                 (int)mKey.cell.getY(), BACKSPACE_KB_DISPLAY_CHAR, KEYBOARD_KEY_WIDTH_WIDE, KEYBOARD_KEY_HEIGHT);
-      keyboard.put(GameLogic.BACKSPACE_KEY, backspace);
+      keyboard[BACKSPACE_KEY_INDEX] = backspace;
       
+      //Hint
+      KeyboardCell aKey = keyboard[keyIndex('A')]; //Hint goes to the left of the 'A' key
+      KeyboardCell hint = new KeyboardCell((int)aKey.cell.getX() - (KEYBOARD_KEY_WIDTH + KEYBOARD_KEY_PADDING), 
+                                           (int)aKey.cell.getY(), HINT_KB_DISPLAY_CHAR);
+      keyboard[HINT_KEY_INDEX] = hint;
+      
+      //Fill in the grid used to find the key under the mouse
+      keyGrid = new byte[KEYBOARD_ROWS][FRAME_WIDTH];
+      for (byte[] gridRow : keyGrid)
+         Arrays.fill(gridRow, (byte)NO_KEY);
+      for (int index = 0; index < KEY_COUNT; index++){
+         RectangularShape cell = keyboard[index].cell;
+         int row = ((int)cell.getY() - KEYBOARD_MARGIN_Y) / (KEYBOARD_KEY_HEIGHT + KEYBOARD_KEY_PADDING);
+         for (int x = (int)cell.getX(); x < (int)(cell.getX() + cell.getWidth()) && x < FRAME_WIDTH; x++)
+            keyGrid[row][x] = (byte)index;
+      }
    }
    
    
-   //Called everytime the game window is "repainted"
+   //Called everytime the game window is "repainted".
+   //Cells, keys and text ask for only their own region to be repainted when they
+   //change, so this copies the background over the dirty region and then draws
+   //just the sprites that overlap it.
    public void paintComponent(Graphics g) {
-      Graphics2D g2D = (Graphics2D)g;
+      long start = Metrics.ENABLED ? System.nanoTime() : 0;
+      clipBounds.setBounds(0, 0, FRAME_WIDTH, FRAME_HEIGHT);
+      g.getClipBounds(clipBounds);
       
+      drawBackground(g);
       drawCells(g);
       drawKeyboard(g);
-      //If the game is over, stop repainting
-      if (isGameOver != GAMEOVER_FALSE)
+      if (isGameOver != GAMEOVER_FALSE && clipBounds.intersects(GAMEOVER_BOUNDS))
          drawGameOverText(g);
-      drawDebugText(g);
-      
-      //if row is still wiggling, repaint again until the animation finishes
-      if (rowWiggling > -1)
-         repaint();
+      if (clipBounds.intersects(DEBUG_TEXT_BOUNDS))
+         drawDebugText(g);
+      if (Metrics.ENABLED)
+         Metrics.FRAME.recordSince(start);
+      if (!firstFramePainted && launchNanos != 0){
+         firstFramePainted = true;
+         long sinceLaunch = System.nanoTime() - launchNanos;
+         if (Metrics.ENABLED)
+            Metrics.FIRST_FRAME.record(sinceLaunch);
+         reportStartup("first frame painted", sinceLaunch);
+      }
    }        
    
    
-   //Paints the cells (containing the letters typed) to the window
+   //Copies the background image to the window, drawing it first if it doesn't
+   //exist yet or if its video memory was lost
+   private void drawBackground(Graphics g){
+      GraphicsConfiguration config = getGraphicsConfiguration();
+      if (config == null || GraphicsEnvironment.isHeadless()){
+         if (backgroundBuffer == null){
+            backgroundBuffer = new BufferedImage(FRAME_WIDTH, FRAME_HEIGHT, BufferedImage.TYPE_INT_RGB);
+            renderBackground(backgroundBuffer);
+         }
+         g.drawImage(backgroundBuffer, 0, 0, null);
+         return;
+      }
+      do {
+         int status = background == null ? VolatileImage.IMAGE_INCOMPATIBLE : background.validate(config);
+         if (status == VolatileImage.IMAGE_INCOMPATIBLE){
+            background = config.createCompatibleVolatileImage(FRAME_WIDTH, FRAME_HEIGHT);
+            renderBackground(background);
+         }
+         else if (status == VolatileImage.IMAGE_RESTORED)
+            renderBackground(background);
+         g.drawImage(background, 0, 0, null);
+      } while (background.contentsLost());
+   }
+   
+   
+   //Draws the window as it looks before anything is typed into the argument image
+   private static void renderBackground(Image image){
+      Graphics2D g2d = (Graphics2D)image.getGraphics();
+      g2d.setColor(Color.BLACK);
+      g2d.fillRect(0, 0, FRAME_WIDTH, FRAME_HEIGHT);
+      for (int row = 0; row < cells.length; row++){
+         for (int col = 0; col < cells[0].length; col++){
+            LetterCell cell = cells[row][col];
+            LetterCell.render(g2d, cell.x, cell.y, GameLogic.NULL_CHAR, LetterCell.DEFAULT_BGCOLOR, LetterCell.DEFAULT_OUTLINECOLOR);
+         }
+      }
+      for (KeyboardCell key : keyboard)
+         g2d.drawImage(key.spriteFor(KeyboardCell.DEFAULT_BGCOLOR), (int)key.cell.getX() - 1, (int)key.cell.getY() - 1, null);
+      g2d.dispose();
+   }
+   
+   
+   //Paints the cells (containing the letters typed) that differ from the background
    private void drawCells(Graphics g){
-      for (int row = 0; row< cells.length; row++){      
+      for (int row = 0; row< cells.length; row++){
+         //a wiggling row has moved off the empty cells in the background, so it is
+         //cleared and drawn in full
+         boolean moved = cells[row][0].offsetX != 0;
+         if (moved && rowWiggle != null && clipBounds.intersects(rowWiggle.bounds)){
+            g.setColor(Color.BLACK);
+            g.fillRect(rowWiggle.bounds.x, rowWiggle.bounds.y, rowWiggle.bounds.width, rowWiggle.bounds.height);
+         }
          for (int col = 0; col<cells[0].length; col++){
-            //if this row is wiggling, shift the cell either left or right slightly
-            if (rowWiggling == row)
-               cells[row][col].x += WIGGLE_INTERVAL[wiggleCount];
-            cells[row][col].paintComponent(g);
+            LetterCell cell = cells[row][col];
+            if ((moved || !cell.isBlank()) && cell.intersects(clipBounds))
+               cell.paintComponent(g);
          }
-         //if this row is wiggling, update the wiggle trackers
-         if (rowWiggling == row){
-            wiggleStep++;
-            if (wiggleStep >= WIGGLE_BOUND[wiggleCount]){
-               wiggleStep = 0;
-               wiggleCount++;
-               if (wiggleCount >= WIGGLE_BOUND.length){
-                  wiggleCount = 0;
-                  rowWiggling = -1;
-               }
+      }    
+   }
+   
+   
+   //Animation shifting a row of cells left and right (see wiggle()).
+   //The offset is worked out from the time since the wiggle started, following the
+   //WIGGLE_INTERVAL / WIGGLE_BOUND steps.
+   private static class RowWiggle implements AnimationEngine.Animation{
+      
+      //Furthest a cell moves from its resting place, in pixels
+      private static final int MAX_OFFSET = 20;
+      
+      private final int row;
+      private final Rectangle bounds;
+      
+      private RowWiggle(int row){
+         this.row = row;
+         LetterCell first = cells[row][0];
+         int width = WORD_LENGTH * (CELL_SIZE + CELL_PADDING);
+         bounds = new Rectangle(first.x - MAX_OFFSET - BORDER_THICKNESS, first.y - BORDER_THICKNESS,
+                                width + 2 * (MAX_OFFSET + BORDER_THICKNESS), CELL_SIZE + 2 * BORDER_THICKNESS);
+      }
+      
+      public boolean update(long elapsedNanos){
+         long step = elapsedNanos / WIGGLE_STEP_NANOS;
+         int offset = 0;
+         boolean running = false;
+         for (int i = 0; i < WIGGLE_BOUND.length; i++){
+            if (step < WIGGLE_BOUND[i]){
+               offset += WIGGLE_INTERVAL[i] * (int)step;
+               running = true;
+               break;
             }
+            offset += WIGGLE_INTERVAL[i] * WIGGLE_BOUND[i];
+            step -= WIGGLE_BOUND[i];
          }
-      }    
+         if (!running)
+            offset = 0;
+         for (int col = 0; col < WORD_LENGTH; col++)
+            cells[row][col].offsetX = offset;
+         return running;
+      }
+      
+      public Rectangle bounds(){
+         return bounds;
+      }
    }
    
    
-   //Paints the graphical keyboard interface to the game window
+   //Paints the keys of the graphical keyboard interface that have been colored
+   //(the others are part of the background)
    private void drawKeyboard(Graphics g){
-      //Get every value out of the keyboard map and paint it
-      for (KeyboardCell key : keyboard.values()){
-         key.paintComponent(g);            
+      for (KeyboardCell key : keyboard){
+         if (key.getColor() != KeyboardCell.DEFAULT_BGCOLOR && key.intersects(clipBounds))
+            key.paintComponent(g);            
       }
    }    
    
@@ -365,20 +593,40 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
    
    //Paints the debug text to the window when running in debug mode
    private void drawDebugText(Graphics g){        
-      Graphics2D g2d = (Graphics2D) g;
-      g2d.setFont(DEBUG_FONT);
-      g2d.setColor(DEBUG_FONT_COLOR);
+      if (debugTextImage != null)
+         g.drawImage(debugTextImage, DEBUG_TEXT_X, DEBUG_TEXT_BOUNDS.y, null);
+   }  
+   
+   
+   //Rebuilds the debug text from the session and hint, and redraws its image and
+   //region of the window if it changed
+   private static void updateDebugText(){
       //(include the secret word in the debug text)
-      String debugText = "";
+      String text = "";
       if (JWordleLauncher.DEBUG_SHOW_SECRET)
-         debugText+= DEBUGTXT_VISIBLE + "\"" + new String(secretWord) + "\"] ";
+         text+= DEBUGTXT_VISIBLE + "\"" + new String(secretWord) + "\"] ";
       if (JWordleLauncher.DEBUG_USE_PRESET_SECRET)
-         debugText+= DEBUGTXT_HARDCODE + " ";
+         text+= DEBUGTXT_HARDCODE + " ";
       if (JWordleLauncher.DEBUG_ALL_GUESSES_VALID)
-         debugText+= DEBUGTXT_VALIDATION + " ";      
-                  
-      g2d.drawString(debugText, DEBUG_TEXT_X, DEBUG_TEXT_Y);  
-   }  
+         text+= DEBUGTXT_VALIDATION + " ";      
+      if (JWordleLauncher.DEBUG_SHOW_CANDIDATES)
+         text+= "[" + session.getRemainingCount() + DEBUGTXT_CANDIDATES + " ";
+      if (hintText != null)
+         text+= hintText + " ";
+      if (text.equals(debugText))
+         return;
+      
+      debugText = text;
+      FontMetrics fm = canvas.getFontMetrics(DEBUG_FONT);
+      debugTextImage = new BufferedImage(Math.max(1, fm.stringWidth(text)), DEBUG_TEXT_BOUNDS.height,
+                                         BufferedImage.TYPE_INT_ARGB);
+      Graphics2D g2d = debugTextImage.createGraphics();
+      g2d.setFont(DEBUG_FONT);
+      g2d.setColor(DEBUG_FONT_COLOR);
+      g2d.drawString(text, 0, DEBUG_TEXT_Y - DEBUG_TEXT_BOUNDS.y);
+      g2d.dispose();
+      canvas.repaint(DEBUG_TEXT_BOUNDS);
+   }
    
    
    //Called automatically whenever a key on the keyboard is pressed   
@@ -392,9 +640,10 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
       //convert the key pressed to a string
       char keyChar = charToUpperCase(event.getKeyChar());
       //if alpha key is pressed
-      if (ALL_LETTERS.indexOf(keyChar) >= 0 || keyChar == GameLogic.ENTER_KEY || keyChar == GameLogic.BACKSPACE_KEY)
-         GameLogic.reactToKey(keyChar);
-      repaint();
+      if (keyChar == GameLogic.HINT_KEY)
+         requestHint();
+      else if (keyIndex(keyChar) != NO_KEY)
+         session.reactToKey(keyChar);
    }
    
    
@@ -407,16 +656,133 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
       if (isGameOver != GAMEOVER_FALSE)
          return;
       //check if the user clicked on any of the graphical keyboard keys
-      for (char key : keyboard.keySet()){
-         if (keyboard.get(key).contains(lastKnownMouseX, lastKnownMouseY)){
-            GameLogic.reactToKey(key);
-            repaint();
-            return;
-         }
-      }        
+      int index = keyAt(lastKnownMouseX, lastKnownMouseY);
+      if (index == NO_KEY)
+         return;
+      if (index == HINT_KEY_INDEX)
+         requestHint();
+      else
+         session.reactToKey(keyChar(index));
    }    
    
    
+   //Works out the best next guess on a background thread and shows it in the debug
+   //text once it is ready. The board's history and the candidates still possible are
+   //copied from the session here (on the event thread), so the background work never
+   //touches the session, and anything needing the valid guesses (like the guesses
+   //hard mode allows next) is worked out in the background, so the window never waits
+   //for them. Boards seen before are answered by the hint cache.
+   private void requestHint(){
+      if (hintPending)
+         return;
+      hintPending = true;
+      hintText = DEBUGTXT_HINT_THINKING;
+      updateDebugText();
+      final long[] history = new long[GameLogic.MAX_ROWS];
+      final int historyLength = HintCache.history(session, history);
+      final int[] remaining = new int[session.getRemainingCount()];
+      session.getRemainingCandidates(remaining);
+      final int mode = session.getHardMode();
+      final GameSession current = session;
+      final WordDictionary dictionary = session.getDictionary();
+      final int row = session.getCurrentRow();
+      final CompletableFuture<HintCache> cache = hintCache(session);
+      CompletableFuture.runAsync(() -> {
+         String text;
+         try {
+            long[] allowed = HintSolver.allowedGuesses(dictionary, mode, history, historyLength, remaining, remaining.length);
+            int best = cache.join().bestGuessIndex(history, historyLength, mode, allowed, remaining, remaining.length);
+            text = best < 0 ? DEBUGTXT_NO_HINT
+                            : DEBUGTXT_HINT + PackedWord.toString(dictionary.validGuesses().get(best))
+                              + "] (" + remaining.length + " left)";
+         }
+         catch (RuntimeException e){
+            text = DEBUGTXT_NO_HINT;
+         }
+         final String result = text;
+         SwingUtilities.invokeLater(() -> {
+            //drop the hint if a row was submitted while it was being worked out
+            hintText = current.getCurrentRow() == row ? result : null;
+            hintPending = false;
+            updateDebugText();
+         });
+      });
+   }
+   
+   
+   //Returns the hint cache, the first call creating it on a background thread and
+   //working out the hint for the empty board in the argument session's hard mode,
+   //so the hint key answers at once. Both launchGame (once the valid guesses are
+   //loaded) and the hint key may make the first call, so only one cache is ever
+   //built. The feedback matrix and opening book are only used if their files
+   //already exist (see "java FeedbackMatrix" and "java OpeningBook"); nothing is
+   //written.
+   private static synchronized CompletableFuture<HintCache> hintCache(GameSession game){
+      if (hintCache != null)
+         return hintCache;
+      final WordDictionary dictionary = game.getDictionary();
+      final int mode = game.getHardMode();
+      hintCache = CompletableFuture.supplyAsync(() -> {
+         HintSolver solver = new HintSolver(dictionary, FeedbackMatrix.load(dictionary, FeedbackMatrix.CACHE_FILENAME),
+                                            ForkJoinPool.commonPool());
+         HintCache cache = new HintCache(solver, OpeningBook.load(dictionary, OpeningBook.BOOK_FILENAME),
+                                         HintCache.DEFAULT_CAPACITY);
+         int[] all = new int[dictionary.secrets().size()];
+         for (int i = 0; i < all.length; i++)
+            all[i] = i;
+         long[] allowed = mode == GameSession.STRICT_HARD_MODE ? HintSolver.candidateGuesses(dictionary, all, all.length) : null;
+         cache.bestGuessIndex(new long[0], 0, mode, allowed, all, all.length);
+         return cache;
+      });
+      return hintCache;
+   }
+   
+   
+   //Called by the session when a letter is typed or erased: also outlines the
+   //row's letters in red while no valid guess starts with them
+   public void letterChanged(GameSession session, int row, int col){
+      setGridChar(row, col, session.getLetter(row, col));
+      Color outline = session.isDeadPrefix() ? DEAD_PREFIX_COLOR : LetterCell.DEFAULT_OUTLINECOLOR;
+      for (int c = 0; c < WORD_LENGTH; c++)
+         cells[row][c].setOutlineColor(c < session.getCurrentCol() ? outline : LetterCell.DEFAULT_OUTLINECOLOR);
+   }
+   
+   
+   //Called by the session when a row has been scored: colors the row's cells and
+   //the keys of its letters
+   public void rowScored(GameSession session, int row, int code){
+      //any hint shown was for the previous row
+      hintText = null;
+      //(an adversarial secret moves to a word that fits every row so far)
+      if (session.isAdversarial())
+         PackedWord.unpack(session.getSecret(), secretWord);
+      for (int col = 0; col < WORD_LENGTH; col++){
+         setGridColor(row, col, FEEDBACK_COLORS[session.getFeedback(row, col)]);
+         char letter = session.getLetter(row, col);
+         setKeyColor(letter, FEEDBACK_COLORS[session.getKeyFeedback(letter)]);
+      }
+      updateDebugText();
+   }
+   
+   
+   //Called by the session when an incomplete or invalid guess is entered
+   public void guessRejected(GameSession session, int row){
+      wiggle(row);
+   }
+   
+   
+   //Called by the session when the game ends
+   public void gameOver(GameSession session, boolean didPlayerWin){
+      gameOver(didPlayerWin);
+      if (recorder != null){
+         //(the game is read from the session here, and written to the file off the
+         //event thread)
+         GameJournal.appendInBackground(GameJournal.JOURNAL_FILENAME, session.getDictionary(), recorder.finish(session));
+         recorder = null;
+      }
+   }
+   
+   
    //Checks if row and column are within bounds of gameboard
    private static boolean isValidRowCol(int row, int col){        
       return !(row >= MAX_GUESSES || row < 0 || col >= WORD_LENGTH || col < 0);              
@@ -427,8 +793,8 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
    static class LetterCell extends JPanel{
       
       //Default cell colors
-      private static final Color DEFAULT_BGCOLOR = Color.BLACK;
-      private static final Color DEFAULT_OUTLINECOLOR = Color.GRAY;
+      static final Color DEFAULT_BGCOLOR = Color.BLACK;
+      static final Color DEFAULT_OUTLINECOLOR = Color.GRAY;
       //Font attributes for letters drawn in cells
       private static final Color FONT_COLOR = Color.WHITE;
       private static final int LETTER_FONT_SIZE = 30;
@@ -441,6 +807,10 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
       private char letter;
       //Cell's location
       private int x, y;
+      //How far the cell is currently drawn from its location (while wiggling)
+      private int offsetX = 0;
+      //Sprite of the cell's current letter and colors (null until next painted)
+      private BufferedImage sprite = null;
       
       
       private LetterCell(int x, int y){
@@ -455,6 +825,15 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
       private void setColor(Color newColor){
          bgColor = newColor;
          outlineColor = newColor;
+         changed();
+      }
+      
+      //Changes the outline color of this cell (keeping its background)
+      private void setOutlineColor(Color newColor){
+         if (outlineColor == newColor)
+            return;
+         outlineColor = newColor;
+         changed();
       }
       
       //Returns the current color of this cell
@@ -466,6 +845,7 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
       //(null = no letter drawn)
       private void setLetter(char letter){
          this.letter = letter;
+         changed();
       }
       
       //Returns the letter currently being drawn in this cell
@@ -473,11 +853,43 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
          return this.letter;
       }
       
+      //Returns true if this cell looks the same as in the background (no letter,
+      //default colors)
+      private boolean isBlank(){
+         return letter == GameLogic.NULL_CHAR && bgColor == DEFAULT_BGCOLOR && outlineColor == DEFAULT_OUTLINECOLOR;
+      }
+      
+      //Returns true if this cell (where it is currently drawn) overlaps the argument region
+      private boolean intersects(Rectangle region){
+         return region.intersects(x + offsetX - BORDER_THICKNESS, y - BORDER_THICKNESS,
+                                  CELL_SIZE + 2 * BORDER_THICKNESS, CELL_SIZE + 2 * BORDER_THICKNESS);
+      }
+      
+      //Drops the sprite of the old state and repaints this cell's region
+      private void changed(){
+         sprite = null;
+         canvas.repaint(x + offsetX - BORDER_THICKNESS, y - BORDER_THICKNESS,
+                        CELL_SIZE + 2 * BORDER_THICKNESS, CELL_SIZE + 2 * BORDER_THICKNESS);
+      }
+      
       //Draws this cell to the game window
       public void paintComponent(Graphics g) {
-         super.paintComponent(g);
-         Graphics2D g2d = (Graphics2D) g;
-         RectangularShape cell = new Rectangle2D.Double(this.x, this.y, CELL_SIZE, CELL_SIZE);
+         if (sprite == null){
+            long key = ((long)(bgColor.getRGB() & 0xFFFFFF) << 40) | ((long)(outlineColor.getRGB() & 0xFFFFFF) << 16) | letter;
+            sprite = cellSprites.get(key);
+            if (sprite == null){
+               sprite = cellSprites.create(key);
+               Graphics2D g2d = sprite.createGraphics();
+               render(g2d, BORDER_THICKNESS, BORDER_THICKNESS, letter, bgColor, outlineColor);
+               g2d.dispose();
+            }
+         }
+         g.drawImage(sprite, x + offsetX - BORDER_THICKNESS, y - BORDER_THICKNESS, null);
+      }          
+      
+      //Draws a cell with its upper-left corner at (x, y)
+      private static void render(Graphics2D g2d, int x, int y, char letter, Color bgColor, Color outlineColor){
+         RectangularShape cell = new Rectangle2D.Double(x, y, CELL_SIZE, CELL_SIZE);
          g2d.setPaint(bgColor);
          g2d.fill(cell);
          g2d.setStroke(new BasicStroke(BORDER_THICKNESS));
@@ -488,12 +900,12 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
          if (letter != GameLogic.NULL_CHAR){
             g2d.setFont(LETTER_FONT);
             g2d.setColor(FONT_COLOR);  
-            Rectangle2D textBounds = g2d.getFontMetrics().getStringBounds(this.letter + "", g);
-            int fontX =  this.x + (CELL_SIZE / 2) - ((int)textBounds.getWidth() / 2);
-            int fontY =  this.y + (CELL_SIZE / 2) + ((int)textBounds.getHeight() / 3);
-            g2d.drawString(this.letter + "", fontX, fontY);
+            Rectangle2D textBounds = g2d.getFontMetrics().getStringBounds(letter + "", g2d);
+            int fontX =  x + (CELL_SIZE / 2) - ((int)textBounds.getWidth() / 2);
+            int fontY =  y + (CELL_SIZE / 2) + ((int)textBounds.getHeight() / 3);
+            g2d.drawString(letter + "", fontX, fontY);
          }
-      }          
+      }
       
    }
    
@@ -502,7 +914,7 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
    static class KeyboardCell extends JPanel{
       
       //Default background color for the keyboard keys
-      private static final Color DEFAULT_BGCOLOR = new Color(160, 163, 168);
+      static final Color DEFAULT_BGCOLOR = new Color(160, 163, 168);
       //Attributes for font drawn ontop of the keyboard keys
       private static final Color FONT_COLOR = Color.WHITE;
       private static final int KEYBOARD_FONT_SIZE = 13;
@@ -514,6 +926,8 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
       private char letter;
       //Rectangle representing the location and dimensions of the key
       private RectangularShape cell;
+      //Sprite of the key's current color (null until next painted)
+      private BufferedImage sprite = null;
       
       //If key is using standard dimensions (ie, the non-enter/backspace keys)
       private KeyboardCell(int x, int y, char letter){
@@ -534,8 +948,15 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
       //Changes the color of this key 
       private void setColor(Color newColor){
          bgColor = newColor;
+         sprite = null;
+         canvas.repaint((int)cell.getX() - 1, (int)cell.getY() - 1, (int)cell.getWidth() + 2, (int)cell.getHeight() + 2);
       }      
       
+      //Returns true if this key overlaps the argument region
+      private boolean intersects(Rectangle region){
+         return region.intersects(cell.getX() - 1, cell.getY() - 1, cell.getWidth() + 2, cell.getHeight() + 2);
+      }
+      
       //Checks to see if the argument coordinate is located inside this
       //key (used to check mouse clicks)
       public boolean contains(int x, int y){
@@ -545,8 +966,29 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
       
       //Draws this key to the game window
       public void paintComponent(Graphics g) {
-         super.paintComponent(g);
-         Graphics2D g2d = (Graphics2D) g;
+         if (sprite == null)
+            sprite = spriteFor(bgColor);
+         g.drawImage(sprite, (int)cell.getX() - 1, (int)cell.getY() - 1, null);
+      }
+      
+      //Returns the sprite of this key in the argument color.
+      //(the background draws its keys from sprites too, since shapes with rounded
+      //corners can rasterize a pixel differently once moved into a sprite)
+      private BufferedImage spriteFor(Color color){
+         long key = ((long)(color.getRGB() & 0xFFFFFF) << 16) | letter;
+         BufferedImage image = keySprites.get(key);
+         if (image == null){
+            image = keySprites.create(key, (int)cell.getWidth() + 2, (int)cell.getHeight() + 2);
+            Graphics2D g2d = image.createGraphics();
+            g2d.translate(1 - cell.getX(), 1 - cell.getY());
+            render(g2d, cell, letter, color);
+            g2d.dispose();
+         }
+         return image;
+      }
+      
+      //Draws a key with the argument shape, letter and color
+      private static void render(Graphics2D g2d, RectangularShape cell, char letter, Color bgColor){
          //first draw the key...
          g2d.setPaint(bgColor);
          g2d.fill(cell);
@@ -554,7 +996,7 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
          g2d.setFont(KEYBOARD_FONT);
          g2d.setColor(FONT_COLOR);  
          String letterStr = letter + "";
-         Rectangle2D textBounds = g2d.getFontMetrics().getStringBounds(letterStr, g);
+         Rectangle2D textBounds = g2d.getFontMetrics().getStringBounds(letterStr, g2d);
          double fontX =  cell.getX() + (cell.getWidth() / 2.0) - (textBounds.getWidth() / 2.0);
          double fontY =  cell.getY() + (cell.getHeight() / 2.0) + (textBounds.getHeight() / 3.0);
          g2d.drawString(letterStr, (int)fontX, (int)fontY);
@@ -585,23 +1027,146 @@ public class GameGUI extends JComponent implements KeyListener, MouseListener{
          throw new IllegalStateException("ERROR! Secret word array incorrect length!  Expected: " + GameLogic.MAX_COLS +", got: " + GameGUI.secretWord.length);
       for (int i = 0; i < GameGUI.secretWord.length; i++){
          GameGUI.secretWord[i] = charToUpperCase(GameGUI.secretWord[i]);
-         if (ALL_LETTERS.indexOf(GameGUI.secretWord[i]) < 0)
+         if (!isLetter(GameGUI.secretWord[i]))
             throw new IllegalStateException("ERROR! Secret word contains non alphabetic character: " + Arrays.toString(GameGUI.secretWord));
       }
    }
    
       
+   //Sets up the cells and keyboard for the argument secret word without opening a
+   //window, and returns the canvas so it can be painted into an offscreen image
+   //(used by WindowCases; works with java.awt.headless=true)
+   static GameGUI initOffscreen(char[] secret){
+       GameGUI.secretWord = Arrays.copyOf(secret, secret.length);
+       validateNormalizeSecretWord();
+       isGameOver = GAMEOVER_FALSE;
+       session = GameLogic.newSession(GameGUI.secretWord);
+       cells = new LetterCell[MAX_GUESSES][WORD_LENGTH];
+       animations = new AnimationEngine(canvas);
+       initCells();
+       initKeyboard();
+       background = null;
+       backgroundBuffer = null;
+       debugText = null;
+       session.setListener(canvas);
+       updateDebugText();
+       return canvas;
+   }
+   
+   
+   //Returns the session being played in the game window
+   static GameSession getSession(){
+      return session;
+   }
+   
+   
+   //Returns the location of the argument key on the graphical keyboard interface
+   //(used by WindowCases to click on keys)
+   static Rectangle getKeyBounds(char key){
+      int index = keyIndex(charToUpperCase(key));
+      if (index == NO_KEY)
+         throw new IllegalArgumentException("Invalid Key specified: \'" + key + "\'");
+      return keyboard[index].cell.getBounds();
+   }
+   
+      
    //Initializes and launches the game window
    public static void launchGame(){  
-       //Calls GameLogic to intialize the game and pick the secret word
-       GameGUI.secretWord = GameLogic.initializeGame();
+       launchNanos = System.nanoTime();
+       //Calls GameLogic to intialize the game and pick the secret word (the valid
+       //guesses keep loading in the background while the window opens)
+       GameGUI.secretWord = GameLogic.initializeGameInBackground();
        validateNormalizeSecretWord();      
+       session = GameLogic.newSession(GameGUI.secretWord);
+       if (JWordleLauncher.RECORD_GAMES){
+          recorder = new GameJournal.Recorder();
+          session.setRecorder(recorder);
+       }
        //Initializes the game window
        initCells();
        initKeyboard();
        initWindow();
+       session.setListener(canvas);
+       updateDebugText();
        window.repaint();
+       //only pressing enter has to wait for the valid guesses (and if they can't be
+       //loaded it rejects every guess, until the player closes the error shown here)
+       if (!GameLogic.awaitValidGuesses()){
+          showLoadError(window);
+          return;
+       }
+       reportStartup("valid guesses ready", System.nanoTime() - launchNanos);
+       hintCache(session);
    }        
+   
+   
+   //Tells the player the valid guesses could not be loaded (the reason has been
+   //printed, see GameLogic.awaitValidGuesses) and quits once they close the message
+   static void showLoadError(JFrame window){
+      SwingUtilities.invokeLater(() -> {
+         JOptionPane.showMessageDialog(window, "Could not load the valid guesses from " + GameLogic.VALID_GUESSES_FILENAME,
+                                       WINDOW_TITLE, JOptionPane.ERROR_MESSAGE);
+         System.exit(1);
+      });
+   }
+
+
+   //Prints how long after launchGame was called the argument startup stage was
+   //reached (only with metrics or debug logging on, see Metrics and EventLog)
+   private static void reportStartup(String stage, long sinceLaunchNanos){
+      if (Metrics.ENABLED || EventLog.DEBUG_ENABLED)
+         System.out.printf("Startup: %s after %.1f ms%n", stage, sinceLaunchNanos / 1e6);
+   }
+   
+   
+   //Opens the game window and plays the argument recorded game back in it, speed
+   //times faster than it was played (the player's own keys are ignored while it
+   //plays, except to quit). Throws IllegalArgumentException if speed isn't above 0.
+   public static void launchReplay(GameJournal.Game game, double speed){
+       if (!(speed > 0) || Double.isInfinite(speed))
+          throw new IllegalArgumentException("Replay speed must be above 0: " + speed);
+       if (GameLogic.initializeGame() == null)
+          return;
+       GameGUI.secretWord = PackedWord.unpack(game.getSecret(), new char[PackedWord.LENGTH]);
+       validateNormalizeSecretWord();
+       session = GameLogic.newSession(GameGUI.secretWord);
+       session.setHardMode(game.getHardMode());
+       session.setAdversarial(game.isAdversarial());
+       initCells();
+       initKeyboard();
+       initWindow();
+       //(no listeners: only the recorded keys reach the session)
+       canvas.removeMouseListener(canvas);
+       canvas.addKeyListener(new KeyAdapter(){
+          public void keyPressed(KeyEvent event){
+             if (event.getKeyCode() == KEY_QUIT_GAME)
+                System.exit(0);
+          }
+       });
+       canvas.removeKeyListener(canvas);
+       session.setListener(canvas);
+       updateDebugText();
+       window.repaint();
+       playKey(game, 0, speed);
+   }
+   
+   
+   //Types the argument key of a recorded game once its delay has passed, then
+   //schedules the next one
+   private static void playKey(GameJournal.Game game, int index, double speed){
+       if (index >= game.keyCount()){
+          System.out.println("Replay finished: " + (game.matches(session) ? "same outcome as recorded"
+                                                                          : "DIFFERENT outcome than recorded"));
+          return;
+       }
+       int delay = (int)Math.round(game.getDelayMillis(index) / speed);
+       javax.swing.Timer timer = new javax.swing.Timer(delay, event -> {
+          session.reactToKey(game.getKey(index));
+          playKey(game, index + 1, speed);
+       });
+       timer.setRepeats(false);
+       timer.start();
+   }
   
    
 }
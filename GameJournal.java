@@ -0,0 +1,471 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.InputMismatchException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Records games as compact binary journals, and replays them.
+//
+//A journal holds everything needed to play a game again exactly: the checksum of
+//the dictionary it was played on, the secret word, and every key passed to
+//GameSession.reactToKey with the time since the key before it. It also holds the
+//outcome (result and the pattern code of every scored row), so a replay can check
+//that the game still plays out the same way.
+//
+//A journal file is a header followed by any number of games, so games can be
+//appended one at a time and large corpora replayed in one go. Numbers are stored
+//as varints (7 bits per byte), so a typical game takes around 50 bytes:
+//   header:  magic ("JWJN"), version                   (4 bytes each)
+//   game:    dictionary checksum                        (8 bytes)
+//            flags, start time (epoch millis),
+//            secret (index + 1 in the secret words, or 0 then the packed word),
+//            number of keys, then per key: key, millis since the previous key,
+//            result, number of scored rows, then the pattern code of each row
+//
+//Usage (see JWordleLauncher):  java JWordleLauncher --replay FILE... [options]
+//   --repeat N     replay every game N times (as a performance workload)
+//   --gui          play one game back in the game window instead
+//   --game N       which game of the file to play back with --gui (default 0)
+//   --speed X      play back X times faster than it was recorded (default 1)
+public final class GameJournal {
+
+   //File games are appended to when JWordleLauncher.RECORD_GAMES is on
+   public static final String JOURNAL_FILENAME = "jwordle-games.journal";
+
+   //File header: magic number ("JWJN") and format version
+   private static final int MAGIC = 0x4A574A4E;
+   private static final int VERSION = 1;
+   private static final int HEADER_BYTES = 8;
+
+   //Game flags: set if the game was played with every guess counting as valid, in
+   //hard mode, in strict hard mode, and against an adversarial secret
+   private static final int FLAG_ALL_GUESSES_VALID = 1;
+   private static final int FLAG_HARD_MODE = 2;
+   private static final int FLAG_STRICT_HARD_MODE = 4;
+   private static final int FLAG_ADVERSARIAL = 8;
+
+   //Number of games each fork-join task replays before it stops splitting
+   private static final int GAMES_PER_TASK = 64;
+
+   private GameJournal(){ }
+
+   //One recorded game
+   public static final class Game {
+
+      private final long dictionaryChecksum;
+      private final int flags;
+      private final long startMillis;
+      private final int secret;
+      private final char[] keys;
+      private final int[] delays;
+      private final int result;
+      private final int[] rowCodes;
+
+      private Game(long dictionaryChecksum, int flags, long startMillis, int secret, char[] keys, int[] delays,
+                   int result, int[] rowCodes){
+         this.dictionaryChecksum = dictionaryChecksum;
+         this.flags = flags;
+         this.startMillis = startMillis;
+         this.secret = secret;
+         this.keys = keys;
+         this.delays = delays;
+         this.result = result;
+         this.rowCodes = rowCodes;
+      }
+
+      //Returns the packed secret word
+      public int getSecret(){
+         return secret;
+      }
+
+      //Returns the number of keys typed
+      public int keyCount(){
+         return keys.length;
+      }
+
+      //Returns the argument key typed
+      public char getKey(int index){
+         return keys[index];
+      }
+
+      //Returns the millis between the argument key and the key before it (or the
+      //start of the game)
+      public int getDelayMillis(int index){
+         return delays[index];
+      }
+
+      //Returns the result recorded (GameSession.IN_PROGRESS, WON or LOST)
+      public int getResult(){
+         return result;
+      }
+
+      //Returns the hard mode the game was played in (see GameSession.setHardMode)
+      public int getHardMode(){
+         return (flags & FLAG_STRICT_HARD_MODE) != 0 ? GameSession.STRICT_HARD_MODE
+              : (flags & FLAG_HARD_MODE) != 0 ? GameSession.HARD_MODE : GameSession.NORMAL_MODE;
+      }
+
+      //Returns true if the game was played against an adversarial secret (see
+      //GameSession.setAdversarial)
+      public boolean isAdversarial(){
+         return (flags & FLAG_ADVERSARIAL) != 0;
+      }
+
+      //Returns the dictionary checksum the game was played on
+      public long getDictionaryChecksum(){
+         return dictionaryChecksum;
+      }
+
+      //Returns null if this game can be replayed on the argument dictionary with
+      //the current debug toggles, otherwise why not
+      public String checkReplayable(WordDictionary dictionary){
+         if (dictionaryChecksum != dictionary.checksum())
+            return "recorded with a different dictionary";
+         if (((flags & FLAG_ALL_GUESSES_VALID) != 0) != JWordleLauncher.DEBUG_ALL_GUESSES_VALID)
+            return "recorded with a different DEBUG_ALL_GUESSES_VALID";
+         return null;
+      }
+
+      //Plays the game again on a new session (as fast as possible) and returns true
+      //if it ends the same way it was recorded
+      public boolean replay(WordDictionary dictionary){
+         GameSession session = new GameSession(dictionary, secret);
+         session.setHardMode(getHardMode());
+         session.setAdversarial(isAdversarial());
+         for (char key : keys)
+            session.reactToKey(key);
+         return matches(session);
+      }
+
+      //Returns true if the argument session ended the way this game was recorded
+      public boolean matches(GameSession session){
+         if (session.getResult() != result || session.getCurrentRow() != rowCodes.length)
+            return false;
+         for (int row = 0; row < rowCodes.length; row++){
+            if (session.getRowCode(row) != rowCodes[row])
+               return false;
+         }
+         return true;
+      }
+
+      public String toString(){
+         String outcome = result == GameSession.WON ? "won in " + rowCodes.length
+                        : result == GameSession.LOST ? "lost" : "unfinished";
+         return (secret < 0 ? "?????" : PackedWord.toString(secret)) + ", " + keys.length + " keys, " + outcome;
+      }
+   }
+
+   //Records the keys passed to a session (see GameSession.setRecorder)
+   public static final class Recorder {
+
+      private final long startMillis = System.currentTimeMillis();
+      private long lastNanos = System.nanoTime();
+      private char[] keys = new char[64];
+      private int[] delays = new int[64];
+      private int count = 0;
+
+      //Called by the session with every key it is about to handle
+      void keyTyped(char key){
+         long now = System.nanoTime();
+         if (count == keys.length){
+            keys = Arrays.copyOf(keys, count * 2);
+            delays = Arrays.copyOf(delays, count * 2);
+         }
+         keys[count] = key;
+         delays[count] = (int)Math.min(Integer.MAX_VALUE, (now - lastNanos) / 1000000L);
+         count++;
+         lastNanos = now;
+      }
+
+      //Returns the game recorded so far on the argument session
+      public Game finish(GameSession session){
+         int[] rowCodes = new int[session.getCurrentRow()];
+         for (int row = 0; row < rowCodes.length; row++)
+            rowCodes[row] = session.getRowCode(row);
+         int flags = JWordleLauncher.DEBUG_ALL_GUESSES_VALID ? FLAG_ALL_GUESSES_VALID : 0;
+         if (session.getHardMode() == GameSession.HARD_MODE)
+            flags |= FLAG_HARD_MODE;
+         else if (session.getHardMode() == GameSession.STRICT_HARD_MODE)
+            flags |= FLAG_STRICT_HARD_MODE;
+         if (session.isAdversarial())
+            flags |= FLAG_ADVERSARIAL;
+         return new Game(session.getDictionary().checksum(), flags, startMillis, session.getSecret(), Arrays.copyOf(keys, count), Arrays.copyOf(delays, count),
+                         session.getResult(), rowCodes);
+      }
+   }
+
+   //Longest the program waits on exit for games still being written in the background
+   private static final int WRITE_TIMEOUT_SECONDS = 5;
+
+   //Writes the games handed to appendInBackground, one at a time in the order given
+   //(null until the first one)
+   private static ExecutorService writer = null;
+
+   //Appends the argument game to a journal file (see append) on a background thread,
+   //so the caller (such as the game window's event thread) never waits for the file.
+   //Games still waiting are written before the program exits, and a game that can't
+   //be written is reported on stderr.
+   public static synchronized void appendInBackground(String filename, WordDictionary dictionary, Game game){
+      if (writer == null){
+         writer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "jwordle-journal");
+            thread.setDaemon(true);
+            return thread;
+         });
+         Runtime.getRuntime().addShutdownHook(new Thread(GameJournal::awaitWrites, "jwordle-journal-flush"));
+      }
+      writer.execute(() -> {
+         try {
+            append(filename, dictionary, game);
+         }
+         catch (IOException e){
+            System.err.println("Error: could not record the game to " + filename + ": " + e.getMessage());
+         }
+      });
+   }
+
+   //Waits (up to WRITE_TIMEOUT_SECONDS) for the games handed to appendInBackground
+   //to be written
+   private static void awaitWrites(){
+      ExecutorService pending;
+      synchronized (GameJournal.class){
+         pending = writer;
+      }
+      pending.shutdown();
+      try {
+         pending.awaitTermination(WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      }
+      catch (InterruptedException e){
+         Thread.currentThread().interrupt();
+      }
+   }
+
+   //Appends the argument games to a journal file (creating it if needed)
+   public static void append(String filename, WordDictionary dictionary, Game... games) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      File file = new File(filename);
+      if (!file.exists() || file.length() == 0){
+         DataOutputStream header = new DataOutputStream(bytes);
+         header.writeInt(MAGIC);
+         header.writeInt(VERSION);
+      }
+      for (Game game : games)
+         write(bytes, game, dictionary);
+      try (FileOutputStream out = new FileOutputStream(file, true)){
+         bytes.writeTo(out);
+      }
+   }
+
+   private static void write(ByteArrayOutputStream out, Game game, WordDictionary dictionary){
+      for (int shift = 56; shift >= 0; shift -= 8)
+         out.write((int)(game.dictionaryChecksum >>> shift));
+      putVarint(out, game.flags);
+      putVarint(out, game.startMillis);
+      int secretIndex = dictionary.secrets().indexOf(game.secret);
+      putVarint(out, secretIndex + 1);
+      if (secretIndex < 0)
+         putVarint(out, game.secret);
+      putVarint(out, game.keys.length);
+      for (int i = 0; i < game.keys.length; i++){
+         putVarint(out, game.keys[i]);
+         putVarint(out, game.delays[i]);
+      }
+      putVarint(out, game.result);
+      putVarint(out, game.rowCodes.length);
+      for (int code : game.rowCodes)
+         putVarint(out, code);
+   }
+
+   //Reads every game in a journal file. Secret words stored by index are looked up
+   //in the argument dictionary (for games recorded on another dictionary, the
+   //secret word is PackedWord.INVALID).
+   //Throws InputMismatchException if the file isn't a journal or is cut short.
+   public static ArrayList<Game> read(String filename, WordDictionary dictionary) throws IOException {
+      ByteBuffer buffer;
+      try {
+         buffer = ByteBuffer.wrap(Files.readAllBytes(Paths.get(filename)));
+      }
+      catch (NoSuchFileException e){
+         throw new FileNotFoundException(filename);
+      }
+      if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC)
+         throw new InputMismatchException(filename + " is not a JWordle game journal");
+      int version = buffer.getInt();
+      if (version != VERSION)
+         throw new InputMismatchException(filename + " has unsupported journal version " + version);
+
+      ArrayList<Game> games = new ArrayList<Game>();
+      try {
+         while (buffer.hasRemaining()){
+            long checksum = buffer.getLong();
+            int flags = (int)getVarint(buffer);
+            long startMillis = getVarint(buffer);
+            int secretIndex = (int)getVarint(buffer) - 1;
+            int secret;
+            if (secretIndex < 0)
+               secret = (int)getVarint(buffer);
+            else if (checksum == dictionary.checksum() && secretIndex < dictionary.secrets().size())
+               secret = dictionary.secrets().get(secretIndex);
+            else
+               secret = PackedWord.INVALID;   //(checkReplayable reports the dictionary changed)
+            char[] keys = new char[(int)getVarint(buffer)];
+            int[] delays = new int[keys.length];
+            for (int i = 0; i < keys.length; i++){
+               keys[i] = (char)getVarint(buffer);
+               delays[i] = (int)getVarint(buffer);
+            }
+            int result = (int)getVarint(buffer);
+            int[] rowCodes = new int[(int)getVarint(buffer)];
+            for (int row = 0; row < rowCodes.length; row++)
+               rowCodes[row] = (int)getVarint(buffer);
+            games.add(new Game(checksum, flags, startMillis, secret, keys, delays, result, rowCodes));
+         }
+      }
+      catch (java.nio.BufferUnderflowException e){
+         throw new InputMismatchException(filename + ": game " + games.size() + " is cut short");
+      }
+      return games;
+   }
+
+   //Writes value as an unsigned varint (7 bits per byte, low bits first)
+   private static void putVarint(ByteArrayOutputStream out, long value){
+      while ((value & ~0x7FL) != 0){
+         out.write((int)(value & 0x7F) | 0x80);
+         value >>>= 7;
+      }
+      out.write((int)value);
+   }
+
+   private static long getVarint(ByteBuffer buffer){
+      long value = 0;
+      for (int shift = 0; ; shift += 7){
+         byte b = buffer.get();
+         value |= (long)(b & 0x7F) << shift;
+         if (b >= 0)
+            return value;
+         if (shift > 56)
+            throw new InputMismatchException("Varint too long");
+      }
+   }
+
+   //Replays the games [from, to) on one thread each, splitting in half until a task
+   //has at most GAMES_PER_TASK games, and counts the ones that don't match
+   private static class ReplayTask extends RecursiveAction {
+
+      private final ArrayList<Game> games;
+      private final WordDictionary dictionary;
+      private final int from, to;
+      private final AtomicInteger mismatches;
+
+      private ReplayTask(ArrayList<Game> games, WordDictionary dictionary, int from, int to, AtomicInteger mismatches){
+         this.games = games;
+         this.dictionary = dictionary;
+         this.from = from;
+         this.to = to;
+         this.mismatches = mismatches;
+      }
+
+      protected void compute(){
+         if (to - from > GAMES_PER_TASK){
+            int mid = (from + to) >>> 1;
+            invokeAll(new ReplayTask(games, dictionary, from, mid, mismatches),
+                      new ReplayTask(games, dictionary, mid, to, mismatches));
+            return;
+         }
+         for (int i = from; i < to; i++){
+            if (!games.get(i).replay(dictionary))
+               mismatches.incrementAndGet();
+         }
+      }
+   }
+
+   //Replays journals from command line arguments (everything after --replay)
+   public static void main(String[] args) throws Exception {
+      ArrayList<String> filenames = new ArrayList<String>();
+      int repeat = 1;
+      boolean gui = false;
+      int gameNumber = 0;
+      double speed = 1.0;
+      for (int i = 0; i < args.length; i++){
+         if (args[i].equals("--repeat") && i + 1 < args.length){
+            repeat = Integer.parseInt(args[++i]);
+            if (repeat < 1)
+               throw new IllegalArgumentException("Number of repeats must be at least 1: " + repeat);
+         }
+         else if (args[i].equals("--gui"))
+            gui = true;
+         else if (args[i].equals("--game") && i + 1 < args.length)
+            gameNumber = Integer.parseInt(args[++i]);
+         else if (args[i].equals("--speed") && i + 1 < args.length){
+            speed = Double.parseDouble(args[++i]);
+            if (!(speed > 0) || Double.isInfinite(speed))
+               throw new IllegalArgumentException("Replay speed must be above 0: " + args[i]);
+         }
+         else if (args[i].startsWith("--"))
+            throw new IllegalArgumentException("Unknown replay option: " + args[i]);
+         else
+            filenames.add(args[i]);
+      }
+      if (filenames.isEmpty())
+         filenames.add(JOURNAL_FILENAME);
+
+      WordDictionary dictionary = new WordDictionary(DictionaryLoader.load(GameLogic.SECRET_WORDS_FILENAME),
+                                                     DictionaryLoader.load(GameLogic.VALID_GUESSES_FILENAME));
+      ArrayList<Game> games = new ArrayList<Game>();
+      for (String filename : filenames)
+         games.addAll(read(filename, dictionary));
+
+      if (gui){
+         if (gameNumber < 0 || gameNumber >= games.size())
+            throw new IllegalArgumentException("Game number must be at least 0 and below " + games.size() + ": " + gameNumber);
+         Game game = games.get(gameNumber);
+         String problem = game.checkReplayable(dictionary);
+         if (problem != null)
+            throw new IllegalStateException("Can't play back game " + gameNumber + ": " + problem);
+         GameGUI.launchReplay(game, speed);
+         return;
+      }
+
+      //skip (and report) the games that can't be replayed on this dictionary
+      ArrayList<Game> replayable = new ArrayList<Game>();
+      long keys = 0;
+      for (int i = 0; i < games.size(); i++){
+         String problem = games.get(i).checkReplayable(dictionary);
+         if (problem != null)
+            System.out.println("Skipped game " + i + " (" + games.get(i) + "): " + problem);
+         else {
+            replayable.add(games.get(i));
+            keys += games.get(i).keyCount();
+         }
+      }
+
+      ForkJoinPool pool = ForkJoinPool.commonPool();
+      AtomicInteger mismatches = new AtomicInteger();
+      long start = System.nanoTime();
+      for (int r = 0; r < repeat; r++)
+         pool.invoke(new ReplayTask(replayable, dictionary, 0, replayable.size(), mismatches));
+      double seconds = (System.nanoTime() - start) / 1e9;
+
+      //list the games that played out differently (once, not once per repeat)
+      for (int i = 0; i < games.size() && mismatches.get() > 0; i++){
+         Game game = games.get(i);
+         if (game.checkReplayable(dictionary) == null && !game.replay(dictionary))
+            System.out.println("MISMATCH in game " + i + " (" + game + ")");
+      }
+      long replayed = (long)replayable.size() * repeat;
+      System.out.printf("Replayed %d game(s) (%d keys) from %d file(s) in %.3f s on %d core(s): %.0f games/s, %.0f keys/s%n",
+                        replayed, keys * repeat, filenames.size(), seconds, pool.getParallelism(),
+                        replayed / seconds, keys * repeat / seconds);
+      System.out.println(mismatches.get() == 0 ? "All games matched their recorded outcome"
+                                               : mismatches.get() + " replay(s) did not match their recorded outcome");
+      if (mismatches.get() > 0)
+         System.exit(1);
+   }
+}
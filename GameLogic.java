@@ -1,21 +1,24 @@
-import java.awt.Color;
 import java.util.Random;
-import java.util.Scanner;
 
 import javax.crypto.NullCipher;
 
 import java.util.Arrays;
 import java.util.InputMismatchException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.awt.event.KeyEvent;
 import java.io.*;
 
 public class GameLogic {
 
    // Name of file containing all the possible "secret words"
-   private static final String SECRET_WORDS_FILENAME = "secrets.txt";
+   public static final String SECRET_WORDS_FILENAME = "secrets.txt";
 
    // Name of file containing all the valid guess words
-   private static final String VALID_GUESSES_FILENAME = "valids.txt";
+   public static final String VALID_GUESSES_FILENAME = "valids.txt";
+
+   // Name of the precompiled binary copy of both word lists (see DictionaryCompiler)
+   public static final String BINARY_DICTIONARY_FILENAME = "words.bin";
 
    // Use for generating random numbers!
    private static final Random rand = new Random();
@@ -24,20 +27,20 @@ public class GameLogic {
    public static final int MAX_ROWS = 6;
    public static final int MAX_COLS = 5;
 
+   // Most boards a multi-board game can have (see MultiBoardSession)
+   public static final int MAX_BOARDS = 16;
+
    // Character codes for the enter and backspace key press
    public static final char ENTER_KEY = KeyEvent.VK_ENTER;
    public static final char BACKSPACE_KEY = KeyEvent.VK_BACK_SPACE;
 
+   // Character code for the hint key (see HintSolver)
+   public static final char HINT_KEY = '?';
+
    // The null character value (used to represent an "empty" value for a spot on
    // the game grid)
    public static final char NULL_CHAR = 0;
 
-   // Various Color Values
-   private static final Color CORRECT_COLOR = new Color(53, 209, 42); // (Green)
-   private static final Color WRONG_PLACE_COLOR = new Color(235, 216, 52); // (Yellow)
-   private static final Color WRONG_COLOR = Color.DARK_GRAY; // (Dark Gray [obviously])
-   private static final Color DEFAULT_KEY_COLOR = new Color(160, 163, 168); // (Light Gray)
-
    // A preset, hard-coded secret word to be use when the resepective debug is
    // enabled
    private static final char[] DEBUG_PRESET_SECRET = {'S', 'L', 'E', 'E', 'K'};
@@ -45,11 +48,9 @@ public class GameLogic {
    // ...Feel free to add more **FINAL** variables of your own!
 
    // ****************** NON-FINAL GLOBAL VARIABLES ******************
-   // Array storing all valid guesses read out of the respective file
-   private static String[] validGuesses;
-
-   // The current row/col where the user left off typing
-   private static int currentRow, currentCol;
+   // The secret words and valid guesses read out of the respective files, stored
+   // as packed words (see PackedWord) so checking a guess doesn't allocate anything
+   private static WordDictionary dictionary;
 
    // *******************************************************************
 
@@ -63,139 +64,185 @@ public class GameLogic {
    // missing the word count in the first line, this function returns null.
 
    public static char[] initializeGame() {
-      // Read in the secret words file and store each word in an array
-         String[] secretWords = null;
-  
-         try {
-            Scanner scanner = new Scanner(new File(SECRET_WORDS_FILENAME));
-            int numWords = scanner.nextInt() - 1;
-            Scanner scannervalid = new Scanner(new File(VALID_GUESSES_FILENAME));
-            int numValidWords = scannervalid.nextInt() - 1;
-  
-          secretWords = new String[numWords];
-          for (int i = 0; i < numWords; i++) {
-              secretWords[i] = scanner.next();
-          }
-  
-          validGuesses = new String[numValidWords];
-          for (int a = 0; a < numValidWords; a++) {
-              validGuesses[a] = scannervalid.next();
-          }
+      char[] secretWord = initializeGameInBackground();
+      if (secretWord == null || !awaitValidGuesses()) {
+         return null;
+      }
+      return secretWord;
+   }
+
+   // Like initializeGame, but returns as soon as the secret word is picked: when the
+   // text word lists are read, the (much longer) valid guesses file is read and
+   // indexed on a background thread, so the game window can open meanwhile (see
+   // awaitValidGuesses). Returns null if the secret words file cannot be read.
+   public static char[] initializeGameInBackground() {
+      // Map the precompiled binary dictionary if it is present and up to date,
+      // otherwise read in the secret words file and the valid guesses file
+         long loadStart = System.nanoTime();
+         dictionary = BinaryDictionary.load(BINARY_DICTIONARY_FILENAME, SECRET_WORDS_FILENAME, VALID_GUESSES_FILENAME);
   
-          scanner.close();
-          scannervalid.close();
-         } 
+         if (dictionary == null) {
+          CompletableFuture<int[]> validWords = new CompletableFuture<int[]>();
+          try {
+             dictionary = new WordDictionary(DictionaryLoader.load(SECRET_WORDS_FILENAME), validWords);
+          } 
       
-         catch (FileNotFoundException e) {
-          System.err.println("Error: secrets.txt file not found");
-          return null;
-         } 
-      
-         catch (InputMismatchException e) {
-          System.err.println("Error: Invalid format in secrets.txt");
+          catch (IOException | InputMismatchException e) {
+           reportLoadError(e);
+           return null;
+          }
+
+          if (Metrics.ENABLED || EventLog.DEBUG_ENABLED)
+             System.out.printf("Secret words loaded from %s: %d words in %.2f ms%n",
+                               SECRET_WORDS_FILENAME, dictionary.secrets().size(), (System.nanoTime() - loadStart) / 1e6);
+          loadValidGuessesInBackground(dictionary, validWords, loadStart);
+         }
+         else {
+          long loadNanos = System.nanoTime() - loadStart;
+          if (Metrics.ENABLED)
+             Metrics.DICTIONARY_LOAD.record(loadNanos);
+          if (Metrics.ENABLED || EventLog.DEBUG_ENABLED)
+             System.out.printf("Dictionary loaded from %s: %d secret words, %d valid guesses in %.2f ms%n",
+                               BINARY_DICTIONARY_FILENAME, dictionary.secrets().size(), dictionary.validGuesses().size(), loadNanos / 1e6);
+         }
+
+         WordSet secretWords = dictionary.secrets();
+         if (secretWords.size() == 0) {
+          System.err.println("Error: " + SECRET_WORDS_FILENAME + " contains no words");
           return null;
          }
   
          // Select a random word from the array and return it as a char array
-         String secretWord = secretWords[rand.nextInt(secretWords.length)];
+         int secretWord = secretWords.get(rand.nextInt(secretWords.size()));
          if (JWordleLauncher.DEBUG_USE_PRESET_SECRET){
             return DEBUG_PRESET_SECRET;
          }
-         else if (!JWordleLauncher.DEBUG_USE_PRESET_SECRET){
-            return BreakString(secretWord.toUpperCase());
-         }
          else{
-            return null;
+            return PackedWord.unpack(secretWord, new char[MAX_COLS]);
          }
       }
 
 
-      // This function gets called everytime the user types a valid key on the
-      // keyboard (alphabetic character, enter, or backspace) or clicks one of the
-      // keys on the graphical keyboard interface.
-      // The key pressed is passed in as a char value.
-      public static void reactToKey(char key) {
-         if (key == BACKSPACE_KEY) {
-            currentCol -= 1;
-            if (currentCol < 0) {
-               currentCol = 0;
+      // Reads the valid guesses file on a new daemon thread and completes the
+      // argument future with its words (the argument dictionary, which is waiting for
+      // them, indexes them on the same thread), or with what went wrong. The thread
+      // only touches the dictionary it was started for, since the game may have been
+      // initialized again meanwhile.
+      private static void loadValidGuessesInBackground(WordDictionary loading, CompletableFuture<int[]> validWords, long loadStart) {
+         Thread loader = new Thread(() -> {
+            try {
+               validWords.complete(DictionaryLoader.load(VALID_GUESSES_FILENAME));
             }
-            GameGUI.setGridChar(currentRow, currentCol, NULL_CHAR);
-         } 
-         else if (key == ENTER_KEY) {
-            char[] checkChar = GameGUI.getSecretWordArr();
-            char[] storeInput = new char[MAX_COLS];
-            int greenNum = 0;
-
-            StoreInput(storeInput);
-
-            if (currentCol != MAX_COLS || !validWordCheck(storeInput)) {
-               GameGUI.wiggle(currentRow);
+            catch (IOException | RuntimeException e) {
+               validWords.completeExceptionally(e);
+               return;
             }
-            else {
-               greenNum = greenCheck(storeInput, checkChar, greenNum);
-               yellowCheck(storeInput, checkChar);
-               grayCheck(storeInput, checkChar);
-
-               currentRow += 1;
-               currentCol = 0;
-               EndGame(greenNum);
+            long loadNanos = System.nanoTime() - loadStart;
+            if (loading.validGuessesReady()) {
+               if (Metrics.ENABLED)
+                  Metrics.DICTIONARY_LOAD.record(loadNanos);
+               if (Metrics.ENABLED || EventLog.DEBUG_ENABLED)
+                  System.out.printf("Valid guesses loaded from %s: %d words in %.2f ms%n",
+                                    VALID_GUESSES_FILENAME, loading.validGuesses().size(), loadNanos / 1e6);
             }
+         }, "jwordle-dictionary-loader");
+         loader.setDaemon(true);
+         loader.start();
+      }
+
+
+      // Waits until the valid guesses started by initializeGameInBackground are
+      // loaded. Returns false (printing why) if they could not be.
+      public static boolean awaitValidGuesses() {
+         try {
+            dictionary.awaitValidGuesses();
+            return true;
+         }
+         catch (CompletionException e) {
+            reportLoadError(e.getCause());
+            return false;
          }
+      }
 
-         else {
-            if (currentCol < MAX_COLS){
-               GameGUI.setGridChar(currentRow, currentCol, key);
-               currentCol += 1;
-               System.out.println("keyPressed called! key (int value) = '" + ((int) key) + "'");
-            }
+
+      // Prints why a word list file could not be loaded
+      private static void reportLoadError(Throwable e) {
+         if (e instanceof FileNotFoundException)
+            System.err.println("Error: " + e.getMessage() + " file not found");
+         else if (e instanceof InputMismatchException)
+            System.err.println("Error: " + e.getMessage());
+         else
+            System.err.println("Error: could not read word list: " + e.getMessage());
+      }
+
+
+      // Returns the number of guesses a game of the argument number of boards allows:
+      // one more than the boards, plus the MAX_ROWS - 1 of a single board (so 6 for
+      // one board, 9 for 4, 13 for 8 and 21 for 16)
+      public static int maxRows(int boards) {
+         return boards + MAX_ROWS - 1;
+      }
+
+
+      // Starts a game of the argument number of boards (1 to MAX_BOARDS) on the
+      // loaded dictionary, each board with a different random secret word
+      public static MultiBoardSession newMultiBoardSession(int boards) {
+         WordSet secretWords = dictionary.secrets();
+         if (boards < 1 || boards > MAX_BOARDS || boards > secretWords.size()) {
+            throw new IllegalArgumentException("Number of boards must be 1 to " + MAX_BOARDS + ": " + boards);
          }
+         // shuffle just the first boards secret words into place
+         int[] words = secretWords.toArray();
+         Sampling.shuffleFirst(words, boards, rand);
+         return new MultiBoardSession(dictionary, Arrays.copyOf(words, boards));
       }
 
 
-      // Stores user input from the game grid into a character array,
-      // loops through each grid cell in the current row up to the current column,
-      // retrieves the character in the cell using GameGUI.getGridChar()
-      // and return the userInput array with the stored input.
-      public static char[] StoreInput(char []userInput){
-      for (int i = 0; i < currentCol; i++) {
-         char guess = GameGUI.getGridChar(currentRow, i);
-         userInput[i] = guess;
+      // Starts a new game on the loaded dictionary with the argument secret word.
+      // Keys typed by the user are passed to GameSession.reactToKey, which holds
+      // all the state of the game (board, keyboard and result). Hard mode and
+      // adversarial mode are set from the JWordleLauncher toggles.
+      public static GameSession newSession(char[] secretWord) {
+         int packed = PackedWord.pack(secretWord);
+         if (packed == PackedWord.INVALID) {
+            throw new IllegalArgumentException("Secret word must be 5 letters: " + Arrays.toString(secretWord));
+         }
+         return newSession(dictionary, packed);
+      }
+
+      // Starts a new game on the argument dictionary with the argument packed secret
+      // word, applying the same hard mode and adversarial toggles as the game window
+      // (used by GameServer, whose games share its own dictionary)
+      public static GameSession newSession(WordDictionary dictionary, int packedSecret) {
+         GameSession session = new GameSession(dictionary, packedSecret);
+         if (JWordleLauncher.HARD_MODE) {
+            session.setHardMode(JWordleLauncher.STRICT_HARD_MODE ? GameSession.STRICT_HARD_MODE : GameSession.HARD_MODE);
+         }
+         session.setAdversarial(JWordleLauncher.ADVERSARIAL_MODE);
+         return session;
       }
-      return userInput;
+
+      // Returns the dictionary loaded by initializeGame (null before the game starts)
+      public static WordDictionary getDictionary(){
+         return dictionary;
       }
 
-      // This function checks if the user's input is a valid guess by comparing it with
-      // the array of valid guesses. It converts the input to uppercase and returns true if
-      // it matches any of the valid guesses, otherwise false.
+      // This function checks if the user's input is a valid guess by packing it into
+      // an int (case doesn't matter) and looking it up in the set of valid guesses.
+      // Returns true if it matches any of the valid guesses, otherwise false.
       public static boolean validWordCheck(char[] userInput){
          if (JWordleLauncher.DEBUG_ALL_GUESSES_VALID){
             return true;
          }
+         else if (Metrics.ENABLED){
+            long start = System.nanoTime();
+            boolean valid = dictionary.isValidGuess(PackedWord.pack(userInput));
+            Metrics.WORD_CHECK.recordSince(start);
+            return valid;
+         }
          else{
-            String checker = String.valueOf(userInput).toUpperCase();
-            for (int i = 0; i < validGuesses.length; i++) {
-               if (checker.equals(validGuesses[i].toUpperCase())) {
-               return true;
-               }
+            return dictionary.isValidGuess(PackedWord.pack(userInput));
             }
-            return false;
-            }
-      }
-
-      // This function checks if the game has ended by checking if the current row is greater than or equal to MAX_ROWS.
-      // If yes, the game is over and the "gameOver" function is called with the parameter "didPlayerWin" change to false.
-      // If the player has guessed the correct word (greenNum equals MAX_COLS), the "didPlayerWin" variable is true
-      // and the "gameOver" function is called with the parameter "didPlayerWin" set to true.
-      public static void EndGame(int greenNum){
-         boolean didPlayerWin = false;
-         if (currentRow >= MAX_ROWS) {
-            GameGUI.gameOver(didPlayerWin);
-         } 
-         if (greenNum == MAX_COLS){
-            didPlayerWin = true;
-            GameGUI.gameOver(didPlayerWin);
-         }
       }
 
       // This function takes a String input and breaks it down into a char array
@@ -209,66 +256,4 @@ public class GameLogic {
          }
       return newChar;
       }
-
-      // This function greenCheck() compares the user's guess with the answer array to determine which characters are correct. 
-      // If a character in the user's guess is also in the answer array and located in the correct position, greenCheck() increases by 1. 
-      // It returns the final green letter count, which equals 5 if the user has correctly guessed the word.
-      // To prevent a redundancy in future checks, if a character in the user's guess is found to be correct, it is set to '0' in the input array.
-      // If a character in the user's guess is correctly identified, the corresponding cell in the answer grid is colored green, 
-      // and the letter key is colored green as well.
-      public static int greenCheck(char[] input, char[] secretWord, int greenNum) {
-      for (int i = 0; i < input.length; i++) {
-
-         if (input[i] == secretWord[i]) {
-
-            GameGUI.setGridColor(currentRow, i, CORRECT_COLOR);
-            GameGUI.setKeyColor(input[i], CORRECT_COLOR);
-            secretWord[i] = '0';
-            greenNum++;
-         }
-      }
-      return greenNum;
-      }
-
-      // This function yellowCheck() checks if a character is inthe wrong position in a modified string array. 
-      // It uses a nested for-loop to compare the user's guess and answer arrays and sets the letter's grid to yellow 
-      // if it's in the answer array but not in the correct position. 
-      // If the letter wasn't previously colored green, the key will be colored yellow.
-      public static void yellowCheck(char[] input, char[] secretWord) {
-      for (int i = 0; i < input.length; i++) {
-
-         for (int j = 0; j < secretWord.length; j++) {
-
-            if (input[i] == secretWord[j] && i != j && GameGUI.getGridColor(currentRow,i)!=CORRECT_COLOR ) {
-
-               GameGUI.setGridColor(currentRow, i, WRONG_PLACE_COLOR);
-               secretWord[j] = '0';
-
-               if (GameGUI.getKeyColor(input[i]) != CORRECT_COLOR && GameGUI.getKeyColor(input[i]) != WRONG_PLACE_COLOR) {
-                  
-                  GameGUI.setKeyColor(input[i], WRONG_PLACE_COLOR);
-               }
-            }
-         }
-      }
-      }
-
-      // The function deals with the "leftover" array by greenCheck and yellowCheck. 
-      // It colors the key and grid of a letter dark gray if it is not correct and not in the wrong place, 
-      // but only if they haven't been colored green or yellow before.
-      public static void grayCheck(char[] input, char[] secretWord) {
-      for (int i = 0; i < secretWord.length; i++) {
-
-         if (input[i] != secretWord[i] && GameGUI.getGridColor(currentRow,i)!=CORRECT_COLOR && GameGUI.getGridColor(currentRow, i) != WRONG_PLACE_COLOR) {
-
-            GameGUI.setGridColor(currentRow, i, WRONG_COLOR);
-
-            if (GameGUI.getKeyColor(input[i]) != CORRECT_COLOR && GameGUI.getKeyColor(input[i]) != WRONG_PLACE_COLOR) {
-
-               GameGUI.setKeyColor(input[i], WRONG_COLOR);
-            }
-         }
-         }
-   }
 }
-
@@ -0,0 +1,389 @@
+import java.io.*;
+import java.lang.reflect.Method;
+import java.net.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Hosts games for many players from one JVM over a simple line protocol on a local
+//TCP port (no window needed).
+//
+//Every connection is served on its own virtual thread (Java 21+; on older JVMs a
+//platform thread is used instead, which limits how many players can connect).
+//All games share the one read-only dictionary loaded by GameLogic, and each
+//connection only holds a small read buffer and at most MAX_GAMES_PER_CONNECTION
+//GameSessions (a few hundred bytes each), so memory per player is bounded.
+//
+//Protocol: one ASCII command per line, answered with one line starting with
+//"OK" or "ERR <reason>" (a line longer than MAX_LINE bytes gets one "ERR line too
+//long"). Game ids are per connection. Games are created by
+//GameLogic.newSession, so they follow the same hard mode and adversarial toggles
+//(see JWordleLauncher) as the game window.
+//   NEW [SECRET_INDEX]   starts a game (random secret if no index)  -> OK <id>
+//   GUESS <id> <WORD>    types the word and enter  -> OK <feedback> <status> <left>
+//                        (ERR not a word, or ERR hard mode: <hint ignored>)
+//                        (feedback: G green, Y yellow, - gray per letter;
+//                        status: PLAYING, WON or LOST; left: secrets still possible)
+//   KEY <id> <KEY>       types one key (a letter, ENTER or BACKSPACE)
+//                                                  -> OK <row> <col> <status>
+//   BOARD <id>           -> OK <status> <row> <col> <left> <WORD/feedback>... [typed letters]
+//   END <id>             ends a game and frees its id  -> OK
+//   STATS                -> OK <connections> <commands served> <heap bytes used>
+//   BYE                  closes the connection
+//
+//Usage (see JWordleLauncher):  java JWordleLauncher --server [--port P] [--max-connections N]
+//and LoadGenerator for a matching load test.
+public class GameServer {
+
+   //Default port, and most connections served at once
+   public static final int DEFAULT_PORT = 7777;
+   private static final int DEFAULT_MAX_CONNECTIONS = 50000;
+   //Pending connections the OS queues while the server accepts
+   private static final int ACCEPT_BACKLOG = 4096;
+
+   //Games one connection may have going at once
+   private static final int MAX_GAMES_PER_CONNECTION = 16;
+   //Longest command accepted, in bytes
+   private static final int MAX_LINE = 128;
+
+   //Status words in replies, by GameSession result
+   private static final String[] STATUS = {"PLAYING", "WON", "LOST"};
+   //Feedback characters in replies, by FeedbackScorer color (GRAY, YELLOW, GREEN)
+   private static final char[] FEEDBACK_CHARS = {'-', 'Y', 'G'};
+
+   private final WordDictionary dictionary;
+   private final int maxConnections;
+   private final AtomicInteger connections = new AtomicInteger();
+   private final AtomicLong commandsServed = new AtomicLong();
+
+   public GameServer(WordDictionary dictionary, int maxConnections){
+      this.dictionary = dictionary;
+      this.maxConnections = maxConnections;
+   }
+
+   //Returns an executor that runs each task on a new virtual thread, or on a
+   //(cached) platform thread if this JVM has no virtual threads
+   static ExecutorService newThreadPerTaskExecutor(){
+      try {
+         //(looked up reflectively so the game still builds and runs on Java 17)
+         Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+         return (ExecutorService)method.invoke(null);
+      }
+      catch (ReflectiveOperationException | UnsupportedOperationException e){
+         return Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task);
+            thread.setDaemon(true);
+            return thread;
+         });
+      }
+   }
+
+   //Returns true if the argument executor runs its tasks on virtual threads
+   static boolean usesVirtualThreads(ExecutorService executor){
+      return !(executor instanceof java.util.concurrent.ThreadPoolExecutor);
+   }
+
+   //Accepts connections on the argument local port until the process is stopped
+   public void serve(int port) throws IOException {
+      ExecutorService executor = newThreadPerTaskExecutor();
+      try (ServerSocket server = new ServerSocket(port, ACCEPT_BACKLOG, InetAddress.getLoopbackAddress())){
+         System.out.printf("JWordle server listening on %s:%d (%s, up to %d connections)%n",
+                           server.getInetAddress().getHostAddress(), server.getLocalPort(),
+                           usesVirtualThreads(executor) ? "virtual threads" : "platform threads", maxConnections);
+         while (true){
+            Socket socket = server.accept();
+            if (connections.incrementAndGet() > maxConnections){
+               connections.decrementAndGet();
+               refuse(socket);
+               continue;
+            }
+            executor.execute(() -> {
+               try {
+                  new Connection(socket).run();
+               }
+               finally {
+                  connections.decrementAndGet();
+               }
+            });
+         }
+      }
+   }
+
+   //Returns the number of connections being served
+   public int getConnectionCount(){
+      return connections.get();
+   }
+
+   //Returns the number of commands answered so far
+   public long getCommandsServed(){
+      return commandsServed.get();
+   }
+
+   private static void refuse(Socket socket){
+      try (socket){
+         socket.getOutputStream().write("ERR server full\n".getBytes("US-ASCII"));
+      }
+      catch (IOException e){
+         //(the client is gone either way)
+      }
+   }
+
+   //One player's connection: reads commands and answers them, on its own thread
+   private class Connection {
+
+      private final Socket socket;
+      private final GameSession[] games = new GameSession[MAX_GAMES_PER_CONNECTION];
+      //Bytes read from the socket but not yet handled
+      private final byte[] input = new byte[MAX_LINE];
+      private int inputStart = 0, inputEnd = 0;
+      //True if the line readLine just returned was longer than MAX_LINE (and skipped)
+      private boolean lineTooLong = false;
+      private final StringBuilder reply = new StringBuilder(MAX_LINE);
+      //Bytes of the reply being sent (the longest reply, echoing a command of
+      //MAX_LINE bytes, fits easily; a longer one would be cut short, but still end
+      //its line)
+      private final byte[] output = new byte[MAX_LINE * 4];
+
+      private Connection(Socket socket){
+         this.socket = socket;
+      }
+
+      private void run(){
+         try (socket){
+            socket.setTcpNoDelay(true);
+            InputStream in = socket.getInputStream();
+            OutputStream out = socket.getOutputStream();
+            String line;
+            while ((line = readLine(in)) != null){
+               reply.setLength(0);
+               if (lineTooLong)
+                  reply.append("ERR line too long");
+               else if (line.equals("BYE"))
+                  break;
+               else {
+                  try {
+                     handle(line);
+                  }
+                  catch (RuntimeException e){
+                     //(bad numbers, missing arguments...)
+                     reply.setLength(0);
+                     reply.append("ERR bad command: ").append(line);
+                  }
+               }
+               commandsServed.incrementAndGet();
+               int length = Math.min(reply.length(), output.length - 1);
+               for (int i = 0; i < length; i++)
+                  output[i] = (byte)reply.charAt(i);
+               output[length] = '\n';
+               out.write(output, 0, length + 1);
+            }
+         }
+         catch (IOException e){
+            //(the client went away)
+         }
+      }
+
+      //Returns the next line sent (without its line break), or null once the client
+      //has closed the connection. A line longer than MAX_LINE is skipped whole and
+      //returned as "" with lineTooLong set, so it gets a single answer.
+      private String readLine(InputStream in) throws IOException {
+         lineTooLong = false;
+         while (true){
+            for (int i = inputStart; i < inputEnd; i++){
+               if (input[i] == '\n'){
+                  int end = i > inputStart && input[i - 1] == '\r' ? i - 1 : i;
+                  String line = new String(input, inputStart, end - inputStart, "US-ASCII");
+                  inputStart = i + 1;
+                  return line;
+               }
+            }
+            if (inputStart > 0){
+               System.arraycopy(input, inputStart, input, 0, inputEnd - inputStart);
+               inputEnd -= inputStart;
+               inputStart = 0;
+            }
+            if (inputEnd == input.length){
+               //no line break in a full buffer: the line is too long
+               if (!skipLine(in))
+                  return null;
+               lineTooLong = true;
+               return "";
+            }
+            int read = in.read(input, inputEnd, input.length - inputEnd);
+            if (read < 0)
+               return null;
+            inputEnd += read;
+         }
+      }
+
+      //Discards the buffered input and what the client sends next up to and including
+      //the next line break, keeping what follows it. Returns false if the client
+      //closes the connection first.
+      private boolean skipLine(InputStream in) throws IOException {
+         while (true){
+            inputStart = 0;
+            inputEnd = in.read(input, 0, input.length);
+            if (inputEnd < 0){
+               inputEnd = 0;
+               return false;
+            }
+            for (int i = 0; i < inputEnd; i++){
+               if (input[i] == '\n'){
+                  inputStart = i + 1;
+                  return true;
+               }
+            }
+         }
+      }
+
+      //Answers one command into reply
+      private void handle(String line){
+         String[] words = line.trim().split(" +");
+         String command = words[0].toUpperCase();
+         if (command.equals("NEW")){
+            int slot = 0;
+            while (slot < games.length && games[slot] != null)
+               slot++;
+            if (slot == games.length){
+               reply.append("ERR too many games (END one first)");
+               return;
+            }
+            WordSet secrets = dictionary.secrets();
+            int secretIndex = words.length > 1 ? Integer.parseInt(words[1]) : ThreadLocalRandom.current().nextInt(secrets.size());
+            if (secretIndex < 0 || secretIndex >= secrets.size()){
+               reply.append("ERR no secret word ").append(secretIndex);
+               return;
+            }
+            games[slot] = GameLogic.newSession(dictionary, secrets.get(secretIndex));
+            reply.append("OK ").append(slot);
+            return;
+         }
+         if (command.equals("STATS")){
+            Runtime runtime = Runtime.getRuntime();
+            reply.append("OK ").append(connections.get()).append(' ').append(commandsServed.get())
+                 .append(' ').append(runtime.totalMemory() - runtime.freeMemory());
+            return;
+         }
+
+         GameSession game = words.length > 1 ? game(words[1]) : null;
+         if (game == null){
+            reply.append(words.length > 1 ? "ERR no game " + words[1] : "ERR unknown command: " + line);
+            return;
+         }
+         if (command.equals("GUESS") && words.length > 2)
+            guess(game, words[2]);
+         else if (command.equals("KEY") && words.length > 2)
+            key(game, words[2]);
+         else if (command.equals("BOARD"))
+            board(game);
+         else if (command.equals("END")){
+            games[Integer.parseInt(words[1])] = null;
+            reply.append("OK");
+         }
+         else
+            reply.append("ERR unknown command: ").append(line);
+      }
+
+      //Returns the game with the argument id, or null
+      private GameSession game(String id){
+         int slot = Integer.parseInt(id);
+         return slot >= 0 && slot < games.length ? games[slot] : null;
+      }
+
+      private void guess(GameSession game, String word){
+         if (game.isGameOver()){
+            reply.append("ERR game over");
+            return;
+         }
+         int packed = PackedWord.pack(word);
+         int row = game.getCurrentRow();
+         if (packed == PackedWord.INVALID || !game.submitGuess(packed)){
+            if (packed != PackedWord.INVALID && game.getLastRejection() == EventLog.REJECTED_HARD_MODE)
+               reply.append("ERR hard mode: ").append(game.explainHardMode(packed));
+            else
+               reply.append("ERR not a word: ").append(word);
+            return;
+         }
+         reply.append("OK ");
+         appendFeedback(game, row);
+         reply.append(' ').append(STATUS[game.getResult()]).append(' ').append(game.getRemainingCount());
+      }
+
+      private void key(GameSession game, String name){
+         char key;
+         if (name.equalsIgnoreCase("ENTER"))
+            key = GameLogic.ENTER_KEY;
+         else if (name.equalsIgnoreCase("BACKSPACE"))
+            key = GameLogic.BACKSPACE_KEY;
+         else if (name.length() == 1 && PackedWord.letterIndex(name.charAt(0)) >= 0)
+            key = name.charAt(0);
+         else {
+            reply.append("ERR not a key: ").append(name);
+            return;
+         }
+         int row = game.getCurrentRow();
+         game.reactToKey(key);
+         if (key == GameLogic.ENTER_KEY && game.getCurrentRow() == row && !game.isGameOver()){
+            int rejection = game.getLastRejection();
+            if (rejection == EventLog.REJECTED_INCOMPLETE)
+               reply.append("ERR not enough letters");
+            else if (rejection == EventLog.REJECTED_HARD_MODE)
+               reply.append("ERR hard mode: ").append(game.explainHardMode(typedWord(game, row)));
+            else
+               reply.append("ERR not a word");
+            return;
+         }
+         reply.append("OK ").append(game.getCurrentRow()).append(' ').append(game.getCurrentCol())
+              .append(' ').append(STATUS[game.getResult()]);
+      }
+
+      //Returns the packed word typed into the argument (full, unscored) row
+      private int typedWord(GameSession game, int row){
+         int packed = 0;
+         for (int col = 0; col < GameLogic.MAX_COLS; col++)
+            packed = (packed << PackedWord.LETTER_BITS) | PackedWord.letterIndex(game.getLetter(row, col));
+         return packed;
+      }
+
+      private void board(GameSession game){
+         reply.append("OK ").append(STATUS[game.getResult()]).append(' ').append(game.getCurrentRow())
+              .append(' ').append(game.getCurrentCol()).append(' ').append(game.getRemainingCount());
+         for (int row = 0; row < game.getCurrentRow(); row++){
+            reply.append(' ');
+            for (int col = 0; col < GameLogic.MAX_COLS; col++)
+               reply.append(game.getLetter(row, col));
+            reply.append('/');
+            appendFeedback(game, row);
+         }
+         if (game.getCurrentCol() > 0 && !game.isGameOver()){
+            reply.append(' ');
+            for (int col = 0; col < game.getCurrentCol(); col++)
+               reply.append(game.getLetter(game.getCurrentRow(), col));
+         }
+      }
+
+      private void appendFeedback(GameSession game, int row){
+         for (int col = 0; col < GameLogic.MAX_COLS; col++)
+            reply.append(FEEDBACK_CHARS[game.getFeedback(row, col)]);
+      }
+   }
+
+   //Runs the server from command line arguments (everything after --server)
+   public static void main(String[] args) throws Exception {
+      int port = DEFAULT_PORT;
+      int maxConnections = DEFAULT_MAX_CONNECTIONS;
+      for (int i = 0; i < args.length; i++){
+         if (args[i].equals("--port") && i + 1 < args.length)
+            port = Integer.parseInt(args[++i]);
+         else if (args[i].equals("--max-connections") && i + 1 < args.length)
+            maxConnections = Integer.parseInt(args[++i]);
+         else
+            throw new IllegalArgumentException("Unknown server option: " + args[i]);
+      }
+      if (GameLogic.initializeGame() == null)
+         return;
+      new GameServer(GameLogic.getDictionary(), maxConnections).serve(port);
+   }
+}
@@ -0,0 +1,437 @@
+import java.util.Arrays;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//One game of JWordle: the board, the secret word, the keyboard state and the result.
+//A session only holds small primitive arrays plus a reference to a shared, immutable
+//WordDictionary, so any number of sessions can run side by side (one per thread, or
+//many per thread) without a display and without sharing mutable state.
+//
+//A session is not thread safe by itself; each one should only be used by one thread
+//at a time.
+public class GameSession {
+
+   //Feedback value of a cell or key that hasn't been scored yet
+   //(scored cells and keys hold FeedbackScorer.GRAY, YELLOW or GREEN)
+   public static final int UNSCORED = -1;
+
+   //Possible results of a session
+   public static final int IN_PROGRESS = 0;
+   public static final int WON = 1;
+   public static final int LOST = 2;
+
+   //Hard mode settings (see setHardMode)
+   public static final int NORMAL_MODE = 0;
+   public static final int HARD_MODE = 1;
+   public static final int STRICT_HARD_MODE = 2;
+
+   //Number of letters on the keyboard
+   private static final int ALPHABET_SIZE = 26;
+   
+   //Source of session ids (used to tell sessions apart in the EventLog)
+   private static final AtomicInteger nextId = new AtomicInteger();
+
+   private final int id = nextId.incrementAndGet();
+   private final WordDictionary dictionary;
+   //The packed secret word (see PackedWord); in adversarial mode, a word that is
+   //consistent with every row scored so far
+   private int secret;
+
+   //Letters typed on the board, row major, stored as letter index + 1 (0 = empty)
+   private final byte[] letters = new byte[GameLogic.MAX_ROWS * GameLogic.MAX_COLS];
+   //Feedback of each cell, row major (UNSCORED until its row is submitted)
+   private final byte[] feedback = new byte[GameLogic.MAX_ROWS * GameLogic.MAX_COLS];
+   //Best feedback seen so far for each letter key, indexed by letter (0 = 'A')
+   private final byte[] keyFeedback = new byte[ALPHABET_SIZE];
+   //The packed guess and pattern code of each submitted row
+   private final int[] rowGuesses = new int[GameLogic.MAX_ROWS];
+   private final int[] rowCodes = new int[GameLogic.MAX_ROWS];
+   //One bit per secret word still consistent with the scored rows (see CandidateIndex),
+   //made the first time they are asked for (see candidates()), as most sessions
+   //played headless never ask
+   private long[] candidates;
+
+   //The valid guess graph, once the dictionary has loaded it (null until then, as
+   //typing never waits for it; see readyGraph)
+   private WordGraph graph;
+   //Node of the graph reached by the first col letters of the current row, for
+   //every col up to currentCol (WordGraph.DEAD once no valid guess starts with them)
+   private final int[] prefixNodes = new int[GameLogic.MAX_COLS + 1];
+
+   //The current row/col where the user left off typing
+   private int currentRow, currentCol;
+   private int result = IN_PROGRESS;
+   //NORMAL_MODE, HARD_MODE or STRICT_HARD_MODE, and what the scored rows revealed
+   //(null in normal mode)
+   private int mode = NORMAL_MODE;
+   private GuessConstraints constraints;
+   //Why the last row submitted was rejected (EventLog.REJECTED_*), or -1 if it wasn't
+   private int rejection = -1;
+   //Picks the feedback in adversarial mode (null in a normal game)
+   private AdversarialSecret adversary;
+
+   private GameSessionListener listener;
+   //Records every key handled (null when the game isn't being recorded)
+   private GameJournal.Recorder recorder;
+
+   //Starts a new game with the argument packed secret word.
+   //Throws IllegalArgumentException if the secret isn't a valid packed word.
+   public GameSession(WordDictionary dictionary, int secret){
+      if (secret < 0 || secret >= PackedWord.WORD_SPACE)
+         throw new IllegalArgumentException("Invalid packed secret word: " + secret);
+      this.dictionary = dictionary;
+      this.secret = secret;
+      Arrays.fill(feedback, (byte)UNSCORED);
+      Arrays.fill(keyFeedback, (byte)UNSCORED);
+      if (EventLog.INFO_ENABLED)
+         EventLog.log(EventLog.SESSION_STARTED, id, GameLogic.NULL_CHAR, 0, 0, secret);
+   }
+
+   //Sets the object notified of every change to the board (null for none)
+   public void setListener(GameSessionListener listener){
+      this.listener = listener;
+   }
+
+   //Records every key this session handles from now on with the argument recorder
+   //(null to stop recording)
+   public void setRecorder(GameJournal.Recorder recorder){
+      this.recorder = recorder;
+   }
+
+   //Sets whether guesses must use the hints revealed so far: HARD_MODE keeps greens
+   //in place and reuses every letter shown, STRICT_HARD_MODE also only allows words
+   //that could still be the secret. A guess breaking the rule is rejected like an
+   //invalid word. Throws IllegalStateException once a row has been scored.
+   public void setHardMode(int mode){
+      if (mode < NORMAL_MODE || mode > STRICT_HARD_MODE)
+         throw new IllegalArgumentException("Invalid hard mode: " + mode);
+      if (currentRow > 0)
+         throw new IllegalStateException("Hard mode can only be changed before the first guess");
+      this.mode = mode;
+      constraints = mode == NORMAL_MODE ? null : new GuessConstraints();
+   }
+
+   //Returns NORMAL_MODE, HARD_MODE or STRICT_HARD_MODE
+   public int getHardMode(){
+      return mode;
+   }
+
+   //Returns true if the packed guess uses the hints revealed so far as the hard mode
+   //setting requires (always true in NORMAL_MODE)
+   public boolean followsHardMode(int guess){
+      if (constraints == null)
+         return true;
+      return mode == STRICT_HARD_MODE ? constraints.couldBeSecret(guess) : constraints.allows(guess);
+   }
+
+   //Returns why the last row submitted was rejected: EventLog.REJECTED_INCOMPLETE,
+   //REJECTED_NOT_A_WORD or REJECTED_HARD_MODE, or -1 if it was scored (or none was)
+   public int getLastRejection(){
+      return rejection;
+   }
+
+   //Returns which hint the packed guess ignores under the hard mode setting, e.g.
+   //"letter 2 must be R", or null if it follows hard mode
+   public String explainHardMode(int guess){
+      return constraints == null ? null : constraints.explain(guess, mode == STRICT_HARD_MODE);
+   }
+
+   //Sets whether the secret is fixed (false) or adversarial (true): in adversarial
+   //mode every guess gets the feedback shared by the most secret words still possible
+   //(see AdversarialSecret), so the secret is only settled when the game ends.
+   //Throws IllegalStateException once a row has been scored.
+   public void setAdversarial(boolean adversarial){
+      if (currentRow > 0)
+         throw new IllegalStateException("Adversarial mode can only be changed before the first guess");
+      adversary = adversarial ? new AdversarialSecret(dictionary) : null;
+   }
+
+   //Returns true if the secret is adversarial (see setAdversarial)
+   public boolean isAdversarial(){
+      return adversary != null;
+   }
+
+   //Called everytime the user types a key (alphabetic character, enter, or
+   //backspace). Letters are accepted in either case; anything else is ignored, as
+   //is every key once the game is over.
+   public void reactToKey(char key){
+      if (result != IN_PROGRESS)
+         return;
+      long start = Metrics.ENABLED ? System.nanoTime() : 0;
+      if (recorder != null)
+         recorder.keyTyped(key);
+      if (EventLog.DEBUG_ENABLED)
+         logKey(key);
+      if (key == GameLogic.BACKSPACE_KEY){
+         if (currentCol > 0){
+            currentCol--;
+            letters[cellIndex(currentRow, currentCol)] = 0;
+            if (listener != null)
+               listener.letterChanged(this, currentRow, currentCol);
+         }
+      }
+      else if (key == GameLogic.ENTER_KEY){
+         submitRow();
+      }
+      else {
+         int letter = PackedWord.letterIndex(key);
+         if (letter >= 0 && currentCol < GameLogic.MAX_COLS){
+            letters[cellIndex(currentRow, currentCol)] = (byte)(letter + 1);
+            if (readyGraph() != null)
+               prefixNodes[currentCol + 1] = graph.step(prefixNodes[currentCol], letter);
+            currentCol++;
+            if (listener != null)
+               listener.letterChanged(this, currentRow, currentCol - 1);
+         }
+      }
+      if (Metrics.ENABLED)
+         Metrics.KEY_TO_MODEL.recordSince(start);
+   }
+
+   //Logs a key about to be handled by reactToKey (and whether it changes the board)
+   private void logKey(char key){
+      boolean changes;
+      if (key == GameLogic.BACKSPACE_KEY)
+         changes = currentCol > 0;
+      else if (key == GameLogic.ENTER_KEY)
+         changes = currentCol == GameLogic.MAX_COLS;
+      else
+         changes = PackedWord.letterIndex(key) >= 0 && currentCol < GameLogic.MAX_COLS;
+      EventLog.log(EventLog.KEY, id, key, currentRow, currentCol, changes ? 1 : 0);
+   }
+   
+   //Types a whole word (as 5 letters) followed by enter.
+   //Returns true if the guess was accepted and scored.
+   public boolean submitGuess(int packedGuess){
+      if (result != IN_PROGRESS || packedGuess < 0)
+         return false;
+      while (currentCol > 0)
+         reactToKey(GameLogic.BACKSPACE_KEY);
+      for (int i = 0; i < PackedWord.LENGTH; i++)
+         reactToKey((char)('A' + PackedWord.letterAt(packedGuess, i)));
+      int row = currentRow;
+      reactToKey(GameLogic.ENTER_KEY);
+      return currentRow != row || result != IN_PROGRESS;
+   }
+
+   //Scores the current row if it holds a complete, valid word (that follows hard
+   //mode, if set); otherwise rejects it
+   private void submitRow(){
+      int guess = currentRowWord();
+      int rejected = -1;
+      if (guess == PackedWord.INVALID)
+         rejected = EventLog.REJECTED_INCOMPLETE;
+      else if (!JWordleLauncher.DEBUG_ALL_GUESSES_VALID && !isValidWord())
+         rejected = EventLog.REJECTED_NOT_A_WORD;
+      else if (!followsHardMode(guess))
+         rejected = EventLog.REJECTED_HARD_MODE;
+      rejection = rejected;
+      if (rejected >= 0){
+         if (Metrics.ENABLED)
+            Metrics.INVALID_GUESSES.increment();
+         if (EventLog.INFO_ENABLED)
+            EventLog.log(EventLog.ROW_REJECTED, id, GameLogic.ENTER_KEY, currentRow, currentCol, rejected);
+         if (listener != null)
+            listener.guessRejected(this, currentRow);
+         return;
+      }
+
+      long scoreStart = Metrics.ENABLED ? System.nanoTime() : 0;
+      int code;
+      if (adversary != null){
+         code = adversary.respond(guess);
+         secret = adversary.getCandidate(0);
+      }
+      else
+         code = FeedbackScorer.score(guess, secret);
+      int row = currentRow;
+      rowGuesses[row] = guess;
+      rowCodes[row] = code;
+      for (int col = 0; col < GameLogic.MAX_COLS; col++){
+         int cellFeedback = FeedbackScorer.colorAt(code, col);
+         feedback[cellIndex(row, col)] = (byte)cellFeedback;
+         int letter = PackedWord.letterAt(guess, col);
+         //keys only ever get upgraded (gray -> yellow -> green)
+         if (cellFeedback > keyFeedback[letter])
+            keyFeedback[letter] = (byte)cellFeedback;
+      }
+
+      if (candidates != null)
+         dictionary.candidateIndex().apply(candidates, guess, code);
+      if (constraints != null)
+         constraints.update(guess, code);
+      if (Metrics.ENABLED)
+         Metrics.SCORING.recordSince(scoreStart);
+
+      currentRow++;
+      currentCol = 0;
+      if (code == FeedbackScorer.ALL_GREEN)
+         result = WON;
+      else if (currentRow >= GameLogic.MAX_ROWS)
+         result = LOST;
+      if (Metrics.ENABLED){
+         Metrics.GUESSES.increment();
+         if (result == WON)
+            Metrics.WINS.increment();
+         else if (result == LOST)
+            Metrics.LOSSES.increment();
+      }
+
+      if (EventLog.INFO_ENABLED){
+         EventLog.log(EventLog.ROW_SCORED, id, GameLogic.ENTER_KEY, row, 0, code);
+         if (result != IN_PROGRESS)
+            EventLog.log(EventLog.GAME_OVER, id, GameLogic.NULL_CHAR, row, 0, result);
+      }
+      if (listener != null){
+         listener.rowScored(this, row, code);
+         if (result != IN_PROGRESS)
+            listener.gameOver(this, result == WON);
+      }
+   }
+
+   //Returns the valid guess graph, or null if the dictionary is still loading it.
+   //The first time it is ready, walks the letters already typed in the current row.
+   private WordGraph readyGraph(){
+      if (graph == null && dictionary.validGuessesReady()){
+         graph = dictionary.validGuessGraph();
+         prefixNodes[0] = graph.root();
+         for (int col = 0; col < currentCol; col++)
+            prefixNodes[col + 1] = graph.step(prefixNodes[col], letters[cellIndex(currentRow, col)] - 1);
+      }
+      return graph;
+   }
+
+   //Returns true if the full current row is a valid guess: the letters typed reached
+   //the end of the valid guess graph. This is the only check that waits for the
+   //valid guesses if they are still loading, and if they fail to load no guess is
+   //valid (whoever started loading them reports why). (Timed when metrics are on.)
+   private boolean isValidWord(){
+      long start = Metrics.ENABLED ? System.nanoTime() : 0;
+      if (graph == null){
+         try {
+            dictionary.awaitValidGuesses();
+         }
+         catch (CompletionException e){
+            return false;
+         }
+      }
+      boolean valid = readyGraph().isWord(prefixNodes[currentCol]);
+      if (Metrics.ENABLED)
+         Metrics.WORD_CHECK.recordSince(start);
+      return valid;
+   }
+
+   //Returns true if no valid guess starts with the letters typed in the current row
+   //(always false when every guess counts as valid, or while the valid guesses are
+   //still loading)
+   public boolean isDeadPrefix(){
+      return !JWordleLauncher.DEBUG_ALL_GUESSES_VALID && readyGraph() != null && prefixNodes[currentCol] == WordGraph.DEAD;
+   }
+
+   //Packs the letters of the current row, or returns PackedWord.INVALID if it isn't full
+   private int currentRowWord(){
+      if (currentCol != GameLogic.MAX_COLS)
+         return PackedWord.INVALID;
+      int packed = 0;
+      int start = cellIndex(currentRow, 0);
+      for (int col = 0; col < GameLogic.MAX_COLS; col++)
+         packed = (packed << PackedWord.LETTER_BITS) | (letters[start + col] - 1);
+      return packed;
+   }
+
+   private static int cellIndex(int row, int col){
+      return row * GameLogic.MAX_COLS + col;
+   }
+
+   //Returns the upper case letter in the argument cell, or GameLogic.NULL_CHAR if empty
+   public char getLetter(int row, int col){
+      int stored = letters[cellIndex(row, col)];
+      return stored == 0 ? GameLogic.NULL_CHAR : (char)('A' + stored - 1);
+   }
+
+   //Returns the feedback of the argument cell (FeedbackScorer.GRAY, YELLOW, GREEN or UNSCORED)
+   public int getFeedback(int row, int col){
+      return feedback[cellIndex(row, col)];
+   }
+
+   //Returns the best feedback seen so far for the argument letter, or UNSCORED
+   public int getKeyFeedback(char key){
+      int letter = PackedWord.letterIndex(key);
+      if (letter < 0)
+         throw new IllegalArgumentException("Invalid Key specified: '" + key + "'");
+      return keyFeedback[letter];
+   }
+
+   //Returns the packed guess submitted in the argument row
+   public int getRowGuess(int row){
+      return rowGuesses[row];
+   }
+
+   //Returns the pattern code of the argument row
+   public int getRowCode(int row){
+      return rowCodes[row];
+   }
+
+   //Returns the number of secret words still consistent with the scored rows
+   public int getRemainingCount(){
+      return dictionary.candidateIndex().count(candidates());
+   }
+
+   //Writes the indices (in the dictionary's secret words) of every secret word
+   //still consistent with the scored rows into out, and returns how many there are.
+   //out must have room for getRemainingCount() entries.
+   public int getRemainingCandidates(int[] out){
+      return dictionary.candidateIndex().list(candidates(), out);
+   }
+
+   //Returns the candidate mask, making it from the rows scored so far the first time
+   private long[] candidates(){
+      if (candidates == null){
+         CandidateIndex index = dictionary.candidateIndex();
+         candidates = index.newMask();
+         for (int row = 0; row < currentRow; row++)
+            index.apply(candidates, rowGuesses[row], rowCodes[row]);
+      }
+      return candidates;
+   }
+
+   //Returns the id of this session (unique within this run of the program)
+   public int getId(){
+      return id;
+   }
+
+   //Returns the row the user is typing in (equal to the number of scored rows)
+   public int getCurrentRow(){
+      return currentRow;
+   }
+
+   //Returns the column the next letter will be typed into
+   public int getCurrentCol(){
+      return currentCol;
+   }
+
+   //Returns IN_PROGRESS, WON or LOST
+   public int getResult(){
+      return result;
+   }
+
+   public boolean isGameOver(){
+      return result != IN_PROGRESS;
+   }
+
+   //Returns the packed secret word (in adversarial mode, one of the words still
+   //possible, which is the secret once the game is over)
+   public int getSecret(){
+      return secret;
+   }
+
+   //Returns the secret word as a NEW upper case char array
+   public char[] getSecretWord(){
+      return PackedWord.unpack(secret, new char[PackedWord.LENGTH]);
+   }
+
+   //Returns the dictionary this session validates guesses against
+   public WordDictionary getDictionary(){
+      return dictionary;
+   }
+}
@@ -0,0 +1,18 @@
+//Receives the changes a GameSession makes to its board, so a view (such as GameGUI)
+//can redraw itself. All methods are called on the thread that called
+//GameSession.reactToKey.
+public interface GameSessionListener {
+
+   //A letter was typed into, or erased from, the argument cell
+   void letterChanged(GameSession session, int row, int col);
+
+   //The argument row was submitted and scored. The cell feedback and the keyboard
+   //state of the session have already been updated.
+   void rowScored(GameSession session, int row, int code);
+
+   //The guess in the argument row was rejected (incomplete or not a valid word)
+   void guessRejected(GameSession session, int row);
+
+   //The game ended
+   void gameOver(GameSession session, boolean didPlayerWin);
+}
@@ -0,0 +1,244 @@
+//What the scored rows of a game have revealed about the secret word, for enforcing
+//hard mode (see GameSession.setHardMode). Updated once per scored row, so checking
+//a guess never looks back at earlier rows, and takes a fixed number of steps:
+//   - fixed letters: the letter known at each green position (packed like a word)
+//   - min/max counts: how many copies of each letter the secret has at least / at most
+//   - forbidden positions: for each position, letters known not to be there
+//
+//Hard mode only asks a guess to use the hints (allows); strict hard mode asks it
+//to be a word that could still be the secret (couldBeSecret).
+public final class GuessConstraints {
+
+   //Letters in the alphabet and letters per word
+   private static final int ALPHABET_SIZE = 26;
+   private static final int LENGTH = PackedWord.LENGTH;
+
+   //Letters of the green positions, and a mask selecting those positions, packed
+   private int fixedLetters = 0, fixedMask = 0;
+   //Fewest and most copies of each letter the secret can have
+   private final byte[] minCounts = new byte[ALPHABET_SIZE];
+   private final byte[] maxCounts = new byte[ALPHABET_SIZE];
+   //One bit per letter (bit 0 = 'A') known not to be at each position
+   private final int[] forbidden = new int[LENGTH];
+   //One bit per letter with a minimum count above 0 (at most 5 bits are ever set)
+   private int requiredLetters = 0;
+
+   public GuessConstraints(){
+      java.util.Arrays.fill(maxCounts, (byte)LENGTH);
+   }
+
+   //Adds what the argument packed guess and its pattern code reveal
+   public void update(int guess, int code){
+      int shown = 0, grayed = 0;
+      for (int pos = 0; pos < LENGTH; pos++){
+         int letter = PackedWord.letterAt(guess, pos);
+         int color = FeedbackScorer.colorAt(code, pos);
+         if (color == FeedbackScorer.GREEN){
+            int shift = (LENGTH - 1 - pos) * PackedWord.LETTER_BITS;
+            fixedMask |= PackedWord.LETTER_MASK << shift;
+            fixedLetters |= letter << shift;
+         }
+         else
+            forbidden[pos] |= 1 << letter;
+         if (color == FeedbackScorer.GRAY)
+            grayed |= 1 << letter;
+         else
+            shown |= 1 << letter;
+      }
+      //the copies of a letter shown green or yellow are a minimum, and if the letter
+      //was also grayed they are exactly how many the secret has
+      for (int letters = shown | grayed; letters != 0; letters &= letters - 1){
+         int letter = Integer.numberOfTrailingZeros(letters);
+         int count = countOf(guess, letter, code);
+         if (count > minCounts[letter])
+            minCounts[letter] = (byte)count;
+         if ((grayed & (1 << letter)) != 0 && count < maxCounts[letter])
+            maxCounts[letter] = (byte)count;
+      }
+      requiredLetters |= shown;
+   }
+
+   //Number of positions of the guess holding the argument letter and scored green
+   //or yellow in the argument code
+   private static int countOf(int guess, int letter, int code){
+      int count = 0;
+      for (int pos = 0; pos < LENGTH; pos++){
+         if (PackedWord.letterAt(guess, pos) == letter && FeedbackScorer.colorAt(code, pos) != FeedbackScorer.GRAY)
+            count++;
+      }
+      return count;
+   }
+
+   //Number of copies of the argument letter in the packed word
+   private static int copies(int word, int letter){
+      int count = 0;
+      for (int pos = 0; pos < LENGTH; pos++){
+         if (PackedWord.letterAt(word, pos) == letter)
+            count++;
+      }
+      return count;
+   }
+
+   //Returns true if the packed guess uses every hint so far (hard mode): each green
+   //letter stays in place and every letter shown appears at least as many times as
+   //it has been shown
+   public boolean allows(int guess){
+      if ((guess & fixedMask) != fixedLetters)
+         return false;
+      for (int letters = requiredLetters; letters != 0; letters &= letters - 1){
+         int letter = Integer.numberOfTrailingZeros(letters);
+         if (copies(guess, letter) < minCounts[letter])
+            return false;
+      }
+      return true;
+   }
+
+   //Returns true if the packed guess could still be the secret (strict hard mode):
+   //it is allowed, has no letter at a position ruled out for it, and no more copies
+   //of a letter than the secret can have
+   public boolean couldBeSecret(int guess){
+      if (!allows(guess))
+         return false;
+      for (int pos = 0; pos < LENGTH; pos++){
+         int letter = PackedWord.letterAt(guess, pos);
+         if ((forbidden[pos] & (1 << letter)) != 0 || copies(guess, letter) > maxCounts[letter])
+            return false;
+      }
+      return true;
+   }
+
+   //Returns which hint the packed guess ignores, e.g. "letter 2 must be R" (null if
+   //it follows them all); strict checks couldBeSecret instead of allows
+   public String explain(int guess, boolean strict){
+      for (int pos = 0; pos < LENGTH; pos++){
+         int fixed = getFixedLetter(pos);
+         if (fixed >= 0 && PackedWord.letterAt(guess, pos) != fixed)
+            return "letter " + (pos + 1) + " must be " + (char)('A' + fixed);
+      }
+      for (int letters = requiredLetters; letters != 0; letters &= letters - 1){
+         int letter = Integer.numberOfTrailingZeros(letters);
+         if (copies(guess, letter) < minCounts[letter])
+            return "must contain " + (minCounts[letter] > 1 ? minCounts[letter] + " " : "") + (char)('A' + letter);
+      }
+      if (!strict)
+         return null;
+      for (int pos = 0; pos < LENGTH; pos++){
+         int letter = PackedWord.letterAt(guess, pos);
+         if ((forbidden[pos] & (1 << letter)) != 0)
+            return "letter " + (pos + 1) + " can't be " + (char)('A' + letter);
+         if (copies(guess, letter) > maxCounts[letter])
+            return maxCounts[letter] == 0 ? "no " + (char)('A' + letter)
+                                          : "at most " + maxCounts[letter] + " " + (char)('A' + letter);
+      }
+      return null;
+   }
+
+   //Returns the fewest copies of the argument letter (0-25) the secret can have
+   public int getMinCount(int letter){
+      return minCounts[letter];
+   }
+
+   //Returns the most copies of the argument letter (0-25) the secret can have
+   public int getMaxCount(int letter){
+      return maxCounts[letter];
+   }
+
+   //Returns the letter (0-25) known to be at the argument position, or -1
+   public int getFixedLetter(int pos){
+      int shift = (LENGTH - 1 - pos) * PackedWord.LETTER_BITS;
+      return ((fixedMask >>> shift) & PackedWord.LETTER_MASK) != 0 ? (fixedLetters >>> shift) & PackedWord.LETTER_MASK : -1;
+   }
+
+   //Returns true if the packed word follows hard mode given the argument rows,
+   //worked out from the rows themselves: every green letter in place, and each
+   //letter at least as many times as one row showed it green or yellow
+   private static boolean allowsByRows(int word, int[] guesses, int[] codes, int rows){
+      for (int r = 0; r < rows; r++){
+         for (int pos = 0; pos < LENGTH; pos++){
+            int letter = PackedWord.letterAt(guesses[r], pos);
+            if (FeedbackScorer.colorAt(codes[r], pos) == FeedbackScorer.GREEN && PackedWord.letterAt(word, pos) != letter)
+               return false;
+            if (copies(word, letter) < countOf(guesses[r], letter, codes[r]))
+               return false;
+         }
+      }
+      return true;
+   }
+
+   //Returns true if the packed word gives the same feedback as the secret to every row
+   private static boolean couldBeSecretByRows(int word, int[] guesses, int[] codes, int rows){
+      for (int r = 0; r < rows; r++){
+         if (FeedbackScorer.score(guesses[r], word) != codes[r])
+            return false;
+      }
+      return true;
+   }
+
+   //Plays random games and checks allows and couldBeSecret after every row against
+   //rescoring the earlier rows (see allowsByRows and couldBeSecretByRows). Each row is
+   //checked on random valid guesses, on the secrets still possible and on those with
+   //one letter changed, so both answers come up often, duplicate letters included.
+   //Usage: java GuessConstraints [games]
+   public static void main(String[] args) throws java.io.IOException {
+      int games = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+      WordDictionary dictionary = new WordDictionary(DictionaryLoader.load(GameLogic.SECRET_WORDS_FILENAME),
+                                                     DictionaryLoader.load(GameLogic.VALID_GUESSES_FILENAME));
+      int[] valids = dictionary.validGuesses().toArray();
+      int[] secrets = dictionary.secrets().toArray();
+      java.util.Random rand = new java.util.Random(42);
+      int[] guesses = new int[GameLogic.MAX_ROWS], codes = new int[GameLogic.MAX_ROWS];
+      int[] samples = new int[1000 + 2 * secrets.length];
+      long checks = 0, allowed = 0, possible = 0, mismatches = 0;
+      for (int game = 0; game < games; game++){
+         int secret = secrets[rand.nextInt(secrets.length)];
+         GuessConstraints constraints = new GuessConstraints();
+         for (int row = 0; row < GameLogic.MAX_ROWS; row++){
+            //half the time any valid guess, otherwise one that could be the secret
+            int guess = valids[rand.nextInt(valids.length)];
+            if (rand.nextBoolean()){
+               for (int tries = 0; tries < 10000 && !constraints.couldBeSecret(guess); tries++)
+                  guess = secrets[rand.nextInt(secrets.length)];
+            }
+            guesses[row] = guess;
+            codes[row] = FeedbackScorer.score(guess, secret);
+            constraints.update(guess, codes[row]);
+            if (codes[row] == FeedbackScorer.ALL_GREEN)
+               break;
+
+            int count = 0;
+            for (int i = 0; i < 1000; i++)
+               samples[count++] = valids[rand.nextInt(valids.length)];
+            for (int candidate : secrets){
+               if (!couldBeSecretByRows(candidate, guesses, codes, row + 1))
+                  continue;
+               int pos = rand.nextInt(LENGTH);
+               int shift = (LENGTH - 1 - pos) * PackedWord.LETTER_BITS;
+               samples[count++] = candidate;
+               samples[count++] = (candidate & ~(PackedWord.LETTER_MASK << shift)) | (rand.nextInt(ALPHABET_SIZE) << shift);
+            }
+            for (int i = 0; i < count; i++){
+               int word = samples[i];
+               boolean allows = allowsByRows(word, guesses, codes, row + 1);
+               boolean could = couldBeSecretByRows(word, guesses, codes, row + 1);
+               checks++;
+               if (allows)
+                  allowed++;
+               if (could)
+                  possible++;
+               if ((constraints.allows(word) != allows || constraints.couldBeSecret(word) != could) && mismatches++ == 0){
+                  StringBuilder rows = new StringBuilder();
+                  for (int r = 0; r <= row; r++)
+                     rows.append(' ').append(PackedWord.toString(guesses[r])).append('/').append(codes[r]);
+                  System.out.println("Mismatch: " + PackedWord.toString(word) + " after" + rows + ": allows "
+                                     + constraints.allows(word) + " (expected " + allows + "), couldBeSecret "
+                                     + constraints.couldBeSecret(word) + " (expected " + could + ")");
+               }
+            }
+         }
+      }
+      System.out.println(games + " games, " + checks + " checks (" + allowed + " allowed, " + possible
+                         + " could be the secret), " + mismatches + " mismatches");
+      if (mismatches > 0)
+         System.exit(1);
+   }
+}
@@ -0,0 +1,238 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+//Remembers the best next guess (see HintSolver) for board states already seen, as
+//most games pass through the same few states in their first turns.
+//
+//A board state is keyed by its history: the (guess, pattern code) pairs of the
+//scored rows, sorted and with repeats dropped, since neither the order of the rows
+//nor a repeated row changes which secrets are still possible. The history is hashed
+//two ways into 64 bit keys (A picks the entry, B checks it), so two states would
+//have to collide on 128 bits to share a hint. The hard mode setting (see
+//GameSession.setHardMode) is hashed in too, since it changes which guesses may be
+//hinted.
+//
+//Lookups first try the opening book (precomputed hints for the first two turns in
+//a memory mapped file, see OpeningBook; in hard mode only the first turn, whose
+//guess is unrestricted, and never in strict hard mode), then an in memory LRU cache split into
+//STRIPES independently locked parts, each evicting its least recently used entry
+//once full. Only a miss in both ranks the guesses, and its answer is cached.
+//
+//A cache belongs to one solver (so one dictionary), and the book is only used if it
+//was built from the same word lists.
+public final class HintCache {
+
+   //Default number of board states kept in memory
+   public static final int DEFAULT_CAPACITY = 1 << 14;
+
+   //Number of independently locked parts of the LRU cache (a power of 2)
+   private static final int STRIPES = 16;
+
+   //Seeds of the two history hashes
+   private static final long SEED_A = 0x9E3779B97F4A7C15L;
+   private static final long SEED_B = 0xC2B2AE3D27D4EB4FL;
+
+   private final HintSolver solver;
+   //Precomputed hints for the first two turns (null for none)
+   private final OpeningBook book;
+   private final Stripe[] stripes = new Stripe[STRIPES];
+
+   private final LongAdder bookHits = new LongAdder();
+   private final LongAdder memoryHits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+
+   //Creates a cache of at most capacity board states, in front of the argument book
+   //(if not null) and solver.
+   //Throws IllegalArgumentException if the book was built from another dictionary.
+   public HintCache(HintSolver solver, OpeningBook book, int capacity){
+      if (book != null && !book.matches(solver.getDictionary()))
+         throw new IllegalArgumentException("Opening book was built from a different dictionary");
+      this.solver = solver;
+      this.book = book;
+      for (int i = 0; i < STRIPES; i++)
+         stripes[i] = new Stripe(Math.max(1, capacity / STRIPES));
+   }
+
+   //Returns the solver answering the misses
+   public HintSolver getSolver(){
+      return solver;
+   }
+
+   //Returns the index (in the valid guesses) of the best next guess for the
+   //argument session (one its hard mode allows), or -1 if there is none.
+   //Reads the session, so call it from the thread playing it.
+   public int bestGuessIndex(GameSession session){
+      long[] history = new long[GameLogic.MAX_ROWS];
+      int length = history(session, history);
+      int[] candidates = new int[session.getRemainingCount()];
+      session.getRemainingCandidates(candidates);
+      return bestGuessIndex(history, length, session.getHardMode(), HintSolver.allowedGuesses(session),
+                            candidates, candidates.length);
+   }
+
+   //Returns the index (in the valid guesses) of the best next guess for the board
+   //with the argument history (see history()) and candidate secrets (indices of the
+   //secret words consistent with it, only read on a miss), or -1 if there are none
+   public int bestGuessIndex(long[] history, int length, int[] candidates, int count){
+      return bestGuessIndex(history, length, GameSession.NORMAL_MODE, null, candidates, count);
+   }
+
+   //Same as above for a board played in the argument hard mode, where only the
+   //allowed guesses (see HintSolver.allowedGuesses, only read on a miss) may be
+   //hinted. Returns -1 if no guess is allowed.
+   public int bestGuessIndex(long[] history, int length, int mode, long[] allowed, int[] candidates, int count){
+      long keyA = hash(history, length, SEED_A, mode);
+      long keyB = hash(history, length, SEED_B, mode);
+      if (book != null && usesBook(mode, length)){
+         //(the book holds normal mode hints)
+         int guess = mode == GameSession.NORMAL_MODE ? book.get(keyA, keyB)
+                                                     : book.get(keyA(history, length), keyB(history, length));
+         if (guess != OpeningBook.MISSING){
+            bookHits.increment();
+            return guess;
+         }
+      }
+      Stripe stripe = stripes[(int)(keyA >>> (64 - Integer.numberOfTrailingZeros(STRIPES)))];
+      synchronized (stripe){
+         Entry entry = stripe.get(keyA);
+         if (entry != null && entry.keyB == keyB){
+            memoryHits.increment();
+            return entry.guess;
+         }
+      }
+      misses.increment();
+      int guess = solver.bestGuessIndex(candidates, count, allowed);
+      synchronized (stripe){
+         stripe.put(keyA, new Entry(keyB, guess));
+      }
+      return guess;
+   }
+
+   //Returns true if the opening book's hint for a board with the argument number of
+   //scored rows is one the argument hard mode allows: in normal mode any, in hard
+   //mode only the first guess (nothing is revealed yet), in strict hard mode none
+   //(only possible secrets may be guessed, and the book's openings aren't)
+   private static boolean usesBook(int mode, int length){
+      if (mode == GameSession.NORMAL_MODE)
+         return length <= OpeningBook.HISTORY_ROWS;
+      return mode == GameSession.HARD_MODE && length == 0;
+   }
+
+   //Writes the canonical history of the argument session (one guess << 8 | code
+   //per distinct scored row, ascending) to out and returns its length.
+   //out must have room for GameLogic.MAX_ROWS values.
+   public static int history(GameSession session, long[] out){
+      int length = 0;
+      for (int row = 0; row < session.getCurrentRow(); row++)
+         length = add(out, length, session.getRowGuess(row), session.getRowCode(row));
+      return length;
+   }
+
+   //Adds a scored row to the canonical history held in the first length values of
+   //history (keeping it sorted) and returns its new length
+   static int add(long[] history, int length, int guess, int code){
+      long pair = (long)guess << 8 | code;
+      int pos = length;
+      while (pos > 0 && history[pos - 1] > pair)
+         pos--;
+      if (pos > 0 && history[pos - 1] == pair)
+         return length;
+      System.arraycopy(history, pos, history, pos + 1, length - pos);
+      history[pos] = pair;
+      return length + 1;
+   }
+
+   //Key A of a canonical history in normal mode (picks the entry)
+   static long keyA(long[] history, int length){
+      return hash(history, length, SEED_A, GameSession.NORMAL_MODE);
+   }
+
+   //Key B of a canonical history in normal mode (checks the entry)
+   static long keyB(long[] history, int length){
+      return hash(history, length, SEED_B, GameSession.NORMAL_MODE);
+   }
+
+   //Hashes the first length values of a canonical history and the hard mode
+   //(normal mode hashes as the history alone, as the opening book was keyed)
+   private static long hash(long[] history, int length, long seed, int mode){
+      long h = seed ^ length ^ ((long)mode << 32);
+      for (int i = 0; i < length; i++)
+         h = mix(h ^ history[i]) + seed;
+      return mix(h);
+   }
+
+   //Scrambles the bits of x (the SplitMix64 finalizer)
+   private static long mix(long x){
+      x = (x ^ (x >>> 30)) * 0xBF58476D1CE4E5B9L;
+      x = (x ^ (x >>> 27)) * 0x94D049BB133111EBL;
+      return x ^ (x >>> 31);
+   }
+
+   //Returns the lookups answered by the opening book
+   public long getBookHits(){
+      return bookHits.sum();
+   }
+
+   //Returns the lookups answered by the in memory cache
+   public long getMemoryHits(){
+      return memoryHits.sum();
+   }
+
+   //Returns the lookups that had to rank the guesses
+   public long getMisses(){
+      return misses.sum();
+   }
+
+   //Returns the fraction of lookups answered without ranking the guesses
+   public double hitRatio(){
+      long hits = getBookHits() + getMemoryHits();
+      long total = hits + getMisses();
+      return total == 0 ? 0 : (double)hits / total;
+   }
+
+   //Returns the number of board states held in memory
+   public int size(){
+      int size = 0;
+      for (Stripe stripe : stripes){
+         synchronized (stripe){
+            size += stripe.size();
+         }
+      }
+      return size;
+   }
+
+   //Describes the hit ratio, e.g. for printing after a run
+   public String report(){
+      return String.format("Hint cache: %.1f%% hit ratio (%d book hits, %d memory hits, %d misses), %d states in memory",
+                           100 * hitRatio(), getBookHits(), getMemoryHits(), getMisses(), size());
+   }
+
+   //A cached hint: key B of its history and the guess
+   private static final class Entry {
+
+      private final long keyB;
+      private final int guess;
+
+      private Entry(long keyB, int guess){
+         this.keyB = keyB;
+         this.guess = guess;
+      }
+   }
+
+   //One part of the LRU cache (key A -> entry), in access order, dropping its least
+   //recently used entry once it holds more than capacity (guarded by itself)
+   private static final class Stripe extends LinkedHashMap<Long, Entry> {
+
+      private final int capacity;
+
+      private Stripe(int capacity){
+         super(16, 0.75f, true);
+         this.capacity = capacity;
+      }
+
+      protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest){
+         return size() > capacity;
+      }
+   }
+}
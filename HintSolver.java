@@ -0,0 +1,352 @@
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+//Ranks guesses by how much they are expected to narrow down the secret word.
+//For a set of secrets still possible, each valid guess splits them into buckets by
+//the feedback pattern it would produce; the guess whose buckets have the highest
+//entropy (expected information gain, in bits) is the best hint.
+//
+//The valid guesses are split across cores with fork-join, and each task reuses one
+//243-bucket histogram for all of its guesses, so ranking allocates nothing per guess.
+//Candidates are passed around as indices into the dictionary's secret words.
+//
+//In hard mode only some guesses may be played next, so the best guess can be picked
+//from a set of allowed guesses (see allowedGuesses); the others aren't scored.
+public final class HintSolver {
+
+   //Number of guesses each fork-join task scores before it stops splitting
+   private static final int GUESSES_PER_TASK = 256;
+
+   //Treats two entropies this close as equal (then a guess that could be the
+   //secret wins, then the earlier guess in valids.txt)
+   private static final double ENTROPY_EPSILON = 1e-9;
+
+   private final WordDictionary dictionary;
+   private final int[] guesses;
+   private final int[] secrets;
+   //Optional precomputed feedback table (null to score pairs directly)
+   private final FeedbackMatrix matrix;
+   //For each valid guess, its index in the secret words (or -1)
+   private final int[] guessSecretIndex;
+   //c * log2(c) for every bucket size c that can occur
+   private final double[] cLogC;
+   private final ForkJoinPool pool;
+
+   //Creates a solver that scores pairs with FeedbackScorer on the common pool
+   public HintSolver(WordDictionary dictionary){
+      this(dictionary, null, ForkJoinPool.commonPool());
+   }
+
+   //Creates a solver that reads pattern codes from the argument matrix (if not
+   //null) and ranks guesses on the argument pool
+   public HintSolver(WordDictionary dictionary, FeedbackMatrix matrix, ForkJoinPool pool){
+      if (matrix != null && !matrix.matches(dictionary))
+         throw new IllegalArgumentException("Feedback matrix was built from a different dictionary");
+      this.dictionary = dictionary;
+      this.guesses = dictionary.validGuesses().toArray();
+      this.secrets = dictionary.secrets().toArray();
+      this.matrix = matrix;
+      this.pool = pool;
+      guessSecretIndex = new int[guesses.length];
+      for (int g = 0; g < guesses.length; g++)
+         guessSecretIndex[g] = dictionary.secrets().indexOf(guesses[g]);
+      cLogC = new double[secrets.length + 1];
+      for (int c = 2; c <= secrets.length; c++)
+         cLogC[c] = c * (Math.log(c) / Math.log(2));
+   }
+
+   public WordDictionary getDictionary(){
+      return dictionary;
+   }
+
+   //Returns the pattern code of the guess at guessIndex against the secret at secretIndex
+   public int feedback(int guessIndex, int secretIndex){
+      if (matrix != null)
+         return matrix.get(guessIndex, secretIndex);
+      return FeedbackScorer.score(guesses[guessIndex], secrets[secretIndex]);
+   }
+
+   //Returns the indices of every secret word consistent with the scored rows of the
+   //argument session
+   public int[] remainingCandidates(GameSession session){
+      int[] candidates = new int[session.getRemainingCount()];
+      session.getRemainingCandidates(candidates);
+      return candidates;
+   }
+
+   //Returns the packed word of the best next guess for the argument session (one its
+   //hard mode allows), or PackedWord.INVALID if there is none
+   public int hint(GameSession session){
+      int[] candidates = remainingCandidates(session);
+      int best = bestGuessIndex(candidates, candidates.length, allowedGuesses(session));
+      return best < 0 ? PackedWord.INVALID : guesses[best];
+   }
+
+   //Returns the index (in the valid guesses) of the best guess for the first count
+   //candidate secrets, or -1 if there are none
+   public int bestGuessIndex(int[] candidates, int count){
+      return bestGuessIndex(candidates, count, null);
+   }
+
+   //Returns the index (in the valid guesses) of the best guess for the first count
+   //candidate secrets out of the allowed guesses (see allowedGuesses; null for all),
+   //or -1 if there are no candidates or no allowed guesses
+   public int bestGuessIndex(int[] candidates, int count, long[] allowed){
+      if (count == 0)
+         return -1;
+      if (count == 1){
+         //(the last candidate follows every hint, so hard mode allows it)
+         return dictionary.validGuesses().indexOf(secrets[candidates[0]]);
+      }
+      double[] entropy = new double[guesses.length];
+      scoreAll(candidates, count, entropy, allowed, true);
+      return best(entropy, candidates, count, allowed);
+   }
+
+   //Returns the valid guesses the hard mode of the argument session lets the player
+   //make next, as a bit set over their indices, or null if every guess is allowed.
+   //HARD_MODE allows the guesses that use every hint so far; STRICT_HARD_MODE only
+   //the secret words still possible. Reads the session, so call it from the thread
+   //playing it.
+   public static long[] allowedGuesses(GameSession session){
+      if (session.getHardMode() == GameSession.NORMAL_MODE)
+         return null;
+      long[] history = new long[GameLogic.MAX_ROWS];
+      int length = HintCache.history(session, history);
+      int[] candidates = new int[session.getRemainingCount()];
+      session.getRemainingCandidates(candidates);
+      return allowedGuesses(session.getDictionary(), session.getHardMode(), history, length, candidates, candidates.length);
+   }
+
+   //Same as above for a board played in the argument hard mode with the argument
+   //history (see HintCache.history) and first count candidate secrets, so it can
+   //run away from the session. Waits for the valid guesses unless every guess is
+   //allowed.
+   public static long[] allowedGuesses(WordDictionary dictionary, int mode, long[] history, int length,
+                                       int[] candidates, int count){
+      if (mode == GameSession.NORMAL_MODE)
+         return null;
+      if (mode == GameSession.STRICT_HARD_MODE)
+         return candidateGuesses(dictionary, candidates, count);
+      if (length == 0)
+         return null;
+      //(what the rows reveal doesn't depend on their order, see GuessConstraints)
+      GuessConstraints constraints = new GuessConstraints();
+      for (int i = 0; i < length; i++)
+         constraints.update((int)(history[i] >>> 8), (int)(history[i] & 0xFF));
+      WordSet valid = dictionary.validGuesses();
+      long[] allowed = new long[(valid.size() + 63) >>> 6];
+      for (int g = 0; g < valid.size(); g++){
+         if (constraints.allows(valid.get(g)))
+            allowed[g >>> 6] |= 1L << g;
+      }
+      return allowed;
+   }
+
+   //Returns the valid guesses that are one of the first count candidate secrets, as
+   //a bit set over their indices (what STRICT_HARD_MODE allows)
+   public static long[] candidateGuesses(WordDictionary dictionary, int[] candidates, int count){
+      WordSet valid = dictionary.validGuesses();
+      long[] allowed = new long[(valid.size() + 63) >>> 6];
+      for (int i = 0; i < count; i++){
+         int g = valid.indexOf(dictionary.secrets().get(candidates[i]));
+         if (g >= 0)
+            allowed[g >>> 6] |= 1L << g;
+      }
+      return allowed;
+   }
+
+   //Same as bestGuessIndex but scores every guess on the calling thread. Use this
+   //when many independent searches already run in parallel (e.g. simulations).
+   public int bestGuessIndexSequential(int[] candidates, int count, double[] entropyScratch){
+      if (count == 0)
+         return -1;
+      if (count == 1)
+         return dictionary.validGuesses().indexOf(secrets[candidates[0]]);
+      scoreAll(candidates, count, entropyScratch, null, false);
+      return best(entropyScratch, candidates, count, null);
+   }
+
+   //Returns the top (at most limit) guesses for the first count candidate secrets,
+   //best first
+   public Ranking rank(int[] candidates, int count, int limit){
+      double[] entropy = new double[guesses.length];
+      scoreAll(candidates, count, entropy, null, true);
+      long[] candidateSet = candidateBits(candidates, count);
+      Integer[] order = new Integer[guesses.length];
+      for (int g = 0; g < order.length; g++)
+         order[g] = g;
+      Arrays.sort(order, (a, b) -> compare(a, b, entropy, candidateSet));
+      int size = Math.min(limit, order.length);
+      Ranking ranking = new Ranking(size);
+      for (int i = 0; i < size; i++){
+         ranking.words[i] = guesses[order[i]];
+         ranking.entropies[i] = entropy[order[i]];
+      }
+      return ranking;
+   }
+
+   //Fills entropy[g] for every allowed valid guess g (every guess if allowed is null)
+   private void scoreAll(int[] candidates, int count, double[] entropy, long[] allowed, boolean parallel){
+      EntropyTask task = new EntropyTask(this, candidates, count, entropy, allowed, 0, guesses.length);
+      if (parallel)
+         pool.invoke(task);
+      else
+         task.scoreRange();
+   }
+
+   //Entropy in bits of the argument guess over the first count candidates, using
+   //(and leaving cleared) the argument histogram
+   private double entropy(int guessIndex, int[] candidates, int count, int[] histogram, int[] touched){
+      int numTouched = 0;
+      if (matrix != null){
+         for (int i = 0; i < count; i++){
+            int code = matrix.get(guessIndex, candidates[i]);
+            if (histogram[code]++ == 0)
+               touched[numTouched++] = code;
+         }
+      }
+      else {
+         int guess = guesses[guessIndex];
+         for (int i = 0; i < count; i++){
+            int code = FeedbackScorer.score(guess, secrets[candidates[i]]);
+            if (histogram[code]++ == 0)
+               touched[numTouched++] = code;
+         }
+      }
+      double sum = 0;
+      for (int t = 0; t < numTouched; t++){
+         int code = touched[t];
+         sum += cLogC[histogram[code]];
+         histogram[code] = 0;
+      }
+      //H = log2(n) - (1/n) * sum(c * log2(c))
+      return (cLogC[count] - sum) / count;
+   }
+
+   //Picks the best allowed guess out of a filled entropy array, or returns -1 if no
+   //guess is allowed
+   private int best(double[] entropy, int[] candidates, int count, long[] allowed){
+      long[] candidateSet = candidateBits(candidates, count);
+      int best = -1;
+      for (int g = 0; g < guesses.length; g++){
+         if (isAllowed(g, allowed) && (best < 0 || compare(g, best, entropy, candidateSet) < 0))
+            best = g;
+      }
+      return best;
+   }
+
+   private static boolean isAllowed(int guessIndex, long[] allowed){
+      return allowed == null || (allowed[guessIndex >>> 6] & (1L << guessIndex)) != 0;
+   }
+
+   //Orders guesses best first: higher entropy, then possible secrets, then index
+   private int compare(int a, int b, double[] entropy, long[] candidateSet){
+      double diff = entropy[a] - entropy[b];
+      if (diff > ENTROPY_EPSILON)
+         return -1;
+      if (diff < -ENTROPY_EPSILON)
+         return 1;
+      boolean aCandidate = isCandidate(a, candidateSet);
+      boolean bCandidate = isCandidate(b, candidateSet);
+      if (aCandidate != bCandidate)
+         return aCandidate ? -1 : 1;
+      return Integer.compare(a, b);
+   }
+
+   private boolean isCandidate(int guessIndex, long[] candidateSet){
+      int s = guessSecretIndex[guessIndex];
+      return s >= 0 && (candidateSet[s >>> 6] & (1L << s)) != 0;
+   }
+
+   private long[] candidateBits(int[] candidates, int count){
+      long[] bits = new long[(secrets.length + 63) >>> 6];
+      for (int i = 0; i < count; i++)
+         bits[candidates[i] >>> 6] |= 1L << candidates[i];
+      return bits;
+   }
+
+   //The best guesses found by rank(), best first
+   public static final class Ranking {
+
+      //Packed words and their entropy in bits
+      public final int[] words;
+      public final double[] entropies;
+
+      private Ranking(int size){
+         words = new int[size];
+         entropies = new double[size];
+      }
+
+      public int size(){
+         return words.length;
+      }
+   }
+
+   //Scores the guesses [from, to), splitting in half until a task has at most
+   //GUESSES_PER_TASK guesses
+   private static class EntropyTask extends RecursiveAction {
+
+      private final HintSolver solver;
+      private final int[] candidates;
+      private final int count;
+      private final double[] entropy;
+      private final long[] allowed;
+      private final int from, to;
+
+      private EntropyTask(HintSolver solver, int[] candidates, int count, double[] entropy, long[] allowed,
+                          int from, int to){
+         this.solver = solver;
+         this.candidates = candidates;
+         this.count = count;
+         this.entropy = entropy;
+         this.allowed = allowed;
+         this.from = from;
+         this.to = to;
+      }
+
+      protected void compute(){
+         if (to - from > GUESSES_PER_TASK){
+            int mid = (from + to) >>> 1;
+            invokeAll(new EntropyTask(solver, candidates, count, entropy, allowed, from, mid),
+                      new EntropyTask(solver, candidates, count, entropy, allowed, mid, to));
+            return;
+         }
+         scoreRange();
+      }
+
+      //Scores every allowed guess in this task's range with one reused histogram
+      private void scoreRange(){
+         int[] histogram = new int[FeedbackScorer.PATTERN_COUNT];
+         int[] touched = new int[FeedbackScorer.PATTERN_COUNT];
+         for (int g = from; g < to; g++){
+            if (isAllowed(g, allowed))
+               entropy[g] = solver.entropy(g, candidates, count, histogram, touched);
+         }
+      }
+   }
+
+   //Prints the top first guesses over every secret word, and how long ranking took
+   public static void main(String[] args) throws Exception {
+      WordDictionary dictionary = new WordDictionary(DictionaryLoader.load(GameLogic.SECRET_WORDS_FILENAME),
+                                                     DictionaryLoader.load(GameLogic.VALID_GUESSES_FILENAME));
+      boolean useMatrix = args.length > 0 && args[0].equals("--matrix");
+      FeedbackMatrix matrix = useMatrix ? FeedbackMatrix.open(dictionary, FeedbackMatrix.CACHE_FILENAME) : null;
+      HintSolver solver = new HintSolver(dictionary, matrix, ForkJoinPool.commonPool());
+      int[] all = new int[dictionary.secrets().size()];
+      for (int i = 0; i < all.length; i++)
+         all[i] = i;
+
+      Ranking ranking = null;
+      for (int run = 0; run < 3; run++){
+         long start = System.nanoTime();
+         ranking = solver.rank(all, all.length, 10);
+         System.out.printf("Ranked %d guesses over %d secrets in %.1f ms (%d core(s)%s)%n",
+                           dictionary.validGuesses().size(), all.length, (System.nanoTime() - start) / 1e6,
+                           ForkJoinPool.commonPool().getParallelism(), useMatrix ? ", feedback matrix" : "");
+      }
+      for (int i = 0; i < ranking.size(); i++)
+         System.out.printf("%2d. %s  %.4f bits%n", i + 1, PackedWord.toString(ranking.words[i]), ranking.entropies[i]);
+   }
+}
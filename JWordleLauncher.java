@@ -12,10 +12,64 @@ public class JWordleLauncher{
    //be a word read from the text file (false)
    public static final boolean DEBUG_ALL_GUESSES_VALID = false;    
    
-   public static void main(String[] args){
+   //Controls if the number of secret words still possible is displayed in the game
+   //window (true) or not (false)
+   public static final boolean DEBUG_SHOW_CANDIDATES = true;    
+   
+   //Controls if every guess must use the hints revealed so far: greens kept in
+   //place and every letter shown used again (true) or not (false)
+   public static final boolean HARD_MODE = false;    
+   
+   //Controls if, in hard mode, every guess must also be a word that could still be
+   //the secret (true) or only has to use the hints (false)
+   public static final boolean STRICT_HARD_MODE = false;    
+   
+   //Controls if the secret word is picked up front (false) or adversarially (true):
+   //every guess gets the feedback that keeps the most secret words possible, see
+   //AdversarialSecret
+   public static final boolean ADVERSARIAL_MODE = false;    
+   
+   //Controls if every game played in the game window is appended to the game
+   //journal file (true) or not (false), see GameJournal
+   public static final boolean RECORD_GAMES = true;    
+   
+   //With no arguments, opens the game window. Other modes:
+   //   --simulate [options]   plays a strategy against many secrets headless (see Simulator)
+   //   --replay FILE... [options]   replays recorded games headless, or in the game
+   //                                window with --gui (see GameJournal)
+   //   --server [options]     hosts games for many players over a local port (see GameServer)
+   //   --load [options]       load tests a running server (see LoadGenerator)
+   //   --optimal [options]    searches for the strategy with the fewest guesses on
+   //                          average and writes its decision tree (see OptimalSolver)
+   //   --boards N             opens the game window with N boards played at once
+   //                          (4, 8 or 16, see MultiBoardSession)
+   public static void main(String[] args) throws Exception {
       
-      GameGUI.launchGame();
+      if (args.length > 0 && args[0].equals("--simulate"))
+         Simulator.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+      else if (args.length > 0 && args[0].equals("--replay"))
+         GameJournal.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+      else if (args.length > 0 && args[0].equals("--server"))
+         GameServer.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+      else if (args.length > 0 && args[0].equals("--load"))
+         LoadGenerator.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+      else if (args.length > 0 && args[0].equals("--optimal"))
+         OptimalSolver.main(java.util.Arrays.copyOfRange(args, 1, args.length));
+      else if (args.length > 0 && args[0].equals("--boards"))
+         MultiBoardGUI.launchGame(parseBoardCount(args));
+      else
+         GameGUI.launchGame();
       
    }
    
-}
\ No newline at end of file
+   //Returns the number of boards given with --boards (the only option it takes)
+   private static int parseBoardCount(String[] args){
+      if (args.length != 2)
+         throw new IllegalArgumentException("Usage: --boards 4|8|16");
+      int boards = Integer.parseInt(args[1]);
+      if (boards != 4 && boards != 8 && boards != 16)
+         throw new IllegalArgumentException("Unknown number of boards: " + args[1]);
+      return boards;
+   }
+   
+}
@@ -0,0 +1,232 @@
+import java.io.*;
+import java.net.*;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Load test for GameServer: opens many connections at once (one simulated player
+//each, on virtual threads when available), has every player play games by
+//guessing random secret words, and reports guess latency percentiles.
+//
+//Each guess is a secret word that could still be the answer given the feedback so
+//far, so the games are valid whether or not the server enforces hard mode (or
+//strict hard mode, see JWordleLauncher).
+//
+//Every player connects and starts a game before any of them guesses, so the server
+//holds one session per player for the whole run.
+//
+//Usage (see JWordleLauncher):  java JWordleLauncher --load [options]
+//   --port P        server port (default GameServer.DEFAULT_PORT, on this machine)
+//   --clients N     simulated players connected at once (default 1000)
+//   --games N       games each player plays (default 5)
+//   --seed S        seed for the guesses (default 20220101)
+public class LoadGenerator {
+
+   private static final int DEFAULT_CLIENTS = 1000;
+   private static final int DEFAULT_GAMES = 5;
+   private static final long DEFAULT_SEED = 20220101L;
+
+   private final int port;
+   private final int clients;
+   private final int games;
+   private final long seed;
+   //Words the players guess (the secret words, which are all valid guesses), as
+   //Strings and packed
+   private final String[] words;
+   private final int[] packedWords;
+
+   //Round trip time of every guess, by client (each client only writes its own row)
+   private final long[][] guessNanos;
+   private final int[] guessCounts;
+   private final AtomicInteger failedClients = new AtomicInteger();
+   private final AtomicInteger gamesWon = new AtomicInteger();
+   private final AtomicInteger gamesPlayed = new AtomicInteger();
+
+   public LoadGenerator(WordDictionary dictionary, int port, int clients, int games, long seed){
+      this.port = port;
+      this.clients = clients;
+      this.games = games;
+      this.seed = seed;
+      packedWords = dictionary.secrets().toArray();
+      words = new String[packedWords.length];
+      for (int i = 0; i < words.length; i++)
+         words[i] = PackedWord.toString(packedWords[i]);
+      guessNanos = new long[clients][games * GameLogic.MAX_ROWS];
+      guessCounts = new int[clients];
+   }
+
+   //Runs the load test and prints the report
+   public void run() throws InterruptedException {
+      ExecutorService executor = GameServer.newThreadPerTaskExecutor();
+      CountDownLatch connected = new CountDownLatch(clients);
+      CountDownLatch go = new CountDownLatch(1);
+      CountDownLatch done = new CountDownLatch(clients);
+      long connectStart = System.nanoTime();
+      for (int c = 0; c < clients; c++){
+         final int client = c;
+         executor.execute(() -> {
+            try {
+               play(client, connected, go);
+            }
+            catch (IOException | RuntimeException e){
+               if (failedClients.incrementAndGet() == 1)
+                  System.err.println("Client " + client + " failed: " + e);
+            }
+            finally {
+               done.countDown();
+            }
+         });
+      }
+      connected.await();
+      double connectSeconds = (System.nanoTime() - connectStart) / 1e9;
+      long start = System.nanoTime();
+      go.countDown();
+      done.await();
+      double seconds = (System.nanoTime() - start) / 1e9;
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+      report(connectSeconds, seconds, GameServer.usesVirtualThreads(executor));
+   }
+
+   //One simulated player: connects, starts a game, waits for everyone else, then
+   //plays its games
+   private void play(int client, CountDownLatch connected, CountDownLatch go) throws IOException {
+      Random rand = new Random(Sampling.seedFor(seed, client));
+      boolean ready = false;
+      try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)){
+         socket.setTcpNoDelay(true);
+         BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "US-ASCII"), 256);
+         Writer out = new OutputStreamWriter(socket.getOutputStream(), "US-ASCII");
+         String id = expectOk(send(in, out, "NEW " + rand.nextInt(words.length)));
+         connected.countDown();
+         ready = true;
+         try {
+            go.await();
+         }
+         catch (InterruptedException e){
+            Thread.currentThread().interrupt();
+            return;
+         }
+         for (int game = 0; game < games; game++){
+            if (game > 0)
+               id = expectOk(send(in, out, "NEW " + rand.nextInt(words.length)));
+            String status = "PLAYING";
+            GuessConstraints constraints = new GuessConstraints();
+            while (status.equals("PLAYING")){
+               int guess = pickGuess(rand, constraints);
+               long begin = System.nanoTime();
+               String reply = send(in, out, "GUESS " + id + " " + words[guess]);
+               guessNanos[client][guessCounts[client]++] = System.nanoTime() - begin;
+               //OK <feedback> <status> <left>
+               String[] fields = expectOk(reply).split(" ");
+               constraints.update(packedWords[guess], patternCode(fields[0]));
+               status = fields[1];
+            }
+            gamesPlayed.incrementAndGet();
+            if (status.equals("WON"))
+               gamesWon.incrementAndGet();
+            expectOk(send(in, out, "END " + id));
+         }
+         send(in, out, "BYE");
+      }
+      finally {
+         //(a client that failed to connect mustn't hold the others up)
+         if (!ready)
+            connected.countDown();
+      }
+   }
+
+   //Returns the index of a random word that could still be the secret (one always
+   //can: the secret itself)
+   private int pickGuess(Random rand, GuessConstraints constraints){
+      //a few random tries are enough early in a game...
+      for (int tries = 0; tries < 16; tries++){
+         int index = rand.nextInt(words.length);
+         if (constraints.couldBeSecret(packedWords[index]))
+            return index;
+      }
+      //...then the first fitting word from a random place
+      int start = rand.nextInt(words.length);
+      for (int i = 0; i < words.length; i++){
+         int index = (start + i) % words.length;
+         if (constraints.couldBeSecret(packedWords[index]))
+            return index;
+      }
+      throw new IllegalStateException("No secret word fits the feedback");
+   }
+
+   //Returns the pattern code of the feedback in a reply (G green, Y yellow, - gray)
+   private static int patternCode(String feedback){
+      int code = 0;
+      for (int pos = PackedWord.LENGTH - 1; pos >= 0; pos--)
+         code = code * 3 + "-YG".indexOf(feedback.charAt(pos));
+      return code;
+   }
+
+   //Sends one command and returns the reply line
+   private static String send(BufferedReader in, Writer out, String command) throws IOException {
+      out.write(command);
+      out.write('\n');
+      out.flush();
+      if (command.equals("BYE"))
+         return null;
+      String reply = in.readLine();
+      if (reply == null)
+         throw new EOFException("Server closed the connection");
+      return reply;
+   }
+
+   //Returns what follows "OK " in a reply, or throws if it is an error
+   private static String expectOk(String reply){
+      if (!reply.startsWith("OK"))
+         throw new IllegalStateException("Server replied: " + reply);
+      return reply.length() > 3 ? reply.substring(3) : "";
+   }
+
+   private void report(double connectSeconds, double seconds, boolean virtualThreads){
+      int total = 0;
+      for (int count : guessCounts)
+         total += count;
+      long[] all = new long[total];
+      int next = 0;
+      for (int c = 0; c < clients; c++){
+         System.arraycopy(guessNanos[c], 0, all, next, guessCounts[c]);
+         next += guessCounts[c];
+      }
+      Arrays.sort(all);
+      System.out.printf("%d clients (%s), %d failed, connected in %.2f s%n", clients,
+                        virtualThreads ? "virtual threads" : "platform threads", failedClients.get(), connectSeconds);
+      System.out.printf("%d games (%d won), %d guesses in %.2f s: %.0f guesses/s%n",
+                        gamesPlayed.get(), gamesWon.get(), total, seconds, total / seconds);
+      if (total > 0)
+         System.out.printf("Guess latency: p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                           Sampling.percentile(all, 0.50) / 1e6, Sampling.percentile(all, 0.90) / 1e6,
+                           Sampling.percentile(all, 0.99) / 1e6, all[total - 1] / 1e6);
+   }
+
+   //Runs a load test from command line arguments (everything after --load)
+   public static void main(String[] args) throws Exception {
+      int port = GameServer.DEFAULT_PORT;
+      int clients = DEFAULT_CLIENTS;
+      int games = DEFAULT_GAMES;
+      long seed = DEFAULT_SEED;
+      for (int i = 0; i < args.length; i++){
+         if (args[i].equals("--port") && i + 1 < args.length)
+            port = Integer.parseInt(args[++i]);
+         else if (args[i].equals("--clients") && i + 1 < args.length)
+            clients = Integer.parseInt(args[++i]);
+         else if (args[i].equals("--games") && i + 1 < args.length)
+            games = Integer.parseInt(args[++i]);
+         else if (args[i].equals("--seed") && i + 1 < args.length)
+            seed = Long.parseLong(args[++i]);
+         else
+            throw new IllegalArgumentException("Unknown load test option: " + args[i]);
+      }
+      WordDictionary dictionary = new WordDictionary(DictionaryLoader.load(GameLogic.SECRET_WORDS_FILENAME),
+                                                     DictionaryLoader.load(GameLogic.VALID_GUESSES_FILENAME));
+      new LoadGenerator(dictionary, port, clients, games, seed).run();
+   }
+}
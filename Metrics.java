@@ -0,0 +1,253 @@
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+//Latency histograms and counters for the game's hot paths, readable over JMX (as
+//jwordle:type=Histogram,name=... and jwordle:type=Counter,name=... MXBeans, e.g. in
+//JConsole) and printed as a snapshot every DUMP_SECONDS and on exit.
+//
+//Recording never blocks and never allocates: a histogram is an array of counters
+//with log-linear buckets (like HdrHistogram: 2^SUB_BUCKET_BITS buckets for every
+//power of 2, so any value is within about 1.6% of its bucket), and recording a
+//value is one atomic increment of its bucket plus the count, total and maximum.
+//
+//Metrics are off unless the jwordle.metrics system property is "on". Callers check
+//the ENABLED constant before timing anything, so when disabled the JIT compiles the
+//timing out altogether (not even System.nanoTime is called).
+//
+//   java -Djwordle.metrics=on JWordleLauncher
+//   java -Djwordle.metrics=on -Djwordle.metrics.dump=10 JWordleLauncher --server
+public final class Metrics {
+
+   //Whether metrics are recorded (see the class comment)
+   public static final boolean ENABLED = "on".equals(System.getProperty("jwordle.metrics", "off"));
+
+   //Seconds between the snapshots printed to standard output (0 = only on exit)
+   private static final long DUMP_SECONDS = Long.getLong("jwordle.metrics.dump", 60);
+
+   //Domain the MXBeans are registered under
+   private static final String JMX_DOMAIN = "jwordle";
+
+   //Time taken by GameLogic.initializeGame to load the dictionary
+   public static final Histogram DICTIONARY_LOAD = new Histogram("dictionaryLoad");
+   //Time taken by GameSession.reactToKey to apply a key to the game
+   public static final Histogram KEY_TO_MODEL = new Histogram("keyToModel");
+   //Time taken to score an accepted guess (and narrow the candidates with it, once
+   //the session tracks them)
+   public static final Histogram SCORING = new Histogram("scoring");
+   //Time taken to check a guess is a valid word (on enter, or GameLogic.validWordCheck)
+   public static final Histogram WORD_CHECK = new Histogram("wordCheck");
+   //Time taken by GameGUI.paintComponent to paint a frame
+   public static final Histogram FRAME = new Histogram("frame");
+   //Time from GameGUI.launchGame to the first frame painted in the game window
+   public static final Histogram FIRST_FRAME = new Histogram("firstFrame");
+   private static final Histogram[] HISTOGRAMS = {DICTIONARY_LOAD, KEY_TO_MODEL, SCORING, WORD_CHECK, FRAME, FIRST_FRAME};
+
+   //Guesses scored, games won and lost, and guesses rejected (each makes the row
+   //wiggle in the game window)
+   public static final Counter GUESSES = new Counter("guesses");
+   public static final Counter WINS = new Counter("wins");
+   public static final Counter LOSSES = new Counter("losses");
+   public static final Counter INVALID_GUESSES = new Counter("invalidGuesses");
+   private static final Counter[] COUNTERS = {GUESSES, WINS, LOSSES, INVALID_GUESSES};
+
+   static {
+      if (ENABLED)
+         start();
+   }
+
+   private Metrics(){
+   }
+
+   //Registers the MXBeans and starts the thread printing snapshots
+   private static void start(){
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      try {
+         for (Histogram histogram : HISTOGRAMS)
+            server.registerMBean(histogram, new ObjectName(JMX_DOMAIN + ":type=Histogram,name=" + histogram.name));
+         for (Counter counter : COUNTERS)
+            server.registerMBean(counter, new ObjectName(JMX_DOMAIN + ":type=Counter,name=" + counter.name));
+      }
+      catch (JMException e) {
+         System.err.println("Error: could not register metrics over JMX: " + e.getMessage());
+      }
+      if (DUMP_SECONDS > 0){
+         Thread thread = new Thread(Metrics::dumpLoop, "jwordle-metrics");
+         thread.setDaemon(true);
+         thread.start();
+      }
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> dump(System.out), "jwordle-metrics-dump"));
+   }
+
+   //Prints a snapshot every DUMP_SECONDS
+   private static void dumpLoop(){
+      try {
+         while (true){
+            Thread.sleep(DUMP_SECONDS * 1000);
+            dump(System.out);
+         }
+      }
+      catch (InterruptedException e) {
+         //stop dumping
+      }
+   }
+
+   //Prints a snapshot of every histogram and counter to the argument stream
+   public static void dump(PrintStream out){
+      StringBuilder text = new StringBuilder();
+      text.append(String.format("Metrics at %tT%n", System.currentTimeMillis()));
+      text.append(String.format("%-16s%10s%12s%12s%12s%12s%12s%n", "Histogram", "count", "mean ms", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+      for (Histogram histogram : HISTOGRAMS)
+         text.append(String.format("%-16s%10d%12.4f%12.4f%12.4f%12.4f%12.4f%n", histogram.name, histogram.getCount(),
+                                   histogram.getMeanMillis(), histogram.get50thPercentileMillis(),
+                                   histogram.get90thPercentileMillis(), histogram.get99thPercentileMillis(),
+                                   histogram.getMaxMillis()));
+      for (Counter counter : COUNTERS)
+         text.append(String.format("%-16s%10d%n", counter.name, counter.getCount()));
+      out.print(text);
+      out.flush();
+   }
+
+   //What a Histogram shows over JMX
+   public interface HistogramMXBean {
+      long getCount();
+      double getMeanMillis();
+      double get50thPercentileMillis();
+      double get90thPercentileMillis();
+      double get99thPercentileMillis();
+      double getMaxMillis();
+      void reset();
+   }
+
+   //What a Counter shows over JMX
+   public interface CounterMXBean {
+      long getCount();
+      void reset();
+   }
+
+   //Lock free histogram of durations in nanoseconds (see the class comment)
+   public static final class Histogram implements HistogramMXBean {
+
+      //Buckets per power of 2 (as bits), and the largest power of 2 told apart
+      //(2^40 ns is about 18 minutes; longer durations share the last buckets)
+      private static final int SUB_BUCKET_BITS = 6;
+      private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+      private static final int MAX_BITS = 40;
+      private static final long MAX_VALUE = (1L << MAX_BITS) - 1;
+
+      private final String name;
+      private final AtomicLongArray buckets = new AtomicLongArray((MAX_BITS - SUB_BUCKET_BITS + 2) * SUB_BUCKETS);
+      private final AtomicLong count = new AtomicLong();
+      private final AtomicLong total = new AtomicLong();
+      private final AtomicLong max = new AtomicLong();
+
+      Histogram(String name){
+         this.name = name;
+      }
+
+      //Records the time since the argument System.nanoTime() reading
+      public void recordSince(long startNanos){
+         record(System.nanoTime() - startNanos);
+      }
+
+      //Records a duration in nanoseconds
+      public void record(long nanos){
+         long value = Math.min(Math.max(nanos, 0), MAX_VALUE);
+         buckets.getAndIncrement(bucketOf(value));
+         count.getAndIncrement();
+         total.getAndAdd(value);
+         long seen = max.get();
+         while (value > seen && !max.compareAndSet(seen, value))
+            seen = max.get();
+      }
+
+      //Values below 2 * SUB_BUCKETS get a bucket each; above that, each power of 2
+      //is split into SUB_BUCKETS buckets by its top SUB_BUCKET_BITS + 1 bits
+      private static int bucketOf(long value){
+         int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+         return (shift << SUB_BUCKET_BITS) + (int)(value >>> shift);
+      }
+
+      //Smallest value that falls in the argument bucket
+      private static long lowestValueOf(int bucket){
+         int shift = Math.max(0, (bucket >>> SUB_BUCKET_BITS) - 1);
+         return (long)(bucket - (shift << SUB_BUCKET_BITS)) << shift;
+      }
+
+      //Returns the value (nanoseconds, to the start of its bucket) that the argument
+      //fraction of the values recorded are at or below
+      public long percentile(double fraction){
+         long target = (long)Math.ceil(fraction * count.get());
+         long seen = 0;
+         for (int bucket = 0; bucket < buckets.length(); bucket++){
+            seen += buckets.get(bucket);
+            if (seen >= target && seen > 0)
+               return lowestValueOf(bucket);
+         }
+         return max.get();
+      }
+
+      public long getCount(){
+         return count.get();
+      }
+
+      public double getMeanMillis(){
+         long n = count.get();
+         return n == 0 ? 0 : total.get() / 1e6 / n;
+      }
+
+      public double get50thPercentileMillis(){
+         return percentile(0.50) / 1e6;
+      }
+
+      public double get90thPercentileMillis(){
+         return percentile(0.90) / 1e6;
+      }
+
+      public double get99thPercentileMillis(){
+         return percentile(0.99) / 1e6;
+      }
+
+      public double getMaxMillis(){
+         return max.get() / 1e6;
+      }
+
+      //Forgets every value recorded (values recorded meanwhile may be half kept)
+      public void reset(){
+         for (int bucket = 0; bucket < buckets.length(); bucket++)
+            buckets.set(bucket, 0);
+         count.set(0);
+         total.set(0);
+         max.set(0);
+      }
+   }
+
+   //Lock free event counter
+   public static final class Counter implements CounterMXBean {
+
+      private final String name;
+      private final LongAdder count = new LongAdder();
+
+      private Counter(String name){
+         this.name = name;
+      }
+
+      //Counts one event
+      public void increment(){
+         count.increment();
+      }
+
+      public long getCount(){
+         return count.sum();
+      }
+
+      public void reset(){
+         count.reset();
+      }
+   }
+}
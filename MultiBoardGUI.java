@@ -0,0 +1,375 @@
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.image.*;
+import javax.swing.*;
+
+
+//Game window for multi-board games (see MultiBoardSession): a grid of boards
+//sharing one typed guess, sized to fit the window whatever the number of boards.
+//
+//Each board is drawn into its own image, and only the rows of it that changed are
+//drawn again, so a key press redraws one row of each unsolved board and a guess
+//redraws two rows and the header of each. The window only asks Swing to repaint the
+//boards a change touched (see MultiBoardSession.Listener), and painting a board
+//that didn't change is a single image copy.
+//
+//Letters are typed on the keyboard only (there is no keyboard on screen, for room).
+public class MultiBoardGUI extends JComponent implements KeyListener, MultiBoardSession.Listener{
+
+   //*************     Constants    **************
+
+   //Title displayed at the top of the window
+   private static final String WINDOW_TITLE = "JWordle";
+   //Dimensions of game window
+   private static final int FRAME_WIDTH = 1200;
+   private static final int FRAME_HEIGHT = 900;
+
+   //Key to quit the game
+   private static final int KEY_QUIT_GAME = KeyEvent.VK_ESCAPE;
+
+   //Space around and between the boards
+   private static final int BOARD_PADDING = 12;
+   //Height of the line above each board (its number, or how it ended)
+   private static final int HEADER_HEIGHT = 20;
+   //Height of the status line at the bottom of the window
+   private static final int STATUS_HEIGHT = 40;
+   //Largest cell drawn (boards don't grow past the single board size)
+   private static final int MAX_CELL_SIZE = 50;
+
+   //Cell colors for each FeedbackScorer value (GRAY, YELLOW, GREEN), as GameGUI
+   private static final Color WRONG_COLOR = Color.DARK_GRAY;
+   private static final Color WRONG_PLACE_COLOR = new Color(235, 216, 52);
+   private static final Color CORRECT_COLOR = new Color(53, 209, 42);
+   private static final Color[] FEEDBACK_COLORS = {WRONG_COLOR, WRONG_PLACE_COLOR, CORRECT_COLOR};
+   //Empty cells, their outline, and the outline of the typed cells of a row once no
+   //valid guess starts with them
+   private static final Color EMPTY_COLOR = Color.BLACK;
+   private static final Color OUTLINE_COLOR = new Color(120, 124, 126);
+   private static final Color DEAD_PREFIX_COLOR = new Color(189, 32, 15);
+   private static final Color FONT_COLOR = Color.WHITE;
+   //Header colors of a board being played, solved and lost
+   private static final Color HEADER_COLOR = Color.LIGHT_GRAY;
+   private static final Color SOLVED_COLOR = new Color(53, 209, 42);
+   private static final Color LOST_COLOR = new Color(189, 32, 15);
+   private static final Font HEADER_FONT = new Font("Arial", Font.BOLD, 11);
+   private static final Font STATUS_FONT = new Font("Arial", Font.BOLD, 20);
+
+   //Status line text
+   private static final String STATUS_PLAYING = "Guess %d of %d   %d of %d boards solved";
+   private static final String STATUS_REJECTED = "Not a valid guess   (guess %d of %d)";
+   private static final String STATUS_WIN = "You WIN in %d guesses!";
+   private static final String STATUS_LOSE = "Game Over!  %d of %d boards solved";
+
+   //Bit marking the header of a board as needing to be drawn again (rows use the
+   //bits below it; a game has at most GameLogic.maxRows(GameLogic.MAX_BOARDS) rows)
+   private static final int HEADER_DIRTY = 1 << 31;
+
+
+//*************     Class Variables    **************
+
+   //Instantion of a MultiBoardGUI object, used to map the key listener
+   private static MultiBoardGUI canvas = new MultiBoardGUI();
+   //Window object containing game content
+   private static JFrame window;
+
+   //The game being played in this window
+   private static MultiBoardSession session;
+
+   //Size of a cell, space between cells, and the font of their letters
+   private static int cellSize, cellGap;
+   private static Font letterFont;
+   //Location of each board (including its header) in the window
+   private static Rectangle[] boardBounds;
+   //Image of each board, and the rows of it (plus HEADER_DIRTY) that have changed
+   //since it was last drawn into its image
+   private static BufferedImage[] boardImages;
+   private static int[] dirtyRows;
+   //Region of the status line
+   private static Rectangle statusBounds;
+   private static String statusText = "";
+   //True while the status line shows that a guess was rejected
+   private static boolean showingRejected = false;
+   //Region being repainted (reused by every paint)
+   private static final Rectangle clipBounds = new Rectangle();
+
+
+   //Initializes the game window
+   private static void initWindow(){
+      window = new JFrame(WINDOW_TITLE + " x" + session.getBoardCount());
+      window.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+      canvas.setPreferredSize(new Dimension(FRAME_WIDTH, FRAME_HEIGHT));
+      window.add(canvas);
+      window.pack();
+      canvas.setFocusable(true);
+      canvas.requestFocusInWindow();
+      //the canvas paints every pixel of its dirty regions
+      canvas.setOpaque(true);
+      window.setVisible(true);
+      window.setResizable(false);
+      canvas.addKeyListener(canvas);
+   }
+
+
+   //Sizes and places the boards: tries every number of columns that divides the
+   //boards into full rows and keeps the one giving the largest cells
+   private static void layoutBoards(){
+      int boards = session.getBoardCount();
+      int rows = session.getRowCount();
+      int bestSize = 0, bestColumns = 1;
+      for (int columns = 1; columns <= boards; columns++){
+         if (boards % columns != 0)
+            continue;
+         int gridRows = boards / columns;
+         //a cell and the gap after it take 11/10 of the cell size
+         int width = (FRAME_WIDTH - BOARD_PADDING * (columns + 1)) / columns;
+         int height = (FRAME_HEIGHT - STATUS_HEIGHT - BOARD_PADDING * (gridRows + 1)) / gridRows - HEADER_HEIGHT;
+         int size = Math.min(width * 10 / (11 * GameLogic.MAX_COLS), height * 10 / (11 * rows));
+         if (size > bestSize){
+            bestSize = size;
+            bestColumns = columns;
+         }
+      }
+      cellSize = Math.min(MAX_CELL_SIZE, bestSize);
+      cellGap = Math.max(1, cellSize / 10);
+      letterFont = new Font("Arial", Font.BOLD, Math.max(8, cellSize * 3 / 5));
+
+      int boardWidth = GameLogic.MAX_COLS * (cellSize + cellGap) - cellGap + 2;
+      int boardHeight = HEADER_HEIGHT + rows * (cellSize + cellGap) - cellGap + 2;
+      int gridRows = boards / bestColumns;
+      //center the grid of boards above the status line
+      int left = (FRAME_WIDTH - bestColumns * boardWidth - (bestColumns - 1) * BOARD_PADDING) / 2;
+      int top = (FRAME_HEIGHT - STATUS_HEIGHT - gridRows * boardHeight - (gridRows - 1) * BOARD_PADDING) / 2;
+      boardBounds = new Rectangle[boards];
+      boardImages = new BufferedImage[boards];
+      dirtyRows = new int[boards];
+      for (int b = 0; b < boards; b++){
+         boardBounds[b] = new Rectangle(left + (b % bestColumns) * (boardWidth + BOARD_PADDING),
+                                        top + (b / bestColumns) * (boardHeight + BOARD_PADDING), boardWidth, boardHeight);
+         boardImages[b] = new BufferedImage(boardWidth, boardHeight, BufferedImage.TYPE_INT_RGB);
+         dirtyRows[b] = HEADER_DIRTY | ((1 << rows) - 1);
+      }
+      statusBounds = new Rectangle(0, FRAME_HEIGHT - STATUS_HEIGHT, FRAME_WIDTH, STATUS_HEIGHT);
+   }
+
+
+   //Called everytime the game window is "repainted".
+   //Boards ask for only their own region to be repainted when they change, so this
+   //draws the changed rows of the boards overlapping the dirty region into their
+   //images and copies those images to the window.
+   public void paintComponent(Graphics g){
+      long start = Metrics.ENABLED ? System.nanoTime() : 0;
+      clipBounds.setBounds(0, 0, FRAME_WIDTH, FRAME_HEIGHT);
+      g.getClipBounds(clipBounds);
+
+      g.setColor(Color.BLACK);
+      g.fillRect(clipBounds.x, clipBounds.y, clipBounds.width, clipBounds.height);
+      for (int b = 0; b < boardBounds.length; b++){
+         Rectangle bounds = boardBounds[b];
+         if (!clipBounds.intersects(bounds))
+            continue;
+         if (dirtyRows[b] != 0)
+            renderBoard(b);
+         g.drawImage(boardImages[b], bounds.x, bounds.y, null);
+      }
+      if (clipBounds.intersects(statusBounds)){
+         g.setFont(STATUS_FONT);
+         g.setColor(session.getResult() == GameSession.LOST ? LOST_COLOR
+                    : session.getResult() == GameSession.WON ? SOLVED_COLOR : HEADER_COLOR);
+         int width = g.getFontMetrics().stringWidth(statusText);
+         g.drawString(statusText, (FRAME_WIDTH - width) / 2, statusBounds.y + STATUS_HEIGHT / 2 + 7);
+      }
+      if (Metrics.ENABLED)
+         Metrics.FRAME.recordSince(start);
+   }
+
+
+   //Draws the changed rows (and header) of the argument board into its image
+   private static void renderBoard(int board){
+      Graphics2D g2d = boardImages[board].createGraphics();
+      g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+      int dirty = dirtyRows[board];
+      dirtyRows[board] = 0;
+      if ((dirty & HEADER_DIRTY) != 0)
+         renderHeader(g2d, board);
+      boolean deadRow = session.isDeadPrefix();
+      FontMetrics fm = g2d.getFontMetrics(letterFont);
+      for (int rest = dirty & ~HEADER_DIRTY; rest != 0; rest &= rest - 1){
+         int row = Integer.numberOfTrailingZeros(rest);
+         int y = HEADER_HEIGHT + 1 + row * (cellSize + cellGap);
+         g2d.setColor(Color.BLACK);
+         g2d.fillRect(0, y - 1, boardImages[board].getWidth(), cellSize + 2);
+         boolean typing = row == session.getCurrentRow() && !session.isSolved(board);
+         for (int col = 0; col < GameLogic.MAX_COLS; col++){
+            int x = 1 + col * (cellSize + cellGap);
+            int feedback = session.getFeedback(board, row, col);
+            char letter = session.getLetter(board, row, col);
+            if (feedback != GameSession.UNSCORED){
+               g2d.setColor(FEEDBACK_COLORS[feedback]);
+               g2d.fillRect(x, y, cellSize, cellSize);
+            }
+            else {
+               g2d.setColor(EMPTY_COLOR);
+               g2d.fillRect(x, y, cellSize, cellSize);
+               g2d.setColor(OUTLINE_COLOR);
+               g2d.drawRect(x, y, cellSize - 1, cellSize - 1);
+               if (typing && deadRow && letter != GameLogic.NULL_CHAR){
+                  g2d.setColor(DEAD_PREFIX_COLOR);
+                  g2d.drawRect(x, y, cellSize - 1, cellSize - 1);
+                  g2d.drawRect(x + 1, y + 1, cellSize - 3, cellSize - 3);
+               }
+            }
+            if (letter != GameLogic.NULL_CHAR){
+               String text = String.valueOf(letter);
+               g2d.setFont(letterFont);
+               g2d.setColor(FONT_COLOR);
+               g2d.drawString(text, x + (cellSize - fm.stringWidth(text)) / 2, y + (cellSize + fm.getAscent() - fm.getDescent()) / 2);
+            }
+         }
+      }
+      g2d.dispose();
+   }
+
+
+   //Draws the line above the argument board: its number while being played, how
+   //many guesses it took once solved, or its secret word once lost (or always, with
+   //the DEBUG_SHOW_SECRET toggle)
+   private static void renderHeader(Graphics2D g2d, int board){
+      g2d.setColor(Color.BLACK);
+      g2d.fillRect(0, 0, boardImages[board].getWidth(), HEADER_HEIGHT);
+      String text = "#" + (board + 1);
+      Color color = HEADER_COLOR;
+      if (session.isSolved(board)){
+         text += " in " + (session.getSolvedRow(board) + 1);
+         color = SOLVED_COLOR;
+      }
+      else if (session.getResult() == GameSession.LOST){
+         text += " " + PackedWord.toString(session.getSecret(board));
+         color = LOST_COLOR;
+      }
+      else if (JWordleLauncher.DEBUG_SHOW_SECRET)
+         text += " [" + PackedWord.toString(session.getSecret(board)) + "]";
+      g2d.setFont(HEADER_FONT);
+      g2d.setColor(color);
+      g2d.drawString(text, 1, HEADER_HEIGHT - 6);
+   }
+
+
+   //Marks the argument rows of the boards in the argument mask as changed and asks
+   //for just those boards to be repainted
+   private static void invalidate(int boards, int rows){
+      for (int rest = boards; rest != 0; rest &= rest - 1){
+         int board = Integer.numberOfTrailingZeros(rest);
+         dirtyRows[board] |= rows;
+         canvas.repaint(boardBounds[board]);
+      }
+   }
+
+
+   //Sets the text of the status line and asks for it to be repainted
+   private static void setStatus(String text){
+      if (text.equals(statusText))
+         return;
+      statusText = text;
+      canvas.repaint(statusBounds);
+   }
+
+
+   //Sets the status line for the game as it is now
+   private static void updateStatus(){
+      int boards = session.getBoardCount();
+      int solved = boards - Integer.bitCount(session.getUnsolvedBoards());
+      if (session.getResult() == GameSession.WON)
+         setStatus(String.format(STATUS_WIN, session.getCurrentRow()));
+      else if (session.getResult() == GameSession.LOST)
+         setStatus(String.format(STATUS_LOSE, solved, boards));
+      else
+         setStatus(String.format(STATUS_PLAYING, session.getCurrentRow() + 1, session.getRowCount(), solved, boards));
+   }
+
+
+   //*************     MultiBoardSession.Listener    **************
+
+   public void letterChanged(MultiBoardSession source, int boards, int row, int col){
+      //(the whole row, since its outline changes with a dead prefix)
+      invalidate(boards, 1 << row);
+   }
+
+   public void rowScored(MultiBoardSession source, int boards, int row){
+      int solvedNow = boards & ~source.getUnsolvedBoards();
+      //the scored row, and the next row that now shows the cursor
+      invalidate(boards, (1 << row) | (row + 1 < source.getRowCount() ? 1 << (row + 1) : 0));
+      invalidate(solvedNow, HEADER_DIRTY);
+      updateStatus();
+   }
+
+   public void guessRejected(MultiBoardSession source, int boards, int row){
+      setStatus(String.format(STATUS_REJECTED, row + 1, source.getRowCount()));
+      showingRejected = true;
+   }
+
+   public void gameOver(MultiBoardSession source, boolean didPlayerWin){
+      //lost boards show their secret words
+      invalidate(source.getUnsolvedBoards(), HEADER_DIRTY);
+      updateStatus();
+   }
+
+
+   //Called automatically whenever a key on the keyboard is pressed
+   public void keyPressed(KeyEvent event){
+      if (event.getKeyCode() == KEY_QUIT_GAME)
+         System.exit(0);
+      char keyChar = GameGUI.charToUpperCase(event.getKeyChar());
+      if ((keyChar >= 'A' && keyChar <= 'Z') || keyChar == GameLogic.ENTER_KEY || keyChar == GameLogic.BACKSPACE_KEY){
+         //the status line stops showing a rejected guess once the row changes
+         if (showingRejected && keyChar != GameLogic.ENTER_KEY){
+            showingRejected = false;
+            updateStatus();
+         }
+         session.reactToKey(keyChar);
+      }
+   }
+
+   //These functions are required by KeyListener, but are not used
+   public void keyReleased(KeyEvent event) { }
+
+   public void keyTyped(KeyEvent event) { }
+
+
+   //Sets up the boards for the argument session without opening a window, and
+   //returns the canvas so it can be painted into an offscreen image
+   //(used by WindowCases; works with java.awt.headless=true)
+   static MultiBoardGUI initOffscreen(MultiBoardSession game){
+      session = game;
+      canvas = new MultiBoardGUI();
+      canvas.setSize(FRAME_WIDTH, FRAME_HEIGHT);
+      layoutBoards();
+      session.setListener(canvas);
+      showingRejected = false;
+      updateStatus();
+      return canvas;
+   }
+
+
+   //Returns the size of the game window (used by WindowCases)
+   static Dimension getFrameSize(){
+      return new Dimension(FRAME_WIDTH, FRAME_HEIGHT);
+   }
+
+
+   //Initializes and launches the game window for a game of the argument number of
+   //boards
+   public static void launchGame(int boards){
+      //the valid guesses keep loading in the background while the window opens
+      if (GameLogic.initializeGameInBackground() == null)
+         return;
+      session = GameLogic.newMultiBoardSession(boards);
+      layoutBoards();
+      initWindow();
+      session.setListener(canvas);
+      updateStatus();
+      window.repaint();
+      //(if they can't be loaded every guess is rejected until the error is closed)
+      if (!GameLogic.awaitValidGuesses())
+         GameGUI.showLoadError(window);
+   }
+}
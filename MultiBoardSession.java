@@ -0,0 +1,339 @@
+import java.util.Arrays;
+import java.util.concurrent.CompletionException;
+
+//A game of several boards at once (like Quordle or Sedecordle): each board has its
+//own secret word, and every guess typed is played on every board not solved yet.
+//The game is won once every board is solved, within GameLogic.maxRows(boards)
+//guesses.
+//
+//The guess being typed is shared by all the boards, and each scored row stores
+//only the guess once and one pattern code per board. Scoring a guess calls
+//FeedbackScorer.score once per unsolved board and writes the codes straight into
+//the row, so a guess allocates nothing however many boards there are. There is no
+//BatchScorer pass: with at most MAX_BOARDS secrets (one vector at most) the Vector
+//API kernel would barely be faster.
+//
+//Listeners are told which boards a change touched, as a bit mask (bit b = board
+//b), so a view only redraws those. Like GameSession, a session is not thread safe
+//by itself.
+public final class MultiBoardSession {
+
+   //Receives the changes a MultiBoardSession makes, with the boards they touched.
+   //All methods are called on the thread that called reactToKey.
+   public interface Listener {
+
+      //A letter was typed into, or erased from, the argument cell of the current row
+      void letterChanged(MultiBoardSession session, int boards, int row, int col);
+
+      //The argument row was scored on the argument boards (solved boards don't get it)
+      void rowScored(MultiBoardSession session, int boards, int row);
+
+      //The guess in the argument row was rejected (incomplete or not a valid word)
+      void guessRejected(MultiBoardSession session, int boards, int row);
+
+      //The game ended
+      void gameOver(MultiBoardSession session, boolean didPlayerWin);
+   }
+
+   //Number of letters on the keyboard
+   private static final int ALPHABET_SIZE = 26;
+
+   private final WordDictionary dictionary;
+   private final int boards;
+   private final int rows;
+   private final int[] secrets;
+
+   //Letters (1-26, 0 = empty) of the row being typed
+   private final byte[] typed = new byte[GameLogic.MAX_COLS];
+   //Packed guess of each scored row, and its pattern code on each board (board major)
+   private final int[] rowGuesses;
+   private final byte[] rowCodes;
+   //Row each board was solved in, or -1
+   private final int[] solvedRows;
+   //One bit per board not solved yet
+   private int unsolved;
+   //Best feedback seen so far for each letter on each board (board major)
+   private final byte[] keyFeedback;
+
+   //The valid guess graph once the dictionary has loaded it, and the node reached by
+   //each prefix of the row being typed (see GameSession)
+   private WordGraph graph;
+   private final int[] prefixNodes = new int[GameLogic.MAX_COLS + 1];
+
+   private int currentRow, currentCol;
+   private int result = GameSession.IN_PROGRESS;
+   private Listener listener;
+
+   //Starts a new game with one board per argument packed secret word.
+   //Throws IllegalArgumentException if there are more than GameLogic.MAX_BOARDS
+   //boards (or none) or a secret isn't a valid packed word.
+   public MultiBoardSession(WordDictionary dictionary, int[] secrets){
+      if (secrets.length < 1 || secrets.length > GameLogic.MAX_BOARDS)
+         throw new IllegalArgumentException("Number of boards must be 1 to " + GameLogic.MAX_BOARDS + ": " + secrets.length);
+      for (int secret : secrets){
+         if (secret < 0 || secret >= PackedWord.WORD_SPACE)
+            throw new IllegalArgumentException("Invalid packed secret word: " + secret);
+      }
+      this.dictionary = dictionary;
+      this.secrets = secrets.clone();
+      boards = secrets.length;
+      rows = GameLogic.maxRows(boards);
+      rowGuesses = new int[rows];
+      rowCodes = new byte[boards * rows];
+      solvedRows = new int[boards];
+      Arrays.fill(solvedRows, -1);
+      unsolved = (1 << boards) - 1;
+      keyFeedback = new byte[boards * ALPHABET_SIZE];
+      Arrays.fill(keyFeedback, (byte)GameSession.UNSCORED);
+   }
+
+   //Sets the object notified of every change to the boards (null for none)
+   public void setListener(Listener listener){
+      this.listener = listener;
+   }
+
+   //Reacts to a key typed by the player: a letter goes into the current row (of
+   //every unsolved board), BACKSPACE_KEY erases the last letter and ENTER_KEY
+   //submits the row. Keys are ignored once the game is over.
+   public void reactToKey(char key){
+      if (result != GameSession.IN_PROGRESS)
+         return;
+      long start = Metrics.ENABLED ? System.nanoTime() : 0;
+      if (key == GameLogic.BACKSPACE_KEY){
+         if (currentCol > 0){
+            typed[--currentCol] = 0;
+            if (listener != null)
+               listener.letterChanged(this, unsolved, currentRow, currentCol);
+         }
+      }
+      else if (key == GameLogic.ENTER_KEY)
+         submitRow();
+      else {
+         int letter = PackedWord.letterIndex(key);
+         if (letter >= 0 && currentCol < GameLogic.MAX_COLS){
+            typed[currentCol] = (byte)(letter + 1);
+            if (readyGraph() != null)
+               prefixNodes[currentCol + 1] = graph.step(prefixNodes[currentCol], letter);
+            currentCol++;
+            if (listener != null)
+               listener.letterChanged(this, unsolved, currentRow, currentCol - 1);
+         }
+      }
+      if (Metrics.ENABLED)
+         Metrics.KEY_TO_MODEL.recordSince(start);
+   }
+
+   //Types a whole word (as 5 letters) followed by enter.
+   //Returns true if the guess was accepted and scored.
+   public boolean submitGuess(int packedGuess){
+      if (result != GameSession.IN_PROGRESS || packedGuess < 0)
+         return false;
+      while (currentCol > 0)
+         reactToKey(GameLogic.BACKSPACE_KEY);
+      for (int i = 0; i < PackedWord.LENGTH; i++)
+         reactToKey((char)('A' + PackedWord.letterAt(packedGuess, i)));
+      int row = currentRow;
+      reactToKey(GameLogic.ENTER_KEY);
+      return currentRow != row || result != GameSession.IN_PROGRESS;
+   }
+
+   //Scores the current row on every unsolved board if it holds a complete, valid
+   //word; otherwise rejects it
+   private void submitRow(){
+      int guess = currentRowWord();
+      if (guess == PackedWord.INVALID || (!JWordleLauncher.DEBUG_ALL_GUESSES_VALID && !isValidWord())){
+         if (Metrics.ENABLED)
+            Metrics.INVALID_GUESSES.increment();
+         if (listener != null)
+            listener.guessRejected(this, unsolved, currentRow);
+         return;
+      }
+
+      long scoreStart = Metrics.ENABLED ? System.nanoTime() : 0;
+      int row = currentRow;
+      int scored = unsolved;
+      rowGuesses[row] = guess;
+      for (int left = scored; left != 0; left &= left - 1){
+         int board = Integer.numberOfTrailingZeros(left);
+         int code = FeedbackScorer.score(guess, secrets[board]);
+         rowCodes[board * rows + row] = (byte)code;
+         for (int col = 0; col < GameLogic.MAX_COLS; col++){
+            int cellFeedback = FeedbackScorer.colorAt(code, col);
+            int key = board * ALPHABET_SIZE + PackedWord.letterAt(guess, col);
+            //keys only ever get upgraded (gray -> yellow -> green)
+            if (cellFeedback > keyFeedback[key])
+               keyFeedback[key] = (byte)cellFeedback;
+         }
+         if (code == FeedbackScorer.ALL_GREEN){
+            solvedRows[board] = row;
+            unsolved &= ~(1 << board);
+         }
+      }
+      if (Metrics.ENABLED)
+         Metrics.SCORING.recordSince(scoreStart);
+
+      currentRow++;
+      currentCol = 0;
+      Arrays.fill(typed, (byte)0);
+      if (unsolved == 0)
+         result = GameSession.WON;
+      else if (currentRow >= rows)
+         result = GameSession.LOST;
+      if (Metrics.ENABLED){
+         Metrics.GUESSES.increment();
+         if (result == GameSession.WON)
+            Metrics.WINS.increment();
+         else if (result == GameSession.LOST)
+            Metrics.LOSSES.increment();
+      }
+      if (listener != null){
+         listener.rowScored(this, scored, row);
+         if (result != GameSession.IN_PROGRESS)
+            listener.gameOver(this, result == GameSession.WON);
+      }
+   }
+
+   //Returns the valid guess graph, or null if the dictionary is still loading it
+   //(see GameSession.readyGraph)
+   private WordGraph readyGraph(){
+      if (graph == null && dictionary.validGuessesReady()){
+         graph = dictionary.validGuessGraph();
+         prefixNodes[0] = graph.root();
+         for (int col = 0; col < currentCol; col++)
+            prefixNodes[col + 1] = graph.step(prefixNodes[col], typed[col] - 1);
+      }
+      return graph;
+   }
+
+   //Returns true if the full current row is a valid guess (waiting for the valid
+   //guesses if they are still loading; none is valid if they fail to load)
+   private boolean isValidWord(){
+      long start = Metrics.ENABLED ? System.nanoTime() : 0;
+      if (graph == null){
+         try {
+            dictionary.awaitValidGuesses();
+         }
+         catch (CompletionException e){
+            return false;
+         }
+      }
+      boolean valid = readyGraph().isWord(prefixNodes[currentCol]);
+      if (Metrics.ENABLED)
+         Metrics.WORD_CHECK.recordSince(start);
+      return valid;
+   }
+
+   //Returns true if no valid guess starts with the letters typed in the current row
+   //(always false when every guess counts as valid, or while the valid guesses are
+   //still loading)
+   public boolean isDeadPrefix(){
+      return !JWordleLauncher.DEBUG_ALL_GUESSES_VALID && readyGraph() != null && prefixNodes[currentCol] == WordGraph.DEAD;
+   }
+
+   //Packs the letters of the current row, or returns PackedWord.INVALID if it isn't full
+   private int currentRowWord(){
+      if (currentCol != GameLogic.MAX_COLS)
+         return PackedWord.INVALID;
+      int packed = 0;
+      for (int col = 0; col < GameLogic.MAX_COLS; col++)
+         packed = (packed << PackedWord.LETTER_BITS) | (typed[col] - 1);
+      return packed;
+   }
+
+   //Returns the number of boards
+   public int getBoardCount(){
+      return boards;
+   }
+
+   //Returns the number of guesses the game allows (rows of every board)
+   public int getRowCount(){
+      return rows;
+   }
+
+   //Returns the number of rows scored on the argument board (it stops getting rows
+   //once solved)
+   public int getScoredRows(int board){
+      return solvedRows[board] >= 0 ? solvedRows[board] + 1 : currentRow;
+   }
+
+   //Returns the upper case letter in the argument cell of the argument board, or
+   //GameLogic.NULL_CHAR if empty
+   public char getLetter(int board, int row, int col){
+      if (row < getScoredRows(board))
+         return (char)('A' + PackedWord.letterAt(rowGuesses[row], col));
+      if (row == currentRow && typed[col] != 0 && !isSolved(board))
+         return (char)('A' + typed[col] - 1);
+      return GameLogic.NULL_CHAR;
+   }
+
+   //Returns the feedback of the argument cell of the argument board
+   //(FeedbackScorer.GRAY, YELLOW, GREEN or GameSession.UNSCORED)
+   public int getFeedback(int board, int row, int col){
+      if (row >= getScoredRows(board))
+         return GameSession.UNSCORED;
+      return FeedbackScorer.colorAt(rowCodes[board * rows + row] & 0xFF, col);
+   }
+
+   //Returns the best feedback seen so far on the argument board for the argument
+   //letter, or GameSession.UNSCORED
+   public int getKeyFeedback(int board, char key){
+      int letter = PackedWord.letterIndex(key);
+      if (letter < 0)
+         throw new IllegalArgumentException("Invalid Key specified: '" + key + "'");
+      return keyFeedback[board * ALPHABET_SIZE + letter];
+   }
+
+   //Returns the packed guess submitted in the argument row
+   public int getRowGuess(int row){
+      return rowGuesses[row];
+   }
+
+   //Returns the pattern code of the argument row on the argument board
+   public int getRowCode(int board, int row){
+      return rowCodes[board * rows + row] & 0xFF;
+   }
+
+   //Returns true if the argument board has been solved
+   public boolean isSolved(int board){
+      return solvedRows[board] >= 0;
+   }
+
+   //Returns the row the argument board was solved in, or -1
+   public int getSolvedRow(int board){
+      return solvedRows[board];
+   }
+
+   //Returns one bit per board not solved yet (bit b = board b)
+   public int getUnsolvedBoards(){
+      return unsolved;
+   }
+
+   //Returns the row the user is typing in (equal to the number of guesses scored)
+   public int getCurrentRow(){
+      return currentRow;
+   }
+
+   //Returns the column the next letter will be typed into
+   public int getCurrentCol(){
+      return currentCol;
+   }
+
+   //Returns GameSession.IN_PROGRESS, WON or LOST
+   public int getResult(){
+      return result;
+   }
+
+   public boolean isGameOver(){
+      return result != GameSession.IN_PROGRESS;
+   }
+
+   //Returns the packed secret word of the argument board
+   public int getSecret(int board){
+      return secrets[board];
+   }
+
+   //Returns the dictionary this session validates guesses against
+   public WordDictionary getDictionary(){
+      return dictionary;
+   }
+}
@@ -0,0 +1,273 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Arrays;
+
+//Precomputed hints (see HintSolver) for the first two turns: the best first guess,
+//and the best second guess after each feedback to each of the top ranked openings.
+//Looked up by HintCache before its in memory cache.
+//
+//The book is stored in a memory mapped file of fixed size records sorted by key A,
+//so a lookup is a binary search over the mapped file with nothing read into the
+//heap. Like the feedback matrix cache, the file header holds the dictionary
+//checksum, and a book built from other word lists is rebuilt.
+//
+//Layout (all values big endian):
+//   int   magic number ("JWOB")
+//   int   format version
+//   long  dictionary checksum
+//   int   number of records
+//   records of: long key A, long key B, int guess index (in the valid guesses)
+public final class OpeningBook {
+
+   //Default name of the book file
+   public static final String BOOK_FILENAME = "opening-book.bin";
+
+   //Default number of openings whose replies are in the book
+   public static final int DEFAULT_OPENINGS = 16;
+
+   //Most scored rows a board in the book has (it holds hints for turns 1 and 2)
+   public static final int HISTORY_ROWS = 1;
+
+   //Returned by get() for a board that isn't in the book
+   public static final int MISSING = -2;
+
+   //Identifies a book file and its layout version
+   private static final int MAGIC = 0x4A574F42;
+   private static final int VERSION = 1;
+   //magic, version, dictionary checksum, records
+   private static final int HEADER_BYTES = 4 + 4 + 8 + 4;
+   private static final int RECORD_BYTES = 8 + 8 + 4;
+
+   //Records, sorted by key A, starting at position 0
+   private final ByteBuffer records;
+   private final int size;
+   private final long dictionaryChecksum;
+
+   private OpeningBook(ByteBuffer records, int size, long dictionaryChecksum){
+      this.records = records;
+      this.size = size;
+      this.dictionaryChecksum = dictionaryChecksum;
+   }
+
+   //Returns the guess index stored for the board with the argument keys (see
+   //HintCache), or MISSING
+   public int get(long keyA, long keyB){
+      int low = 0, high = size - 1;
+      while (low <= high){
+         int mid = (low + high) >>> 1;
+         long key = records.getLong(mid * RECORD_BYTES);
+         if (key < keyA)
+            low = mid + 1;
+         else if (key > keyA)
+            high = mid - 1;
+         else
+            return records.getLong(mid * RECORD_BYTES + 8) == keyB ? records.getInt(mid * RECORD_BYTES + 16) : MISSING;
+      }
+      return MISSING;
+   }
+
+   //Returns the number of boards in the book
+   public int size(){
+      return size;
+   }
+
+   //Returns true if this book was built from the argument dictionary
+   public boolean matches(WordDictionary dictionary){
+      return dictionaryChecksum == dictionary.checksum();
+   }
+
+   //Maps the book file if it matches the solver's dictionary, otherwise builds the
+   //book for the top openings and writes it to the file. If the file can't be
+   //written the book is kept in memory instead.
+   public static OpeningBook open(HintSolver solver, String filename, int openings){
+      OpeningBook cached = load(solver.getDictionary(), filename);
+      if (cached != null)
+         return cached;
+      OpeningBook built = build(solver, openings);
+      try {
+         return write(built, filename, solver.getDictionary());
+      }
+      catch (IOException e){
+         System.err.println("Warning: could not write " + filename + " (" + e.getMessage() + "), keeping it in memory");
+         return built;
+      }
+   }
+
+   //Maps an existing book file. Returns null if it is missing, corrupt or was built
+   //from different word lists.
+   public static OpeningBook load(WordDictionary dictionary, String filename){
+      Path path = Paths.get(filename);
+      if (!Files.isRegularFile(path))
+         return null;
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+         if (channel.size() < HEADER_BYTES)
+            return null;
+         MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+         if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getLong() != dictionary.checksum())
+            return null;
+         int size = buffer.getInt();
+         if (size < 0 || channel.size() != HEADER_BYTES + (long)size * RECORD_BYTES)
+            return null;
+         return new OpeningBook(buffer.slice(), size, dictionary.checksum());
+      }
+      catch (IOException e){
+         return null;
+      }
+   }
+
+   //Builds the book in memory: the best first guess, and the best second guess for
+   //every feedback to each of the argument number of top ranked first guesses
+   public static OpeningBook build(HintSolver solver, int openings){
+      WordDictionary dictionary = solver.getDictionary();
+      int secretCount = dictionary.secrets().size();
+      int[] all = new int[secretCount];
+      for (int i = 0; i < secretCount; i++)
+         all[i] = i;
+      HintSolver.Ranking ranking = solver.rank(all, secretCount, openings);
+
+      int capacity = 1 + ranking.size() * FeedbackScorer.PATTERN_COUNT;
+      long[] keysA = new long[capacity], keysB = new long[capacity];
+      int[] guesses = new int[capacity];
+      long[] history = new long[HISTORY_ROWS];
+      keysA[0] = HintCache.keyA(history, 0);
+      keysB[0] = HintCache.keyB(history, 0);
+      guesses[0] = solver.bestGuessIndex(all, secretCount);
+      int size = 1;
+
+      //the secrets giving each feedback to an opening, grouped by pattern code
+      int[] starts = new int[FeedbackScorer.PATTERN_COUNT + 1];
+      int[] grouped = new int[secretCount];
+      int[] codes = new int[secretCount];
+      for (int o = 0; o < ranking.size(); o++){
+         int opening = dictionary.validGuesses().indexOf(ranking.words[o]);
+         Arrays.fill(starts, 0);
+         for (int s = 0; s < secretCount; s++){
+            codes[s] = solver.feedback(opening, s);
+            starts[codes[s] + 1]++;
+         }
+         for (int code = 0; code < FeedbackScorer.PATTERN_COUNT; code++)
+            starts[code + 1] += starts[code];
+         int[] next = Arrays.copyOf(starts, FeedbackScorer.PATTERN_COUNT);
+         for (int s = 0; s < secretCount; s++)
+            grouped[next[codes[s]]++] = s;
+
+         for (int code = 0; code < FeedbackScorer.PATTERN_COUNT; code++){
+            int count = starts[code + 1] - starts[code];
+            if (count == 0 || code == FeedbackScorer.ALL_GREEN)
+               continue;
+            int[] candidates = Arrays.copyOfRange(grouped, starts[code], starts[code + 1]);
+            history[0] = (long)ranking.words[o] << 8 | code;
+            keysA[size] = HintCache.keyA(history, 1);
+            keysB[size] = HintCache.keyB(history, 1);
+            guesses[size] = solver.bestGuessIndex(candidates, count);
+            size++;
+         }
+      }
+
+      //records sorted by key A
+      Integer[] order = new Integer[size];
+      for (int i = 0; i < size; i++)
+         order[i] = i;
+      final long[] sortKeys = keysA;
+      Arrays.sort(order, (a, b) -> Long.compare(sortKeys[a], sortKeys[b]));
+      ByteBuffer records = ByteBuffer.allocate(size * RECORD_BYTES);
+      for (int i = 0; i < size; i++)
+         records.putLong(keysA[order[i]]).putLong(keysB[order[i]]).putInt(guesses[order[i]]);
+      records.clear();
+      return new OpeningBook(records, size, dictionary.checksum());
+   }
+
+   //Writes the argument book to a file and maps it
+   private static OpeningBook write(OpeningBook book, String filename, WordDictionary dictionary) throws IOException {
+      Path path = Paths.get(filename);
+      Path temp = Paths.get(filename + ".tmp");
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                   StandardOpenOption.TRUNCATE_EXISTING)){
+         ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+         header.putInt(MAGIC).putInt(VERSION).putLong(book.dictionaryChecksum).putInt(book.size);
+         header.flip();
+         while (header.hasRemaining())
+            channel.write(header);
+         ByteBuffer records = book.records.duplicate();
+         records.clear();
+         while (records.hasRemaining())
+            channel.write(records);
+         channel.force(true);
+      }
+      Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+      OpeningBook mapped = load(dictionary, filename);
+      if (mapped == null)
+         throw new IOException("book file unreadable after writing");
+      return mapped;
+   }
+
+   //Builds (or maps) the book, then times lookups of every board in it against
+   //ranking the guesses for the same boards
+   //   java OpeningBook [--openings N] [--matrix] [--rebuild]
+   public static void main(String[] args) throws IOException {
+      int openings = DEFAULT_OPENINGS;
+      boolean useMatrix = false, rebuild = false;
+      for (int i = 0; i < args.length; i++){
+         if (args[i].equals("--openings") && i + 1 < args.length)
+            openings = Integer.parseInt(args[++i]);
+         else if (args[i].equals("--matrix"))
+            useMatrix = true;
+         else if (args[i].equals("--rebuild"))
+            rebuild = true;
+         else
+            throw new IllegalArgumentException("Unknown opening book option: " + args[i]);
+      }
+      WordDictionary dictionary = new WordDictionary(DictionaryLoader.load(GameLogic.SECRET_WORDS_FILENAME),
+                                                     DictionaryLoader.load(GameLogic.VALID_GUESSES_FILENAME));
+      FeedbackMatrix matrix = useMatrix ? FeedbackMatrix.open(dictionary, FeedbackMatrix.CACHE_FILENAME) : null;
+      HintSolver solver = new HintSolver(dictionary, matrix, java.util.concurrent.ForkJoinPool.commonPool());
+      if (rebuild)
+         Files.deleteIfExists(Paths.get(BOOK_FILENAME));
+
+      long start = System.nanoTime();
+      OpeningBook book = open(solver, BOOK_FILENAME, openings);
+      System.out.printf("open(%s): %d boards in %.1f ms%n", BOOK_FILENAME, book.size(), (System.nanoTime() - start) / 1e6);
+
+      //every board one row into a game with the book's first guess, looked up in a
+      //cache without the book (first ranking the guesses, then hitting), then in
+      //the book
+      int secretCount = dictionary.secrets().size();
+      long[] history = new long[HISTORY_ROWS];
+      int first = book.get(HintCache.keyA(history, 0), HintCache.keyB(history, 0));
+      int firstWord = dictionary.validGuesses().get(first);
+      HintCache bookCache = new HintCache(solver, book, HintCache.DEFAULT_CAPACITY);
+      HintCache memoryCache = new HintCache(solver, null, HintCache.DEFAULT_CAPACITY);
+      HintCache[] caches = {memoryCache, memoryCache, bookCache};
+      long[][] times = new long[caches.length][FeedbackScorer.PATTERN_COUNT];
+      int boards = 0;
+      int[] candidates = new int[secretCount];
+      for (int code = 0; code < FeedbackScorer.PATTERN_COUNT; code++){
+         int count = 0;
+         for (int s = 0; s < secretCount; s++){
+            if (solver.feedback(first, s) == code)
+               candidates[count++] = s;
+         }
+         if (count == 0 || code == FeedbackScorer.ALL_GREEN)
+            continue;
+         history[0] = (long)firstWord << 8 | code;
+         for (int k = 0; k < caches.length; k++){
+            long begin = System.nanoTime();
+            caches[k].bestGuessIndex(history, 1, candidates, count);
+            times[k][boards] = System.nanoTime() - begin;
+         }
+         boards++;
+      }
+      String[] names = {"miss (ranking)", "memory hit", "book hit"};
+      System.out.println(boards + " boards after " + PackedWord.toString(firstWord) + ":");
+      for (int k = 0; k < names.length; k++){
+         Arrays.sort(times[k], 0, boards);
+         System.out.printf("%-16s p50 %10.2f us   max %10.2f us%n", names[k],
+                           times[k][boards / 2] / 1e3, times[k][boards - 1] / 1e3);
+      }
+      System.out.println(memoryCache.report());
+      System.out.println(bookCache.report());
+   }
+}
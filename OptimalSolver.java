@@ -0,0 +1,727 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.InputMismatchException;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+//Finds a strategy that provably needs the fewest guesses on average over the secret
+//words (every secret solved within GameLogic.MAX_ROWS guesses), and writes it out as
+//a decision tree.
+//
+//The search is a depth first branch-and-bound over the guess tree. The cost of a
+//set of candidate secrets is the total number of guesses needed to solve each of
+//them, and a guess costs one guess per candidate plus the cost of every feedback
+//bucket it splits them into. Two lower bounds prune most of the tree:
+//   - a set of n candidates needs at least 2n - 1 guesses (only one of them can be
+//     solved by the first guess), plus one more per candidate beyond the 242 that
+//     can be solved by the second guess (lowerBound)
+//   - guesses are tried in order of the sum of those bounds over their buckets, and
+//     the search stops as soon as that sum can't beat the best guess found
+//Solved sets (and sets proven to cost more than some limit) are memoised in a
+//bounded, set associative cache keyed by a hash of the candidate set, and the
+//openings are spread over a fork-join pool, sharing the best total found so far.
+//
+//Tree file format: one guess per line, indented two spaces per level; every line
+//but the first starts with the feedback that leads to it (G green, Y yellow, -
+//gray). A line whose guess is the only candidate left has no children.
+//
+//Usage (see JWordleLauncher):  java JWordleLauncher --optimal [options]
+//   --first WORD        only try this opening
+//   --secrets N         only solve the first N secret words (for small experiments)
+//   --secret-guesses    only guess secret words (much faster, but then the result is
+//                       only the best of those guesses, not of every valid guess)
+//   --cache N           memoised sets kept (default 1M, about 32 MB)
+//   --progress S        seconds between progress lines (default 10, 0 for none)
+//   --out FILE          where to write the tree (default optimal-tree.txt)
+//   --verify FILE       play every secret through a tree file and print its average
+//   --exhaustive        also find the best total by trying every guess at every step,
+//                       with no bounds (only for a small --secrets N), and exit 1 if
+//                       the search above found a different one
+public final class OptimalSolver {
+
+   //Default file the decision tree is written to
+   public static final String DEFAULT_TREE_FILENAME = "optimal-tree.txt";
+
+   //Cost of a set that can't be solved in the guesses left
+   private static final int INFINITE = Integer.MAX_VALUE / 4;
+
+   private static final int DEFAULT_CACHE_ENTRIES = 1 << 20;
+   private static final int DEFAULT_PROGRESS_SECONDS = 10;
+
+   //Pattern codes each guess can give, and the buckets that can be solved by the
+   //guess after it (every one but all green)
+   private static final int PATTERN_COUNT = FeedbackScorer.PATTERN_COUNT;
+   private static final int SOLVABLE_NEXT = PATTERN_COUNT - 1;
+
+   //Feedback characters in tree files, by FeedbackScorer color (GRAY, YELLOW, GREEN)
+   private static final char[] FEEDBACK_CHARS = {'-', 'Y', 'G'};
+
+   private final WordDictionary dictionary;
+   private final FeedbackMatrix matrix;
+   //Valid guess indices tried at every step
+   private final int[] guessPool;
+   //For each secret index, its index in the valid guesses
+   private final int[] secretGuessIndex;
+   private final MemoCache cache;
+   //Random bits per secret index, XORed together to hash a candidate set
+   private final long[] setHashA, setHashB;
+
+   //Progress: sets searched, openings finished and the best (total << 32 | opening)
+   private final LongAdder nodes = new LongAdder();
+   private final AtomicInteger openingsDone = new AtomicInteger();
+   private final AtomicLong best = new AtomicLong(Long.MAX_VALUE);
+   private int openingCount;
+
+   public OptimalSolver(WordDictionary dictionary, FeedbackMatrix matrix, boolean secretGuessesOnly, int cacheEntries){
+      if (!matrix.matches(dictionary))
+         throw new IllegalArgumentException("Feedback matrix was built from a different dictionary");
+      this.dictionary = dictionary;
+      this.matrix = matrix;
+      int secrets = dictionary.secrets().size();
+      secretGuessIndex = new int[secrets];
+      for (int s = 0; s < secrets; s++){
+         secretGuessIndex[s] = dictionary.validGuesses().indexOf(dictionary.secrets().get(s));
+         if (secretGuessIndex[s] < 0)
+            throw new IllegalArgumentException("Secret word " + PackedWord.toString(dictionary.secrets().get(s))
+                                               + " is not a valid guess");
+      }
+      if (secretGuessesOnly)
+         guessPool = secretGuessIndex.clone();
+      else {
+         guessPool = new int[dictionary.validGuesses().size()];
+         for (int g = 0; g < guessPool.length; g++)
+            guessPool[g] = g;
+      }
+      cache = new MemoCache(cacheEntries);
+      Random rand = new Random(secrets);
+      setHashA = new long[secrets];
+      setHashB = new long[secrets];
+      for (int s = 0; s < secrets; s++){
+         setHashA[s] = rand.nextLong();
+         setHashB[s] = rand.nextLong();
+      }
+   }
+
+   //Fewest total guesses any set of n candidates can need (see the class comment)
+   static int lowerBound(int n){
+      if (n <= 1)
+         return n;
+      return 2 * n - 1 + Math.max(0, n - 1 - SOLVABLE_NEXT);
+   }
+
+   //Returns the fewest total guesses needed to solve every candidate in
+   //set[from, from + n) with at most guessesLeft guesses each, if that is at most
+   //limit; otherwise returns a lower bound on it that is above limit
+   private int solve(int[] set, int from, int n, int guessesLeft, int limit){
+      if (n == 1)
+         return 1;
+      if (guessesLeft <= 1)
+         return INFINITE;
+      if (n == 2)
+         return 3;
+      int lower = lowerBound(n);
+      if (lower > limit)
+         return lower;
+
+      long keyA = guessesLeft, keyB = guessesLeft;
+      for (int i = from; i < from + n; i++){
+         keyA ^= setHashA[set[i]];
+         keyB ^= setHashB[set[i]];
+      }
+      long cached = cache.lookup(keyA, keyB);
+      if (cached >= 0){
+         if (MemoCache.isExact(cached))
+            return MemoCache.cost(cached);
+         lower = Math.max(lower, MemoCache.cost(cached));
+         if (lower > limit)
+            return lower;
+      }
+
+      nodes.increment();
+      long[] order = rankGuesses(set, from, n, guessesLeft);
+      int bestCost = INFINITE, bestGuess = -1, failed = INFINITE;
+      for (long entry : order){
+         int bound = (int)(entry >>> 32);
+         if (bound >= bestCost)
+            break;
+         if (bound > limit){
+            failed = Math.min(failed, bound);
+            break;
+         }
+         int guess = (int)entry;
+         int cost = evaluate(guess, set, from, n, guessesLeft, Math.min(limit, bestCost - 1));
+         if (cost < bestCost && cost <= limit){
+            bestCost = cost;
+            bestGuess = guess;
+         }
+         else if (cost > limit)
+            failed = Math.min(failed, cost);
+      }
+      if (bestGuess >= 0){
+         cache.store(keyA, keyB, n, MemoCache.exact(bestCost, bestGuess));
+         return bestCost;
+      }
+      lower = Math.max(lower, Math.min(failed, INFINITE));
+      if (lower <= limit)
+         lower = limit + 1;
+      cache.store(keyA, keyB, n, MemoCache.lowerBound(lower));
+      return lower;
+   }
+
+   //Returns every guess worth trying on set[from, from + n), as (bound << 32 | guess)
+   //sorted by bound: the total guesses the set needs at least after that guess.
+   //Guesses that don't split the set, or leave a bucket that can't be solved in time,
+   //are left out.
+   private long[] rankGuesses(int[] set, int from, int n, int guessesLeft){
+      long[] order = new long[guessPool.length];
+      int count = 0;
+      int[] buckets = new int[PATTERN_COUNT];
+      int[] touched = new int[PATTERN_COUNT];
+      for (int guess : guessPool){
+         int numTouched = 0;
+         for (int i = from; i < from + n; i++){
+            int code = matrix.get(guess, set[i]);
+            if (buckets[code]++ == 0)
+               touched[numTouched++] = code;
+         }
+         int bound = n;
+         boolean useful = numTouched > 1 || touched[0] == FeedbackScorer.ALL_GREEN;
+         for (int t = 0; t < numTouched; t++){
+            int code = touched[t];
+            int size = buckets[code];
+            buckets[code] = 0;
+            if (code == FeedbackScorer.ALL_GREEN)
+               continue;
+            bound += lowerBound(size);
+            if (size > 1 && guessesLeft <= 2)
+               useful = false;
+         }
+         if (useful)
+            order[count++] = (long)bound << 32 | guess;
+      }
+      order = Arrays.copyOf(order, count);
+      Arrays.sort(order);
+      return order;
+   }
+
+   //Returns the total guesses needed to solve set[from, from + n) starting with the
+   //argument guess, or a number above limit once it is clear that it is more
+   private int evaluate(int guess, int[] set, int from, int n, int guessesLeft, int limit){
+      //sort the set into feedback buckets (each bucket stays in ascending order)
+      int[] codes = new int[n];
+      int[] starts = new int[PATTERN_COUNT + 1];
+      for (int i = 0; i < n; i++){
+         codes[i] = matrix.get(guess, set[from + i]);
+         starts[codes[i] + 1]++;
+      }
+      for (int code = 0; code < PATTERN_COUNT; code++)
+         starts[code + 1] += starts[code];
+      int[] sorted = new int[n];
+      int[] next = Arrays.copyOf(starts, PATTERN_COUNT);
+      for (int i = 0; i < n; i++)
+         sorted[next[codes[i]]++] = set[from + i];
+
+      //(with two guesses left, every bucket has to be down to one candidate)
+      if (guessesLeft <= 2){
+         for (int code = 0; code < FeedbackScorer.ALL_GREEN; code++){
+            if (starts[code + 1] - starts[code] > 1)
+               return INFINITE;
+         }
+      }
+      int total = n;
+      for (int code = 0; code < FeedbackScorer.ALL_GREEN; code++)
+         total += lowerBound(starts[code + 1] - starts[code]);
+      if (total > limit)
+         return total;
+      //replace each bucket's bound with its cost, biggest (least certain) buckets first
+      int[] bySize = new int[FeedbackScorer.ALL_GREEN];
+      int numBuckets = 0;
+      for (int code = 0; code < FeedbackScorer.ALL_GREEN; code++){
+         if (starts[code + 1] - starts[code] > 2)
+            bySize[numBuckets++] = (starts[code + 1] - starts[code]) << 8 | code;
+      }
+      Arrays.sort(bySize, 0, numBuckets);
+      for (int b = numBuckets - 1; b >= 0; b--){
+         int code = bySize[b] & 0xFF;
+         int size = bySize[b] >>> 8;
+         int bound = lowerBound(size);
+         int cost = solve(sorted, starts[code], size, guessesLeft - 1, limit - (total - bound));
+         total += cost - bound;
+         if (total > limit)
+            return total;
+      }
+      return total;
+   }
+
+   //Searches every opening (or only the argument one, if not -1) on the argument
+   //pool for the first n secret words, printing progress every progressSeconds,
+   //and returns the decision tree found (null if nothing solves them in time)
+   public Node solve(int n, int opening, ForkJoinPool pool, int progressSeconds){
+      int[] set = new int[n];
+      for (int i = 0; i < n; i++)
+         set[i] = i;
+      long[] order;
+      if (opening >= 0)
+         order = new long[] {opening};
+      else
+         order = rankGuesses(set, 0, n, GameLogic.MAX_ROWS);
+      openingCount = order.length;
+      long start = System.nanoTime();
+      Thread reporter = null;
+      if (progressSeconds > 0){
+         reporter = new Thread(() -> {
+            try {
+               while (true){
+                  Thread.sleep(progressSeconds * 1000L);
+                  printProgress(n, (System.nanoTime() - start) / 1e9);
+               }
+            }
+            catch (InterruptedException e){
+               //(search finished)
+            }
+         }, "optimal-solver-progress");
+         reporter.setDaemon(true);
+         reporter.start();
+      }
+      pool.invoke(new OpeningTask(this, order, set, 0, order.length));
+      if (reporter != null)
+         reporter.interrupt();
+      printProgress(n, (System.nanoTime() - start) / 1e9);
+
+      long found = best.get();
+      if (found == Long.MAX_VALUE)
+         return null;
+      return buildTree((int)found, set, 0, n, GameLogic.MAX_ROWS);
+   }
+
+   //Tries the openings order[from, to), splitting until a task has a single one
+   private static class OpeningTask extends RecursiveAction {
+
+      private final OptimalSolver solver;
+      private final long[] order;
+      private final int[] set;
+      private final int from, to;
+
+      private OpeningTask(OptimalSolver solver, long[] order, int[] set, int from, int to){
+         this.solver = solver;
+         this.order = order;
+         this.set = set;
+         this.from = from;
+         this.to = to;
+      }
+
+      protected void compute(){
+         if (to - from > 1){
+            int mid = (from + to) >>> 1;
+            invokeAll(new OpeningTask(solver, order, set, from, mid), new OpeningTask(solver, order, set, mid, to));
+            return;
+         }
+         int guess = (int)order[from];
+         int bestTotal = (int)(solver.best.get() >>> 32);
+         if ((int)(order[from] >>> 32) < bestTotal){
+            int limit = Math.min(INFINITE - 1, bestTotal - 1);
+            int total = solver.evaluate(guess, set, 0, set.length, GameLogic.MAX_ROWS, limit);
+            //(only a total within the limit is exact; ties keep the opening found first)
+            long found = (long)total << 32 | guess;
+            long current;
+            while (total <= limit && (int)(found >>> 32) < (int)((current = solver.best.get()) >>> 32)){
+               if (solver.best.compareAndSet(current, found))
+                  break;
+            }
+         }
+         solver.openingsDone.incrementAndGet();
+      }
+   }
+
+   private void printProgress(int n, double seconds){
+      long found = best.get();
+      String bestText = found == Long.MAX_VALUE ? "none yet"
+                        : String.format("%s %d (%.4f)", PackedWord.toString(dictionary.validGuesses().get((int)found)),
+                                        found >>> 32, (found >>> 32) / (double)n);
+      System.out.printf("[%6.1f s] openings %d/%d, best %s, %d sets searched, cache %d entries, %.1f%% hits, %d evicted%n",
+                        seconds, openingsDone.get(), openingCount, bestText, nodes.sum(), cache.size(),
+                        100.0 * cache.hits.sum() / Math.max(1, cache.hits.sum() + cache.misses.sum()),
+                        cache.evictions.sum());
+   }
+
+   //One node of a decision tree: the guess to make, and the node to go to for each
+   //pattern code it can get (null for all green, or a pattern that can't happen)
+   public static final class Node {
+
+      public final int guess;
+      public final Node[] children = new Node[PATTERN_COUNT];
+
+      public Node(int guess){
+         this.guess = guess;
+      }
+   }
+
+   //Builds the tree for set[from, from + n) starting with the argument guess
+   private Node buildTree(int guess, int[] set, int from, int n, int guessesLeft){
+      Node node = new Node(guess);
+      int[][] buckets = new int[PATTERN_COUNT][];
+      int[] sizes = new int[PATTERN_COUNT];
+      for (int i = from; i < from + n; i++){
+         int code = matrix.get(guess, set[i]);
+         if (buckets[code] == null)
+            buckets[code] = new int[n];
+         buckets[code][sizes[code]++] = set[i];
+      }
+      for (int code = 0; code < FeedbackScorer.ALL_GREEN; code++){
+         if (sizes[code] > 0)
+            node.children[code] = buildTree(bestGuess(buckets[code], sizes[code], guessesLeft - 1),
+                                             buckets[code], 0, sizes[code], guessesLeft - 1);
+      }
+      return node;
+   }
+
+   //Returns a guess that solves set[0, n) in the fewest total guesses
+   private int bestGuess(int[] set, int n, int guessesLeft){
+      if (n <= 2)
+         return secretGuessIndex[set[0]];
+      int cost = solve(set, 0, n, guessesLeft, INFINITE - 1);
+      long keyA = guessesLeft, keyB = guessesLeft;
+      for (int i = 0; i < n; i++){
+         keyA ^= setHashA[set[i]];
+         keyB ^= setHashB[set[i]];
+      }
+      long cached = cache.lookup(keyA, keyB);
+      if (cached >= 0 && MemoCache.isExact(cached))
+         return MemoCache.guess(cached);
+      //(evicted since: find a guess that reaches the cost again)
+      for (long entry : rankGuesses(set, 0, n, guessesLeft)){
+         if (evaluate((int)entry, set, 0, n, guessesLeft, cost) == cost)
+            return (int)entry;
+      }
+      throw new IllegalStateException("No guess reaches the cost just found");
+   }
+
+   //Writes a tree in the text format described in the class comment
+   public void write(Node root, int n, String filename) throws IOException {
+      int total = 0;
+      for (int s = 0; s < n; s++)
+         total += guessesToSolve(root, s);
+      try (PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(filename)))){
+         out.printf("# JWordle decision tree: first %d secret words, %d guesses in total, %.4f on average%n",
+                    n, total, total / (double)n);
+         out.printf("# dictionary checksum %016x%n", dictionary.checksum());
+         write(out, root, -1, 0);
+      }
+   }
+
+   private void write(PrintWriter out, Node node, int code, int depth){
+      StringBuilder line = new StringBuilder();
+      for (int i = 0; i < depth; i++)
+         line.append("  ");
+      if (code >= 0){
+         for (int pos = 0; pos < PackedWord.LENGTH; pos++)
+            line.append(FEEDBACK_CHARS[FeedbackScorer.colorAt(code, pos)]);
+         line.append(' ');
+      }
+      line.append(PackedWord.toString(dictionary.validGuesses().get(node.guess)));
+      out.println(line);
+      for (int child = 0; child < PATTERN_COUNT; child++){
+         if (node.children[child] != null)
+            write(out, node.children[child], child, depth + 1);
+      }
+   }
+
+   //Reads a tree file written by write(). Throws InputMismatchException if it isn't one.
+   public static Node read(WordDictionary dictionary, String filename) throws IOException {
+      List<String> lines = Files.readAllLines(Paths.get(filename));
+      Node[] path = new Node[GameLogic.MAX_ROWS + 1];
+      Node root = null;
+      for (int l = 0; l < lines.size(); l++){
+         String line = lines.get(l);
+         if (line.startsWith("#") || line.isBlank())
+            continue;
+         int indent = 0;
+         while (indent < line.length() && line.charAt(indent) == ' ')
+            indent++;
+         int depth = indent / 2;
+         String[] fields = line.trim().split(" ");
+         int guess = fields.length > 0 ? dictionary.validGuesses().indexOf(PackedWord.pack(fields[fields.length - 1])) : -1;
+         if (guess < 0 || depth > GameLogic.MAX_ROWS - 1 || (depth == 0) != (fields.length == 1)
+             || (depth > 0 && path[depth - 1] == null))
+            throw new InputMismatchException(filename + " line " + (l + 1) + ": not a decision tree line: " + line);
+         Node node = new Node(guess);
+         if (depth == 0)
+            root = node;
+         else
+            path[depth - 1].children[parsePattern(fields[0], filename, l + 1)] = node;
+         path[depth] = node;
+         for (int d = depth + 1; d < path.length; d++)
+            path[d] = null;
+      }
+      if (root == null)
+         throw new InputMismatchException(filename + " has no decision tree");
+      return root;
+   }
+
+   private static int parsePattern(String pattern, String filename, int lineNumber){
+      if (pattern.length() != PackedWord.LENGTH)
+         throw new InputMismatchException(filename + " line " + lineNumber + ": bad feedback " + pattern);
+      int code = 0;
+      for (int pos = PackedWord.LENGTH - 1; pos >= 0; pos--){
+         int color = new String(FEEDBACK_CHARS).indexOf(pattern.charAt(pos));
+         if (color < 0)
+            throw new InputMismatchException(filename + " line " + lineNumber + ": bad feedback " + pattern);
+         code = code * 3 + color;
+      }
+      return code;
+   }
+
+   //Returns the guesses the tree takes to solve the secret at the argument index,
+   //or INFINITE if it doesn't solve it within GameLogic.MAX_ROWS guesses
+   private int guessesToSolve(Node root, int secretIndex){
+      Node node = root;
+      for (int guesses = 1; guesses <= GameLogic.MAX_ROWS && node != null; guesses++){
+         int code = matrix.get(node.guess, secretIndex);
+         if (code == FeedbackScorer.ALL_GREEN)
+            return guesses;
+         node = node.children[code];
+      }
+      return INFINITE;
+   }
+
+   //Fixed size, set associative cache of searched candidate sets: for each (hash of
+   //the set and guesses left), either the exact cost and the best guess, or a lower
+   //bound on the cost. A full set of ways evicts the entry for the smallest candidate
+   //set (the cheapest to search again).
+   private static final class MemoCache {
+
+      private static final int WAYS = 4;
+      private static final int LOCK_STRIPES = 256;
+      //Entry value bits: cost, exact flag, best guess
+      private static final long EXACT = 1L << 31;
+
+      private final long[] keysA, keysB, values;
+      private final int[] sizes;
+      private final int setMask;
+      private final Object[] locks = new Object[LOCK_STRIPES];
+      private final LongAdder hits = new LongAdder(), misses = new LongAdder(), evictions = new LongAdder();
+      private final AtomicInteger used = new AtomicInteger();
+
+      private MemoCache(int entries){
+         int sets = Integer.highestOneBit(Math.max(WAYS, entries) / WAYS);
+         keysA = new long[sets * WAYS];
+         keysB = new long[sets * WAYS];
+         values = new long[sets * WAYS];
+         sizes = new int[sets * WAYS];
+         setMask = sets - 1;
+         for (int i = 0; i < locks.length; i++)
+            locks[i] = new Object();
+      }
+
+      static long exact(int cost, int guess){
+         return (long)guess << 32 | EXACT | cost;
+      }
+
+      static long lowerBound(int cost){
+         return cost;
+      }
+
+      static boolean isExact(long value){
+         return (value & EXACT) != 0;
+      }
+
+      static int cost(long value){
+         return (int)(value & (EXACT - 1));
+      }
+
+      static int guess(long value){
+         return (int)(value >>> 32);
+      }
+
+      //Returns the value stored for the key, or -1
+      long lookup(long keyA, long keyB){
+         keyA |= 1;
+         int set = (int)keyB & setMask;
+         synchronized (locks[set & (LOCK_STRIPES - 1)]){
+            for (int i = set * WAYS; i < set * WAYS + WAYS; i++){
+               if (keysA[i] == keyA && keysB[i] == keyB){
+                  hits.increment();
+                  return values[i];
+               }
+            }
+         }
+         misses.increment();
+         return -1;
+      }
+
+      void store(long keyA, long keyB, int size, long value){
+         keyA |= 1;
+         int set = (int)keyB & setMask;
+         synchronized (locks[set & (LOCK_STRIPES - 1)]){
+            int victim = -1;
+            for (int i = set * WAYS; i < set * WAYS + WAYS; i++){
+               if (keysA[i] == keyA && keysB[i] == keyB){
+                  //(an exact cost is never replaced by a bound, nor a bound by a weaker one)
+                  if (isExact(value) || (!isExact(values[i]) && value > values[i]))
+                     values[i] = value;
+                  return;
+               }
+               if (keysA[i] == 0){
+                  victim = i;
+                  used.incrementAndGet();
+                  break;
+               }
+               if (victim < 0 || sizes[i] < sizes[victim])
+                  victim = i;
+            }
+            if (keysA[victim] != 0)
+               evictions.increment();
+            keysA[victim] = keyA;
+            keysB[victim] = keyB;
+            values[victim] = value;
+            sizes[victim] = size;
+         }
+      }
+
+      int size(){
+         return used.get();
+      }
+   }
+
+   //Returns the fewest total guesses needed to solve every candidate in set with at
+   //most guessesLeft guesses each (INFINITE if it can't be done), by trying every
+   //guess in the pool (only the argument opening if not -1) and every guess after
+   //it: no bounds, no ordering and none of the shortcuts solve() takes, only guesses
+   //that split the set the same way tried once. Known costs go into the argument
+   //map (keyed by the set and guesses left), so this is only usable on a few dozen
+   //secrets, to check solve() against.
+   int exhaustive(int[] set, int guessesLeft, int opening, Map<String, Integer> known){
+      if (set.length == 1)
+         return 1;
+      if (guessesLeft <= 1)
+         return INFINITE;
+      String key = guessesLeft + ":" + Arrays.toString(set);
+      Integer cost = known.get(key);
+      if (cost != null)
+         return cost;
+      int best = INFINITE;
+      HashSet<String> splits = new HashSet<String>();
+      char[] codes = new char[set.length];
+      for (int guess : opening >= 0 ? new int[] {opening} : guessPool){
+         for (int i = 0; i < set.length; i++)
+            codes[i] = (char)matrix.get(guess, set[i]);
+         if (!splits.add(new String(codes)))
+            continue;
+         int[][] buckets = new int[PATTERN_COUNT][];
+         int[] sizes = new int[PATTERN_COUNT];
+         for (int i = 0; i < set.length; i++){
+            if (buckets[codes[i]] == null)
+               buckets[codes[i]] = new int[set.length];
+            buckets[codes[i]][sizes[codes[i]]++] = set[i];
+         }
+         //(a guess that leaves the whole set in one bucket only wastes a guess)
+         if (sizes[codes[0]] == set.length && codes[0] != FeedbackScorer.ALL_GREEN)
+            continue;
+         int total = set.length;
+         for (int code = 0; code < FeedbackScorer.ALL_GREEN && total < INFINITE; code++){
+            if (sizes[code] > 0)
+               total = Math.min(INFINITE, total + exhaustive(Arrays.copyOf(buckets[code], sizes[code]), guessesLeft - 1, -1, known));
+         }
+         best = Math.min(best, total);
+      }
+      known.put(key, best);
+      return best;
+   }
+
+   //Runs the solver from command line arguments (everything after --optimal)
+   public static void main(String[] args) throws Exception {
+      String first = null, out = DEFAULT_TREE_FILENAME, verify = null;
+      int secrets = -1, cacheEntries = DEFAULT_CACHE_ENTRIES, progressSeconds = DEFAULT_PROGRESS_SECONDS;
+      boolean secretGuessesOnly = false, exhaustive = false;
+      for (int i = 0; i < args.length; i++){
+         if (args[i].equals("--first") && i + 1 < args.length)
+            first = args[++i];
+         else if (args[i].equals("--secrets") && i + 1 < args.length)
+            secrets = Integer.parseInt(args[++i]);
+         else if (args[i].equals("--secret-guesses"))
+            secretGuessesOnly = true;
+         else if (args[i].equals("--cache") && i + 1 < args.length)
+            cacheEntries = Integer.parseInt(args[++i]);
+         else if (args[i].equals("--progress") && i + 1 < args.length)
+            progressSeconds = Integer.parseInt(args[++i]);
+         else if (args[i].equals("--out") && i + 1 < args.length)
+            out = args[++i];
+         else if (args[i].equals("--verify") && i + 1 < args.length)
+            verify = args[++i];
+         else if (args[i].equals("--exhaustive"))
+            exhaustive = true;
+         else
+            throw new IllegalArgumentException("Unknown optimal solver option: " + args[i]);
+      }
+      WordDictionary dictionary = new WordDictionary(DictionaryLoader.load(GameLogic.SECRET_WORDS_FILENAME),
+                                                     DictionaryLoader.load(GameLogic.VALID_GUESSES_FILENAME));
+      FeedbackMatrix matrix = FeedbackMatrix.open(dictionary, FeedbackMatrix.CACHE_FILENAME);
+      OptimalSolver solver = new OptimalSolver(dictionary, matrix, secretGuessesOnly, cacheEntries);
+      if (secrets < 0 || secrets > dictionary.secrets().size())
+         secrets = dictionary.secrets().size();
+
+      if (verify != null){
+         Node root = read(dictionary, verify);
+         int total = 0, unsolved = 0;
+         for (int s = 0; s < secrets; s++){
+            int guesses = solver.guessesToSolve(root, s);
+            if (guesses == INFINITE)
+               unsolved++;
+            else
+               total += guesses;
+         }
+         System.out.printf("%s: %d of the first %d secret words unsolved, %d guesses in total, %.4f on average%n",
+                           verify, unsolved, secrets, total, total / (double)(secrets - unsolved));
+         if (unsolved > 0)
+            System.exit(1);
+         return;
+      }
+
+      int opening = -1;
+      if (first != null){
+         opening = dictionary.validGuesses().indexOf(PackedWord.pack(first));
+         if (opening < 0)
+            throw new IllegalArgumentException("Not a valid guess: " + first);
+      }
+      System.out.println("Optimal solver: first " + secrets + " secret words, " + solver.guessPool.length + " guesses"
+                         + (opening >= 0 ? ", opening " + first.toUpperCase() : "")
+                         + ", " + ForkJoinPool.commonPool().getParallelism() + " worker(s)");
+      Node root = solver.solve(secrets, opening, ForkJoinPool.commonPool(), progressSeconds);
+      if (root == null){
+         System.out.println("No strategy solves every secret word within " + GameLogic.MAX_ROWS + " guesses");
+         System.exit(1);
+      }
+      solver.write(root, secrets, out);
+      long found = solver.best.get();
+      System.out.printf("Best: %s, %d guesses in total, %.4f on average (tree written to %s)%n",
+                        PackedWord.toString(dictionary.validGuesses().get(root.guess)), found >>> 32,
+                        (found >>> 32) / (double)secrets, out);
+
+      if (exhaustive){
+         int[] set = new int[secrets];
+         for (int s = 0; s < secrets; s++)
+            set[s] = s;
+         long start = System.nanoTime();
+         HashMap<String, Integer> known = new HashMap<String, Integer>();
+         int expected = solver.exhaustive(set, GameLogic.MAX_ROWS, opening, known);
+         int played = 0;
+         for (int s = 0; s < secrets; s++)
+            played = Math.min(INFINITE, played + solver.guessesToSolve(root, s));
+         System.out.printf("Exhaustive search: %d guesses in total (%d sets, %.1f s), the tree plays %d%n",
+                           expected, known.size(), (System.nanoTime() - start) / 1e9, played);
+         if (expected != (int)(found >>> 32) || played != expected){
+            System.out.println("Mismatch: the search above found " + (found >>> 32) + " guesses in total");
+            System.exit(1);
+         }
+      }
+   }
+}
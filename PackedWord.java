@@ -0,0 +1,78 @@
+//Encodes 5 letter words as a single int, 5 bits per letter ('A' = 0 ... 'Z' = 25).
+//The first letter sits in the highest bits, so comparing two packed words as ints
+//gives the same order as comparing the words alphabetically.
+public final class PackedWord {
+
+   //Number of letters in every packed word
+   public static final int LENGTH = 5;
+
+   //Number of bits used to store one letter
+   public static final int LETTER_BITS = 5;
+
+   //Mask selecting one letter out of a packed word
+   public static final int LETTER_MASK = (1 << LETTER_BITS) - 1;
+
+   //Number of distinct values a packed word can take (2^25)
+   public static final int WORD_SPACE = 1 << (LENGTH * LETTER_BITS);
+
+   //Returned when a word cannot be packed (wrong length or a non alphabetic character)
+   public static final int INVALID = -1;
+
+   private PackedWord(){ }
+
+   //Packs the argument letters into an int. Lower case letters are accepted.
+   //Returns INVALID if the array isn't 5 letters long or contains a non letter.
+   public static int pack(char[] word){
+      if (word == null || word.length != LENGTH)
+         return INVALID;
+      int packed = 0;
+      for (int i = 0; i < LENGTH; i++){
+         int letter = letterIndex(word[i]);
+         if (letter < 0)
+            return INVALID;
+         packed = (packed << LETTER_BITS) | letter;
+      }
+      return packed;
+   }
+
+   //Same as pack(char[]) for a String (or any other CharSequence)
+   public static int pack(CharSequence word){
+      if (word == null || word.length() != LENGTH)
+         return INVALID;
+      int packed = 0;
+      for (int i = 0; i < LENGTH; i++){
+         int letter = letterIndex(word.charAt(i));
+         if (letter < 0)
+            return INVALID;
+         packed = (packed << LETTER_BITS) | letter;
+      }
+      return packed;
+   }
+
+   //Returns 0-25 for the letters a-z/A-Z, or -1 for anything else
+   public static int letterIndex(char ch){
+      if (ch >= 'A' && ch <= 'Z')
+         return ch - 'A';
+      if (ch >= 'a' && ch <= 'z')
+         return ch - 'a';
+      return -1;
+   }
+
+   //Returns the letter index (0-25) stored at the argument position (0-4)
+   public static int letterAt(int packed, int pos){
+      return (packed >>> ((LENGTH - 1 - pos) * LETTER_BITS)) & LETTER_MASK;
+   }
+
+   //Writes the upper case letters of the packed word into the argument array
+   //and returns it
+   public static char[] unpack(int packed, char[] out){
+      for (int i = 0; i < LENGTH; i++)
+         out[i] = (char)('A' + letterAt(packed, i));
+      return out;
+   }
+
+   //Returns the packed word as an upper case String (allocates, use for display only)
+   public static String toString(int packed){
+      return new String(unpack(packed, new char[LENGTH]));
+   }
+}
@@ -0,0 +1,37 @@
+import java.util.Random;
+
+//Helpers shared by the tools that play many games headless and report on them
+//(Simulator, LoadGenerator): deriving a seed per game or client, picking secret
+//words without repeats, and percentiles.
+public final class Sampling {
+
+   //Mixes an index into a base seed (the 64 bit golden ratio, so consecutive
+   //indices get unrelated seeds)
+   private static final long SEED_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+   private Sampling(){
+   }
+
+   //Returns the seed for the Random of item number index (a game, a client) of a
+   //run with the argument seed
+   public static long seedFor(long seed, int index){
+      return seed + index * SEED_MULTIPLIER;
+   }
+
+   //Moves count values picked at random without repeats (a partial Fisher-Yates
+   //shuffle) to the front of the argument array, in the order picked
+   public static void shuffleFirst(int[] values, int count, Random rand){
+      for (int i = 0; i < count; i++){
+         int pick = i + rand.nextInt(values.length - i);
+         int value = values[pick];
+         values[pick] = values[i];
+         values[i] = value;
+      }
+   }
+
+   //Returns the value at the argument fraction of a sorted array (nearest rank)
+   public static long percentile(long[] sorted, double fraction){
+      int rank = (int)Math.ceil(fraction * sorted.length) - 1;
+      return sorted[Math.max(0, Math.min(rank, sorted.length - 1))];
+   }
+}
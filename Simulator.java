@@ -0,0 +1,284 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+//Plays a guessing strategy against many secret words at once (headless, across all
+//cores) and reports how well it played and how fast the engine ran.
+//
+//Results only depend on the strategy, the secret words played and the seed, so two
+//runs with the same arguments play exactly the same games.
+//
+//Usage (see JWordleLauncher):  java JWordleLauncher --simulate [options]
+//   --strategy entropy|random   how guesses are picked (default entropy)
+//   --games N                   play N random secrets (no repeats) instead of every
+//                               secret word
+//   --seed S                    seed for picking secrets and for the random strategy
+//   --matrix                    read feedback from the FeedbackMatrix cache file
+//   --hint-cache                look entropy guesses up in a HintCache (with the
+//                               opening book) before ranking them
+//   --record FILE               append every game played to a journal (see GameJournal)
+public class Simulator {
+
+   //Picks guesses for one game
+   public interface Strategy {
+
+      //Returns the index (in the valid guesses) of the next guess, given the first
+      //count candidate secret indices still consistent with the board
+      int nextGuess(GameSession session, int[] candidates, int count, Random rand);
+   }
+
+   //Default seed when none is given
+   private static final long DEFAULT_SEED = 20220101L;
+
+   //Number of games each fork-join task plays before it stops splitting
+   private static final int GAMES_PER_TASK = 4;
+
+   private final WordDictionary dictionary;
+   private final HintSolver solver;
+   private final Strategy strategy;
+   private final long seed;
+
+   //Results, indexed by game number: guesses used (0 = failed) and time taken
+   private int[] guessCounts;
+   private long[] gameNanos;
+   //Recording of each game, by game number (null unless recording)
+   private GameJournal.Game[] recordings;
+   private boolean recording = false;
+
+   public Simulator(WordDictionary dictionary, HintSolver solver, Strategy strategy, long seed){
+      this.dictionary = dictionary;
+      this.solver = solver;
+      this.strategy = strategy;
+      this.seed = seed;
+   }
+
+   //Plays one game against each of the argument secret indices on the argument pool
+   //and returns the wall clock time taken in nanoseconds
+   public long run(int[] secretIndices, ForkJoinPool pool){
+      guessCounts = new int[secretIndices.length];
+      gameNanos = new long[secretIndices.length];
+      recordings = recording ? new GameJournal.Game[secretIndices.length] : null;
+      long start = System.nanoTime();
+      pool.invoke(new GamesTask(this, secretIndices, 0, secretIndices.length));
+      return System.nanoTime() - start;
+   }
+
+   //Plays game number gameIndex against the secret at secretIndex
+   private void playGame(int gameIndex, int secretIndex){
+      long start = System.nanoTime();
+      Random rand = new Random(Sampling.seedFor(seed, gameIndex));
+      GameSession session = new GameSession(dictionary, dictionary.secrets().get(secretIndex));
+      GameJournal.Recorder recorder = null;
+      if (recording){
+         recorder = new GameJournal.Recorder();
+         session.setRecorder(recorder);
+      }
+      int[] candidates = new int[dictionary.secrets().size()];
+      int count = candidates.length;
+      for (int i = 0; i < count; i++)
+         candidates[i] = i;
+
+      while (!session.isGameOver()){
+         int guessIndex = strategy.nextGuess(session, candidates, count, rand);
+         int guess = dictionary.validGuesses().get(guessIndex);
+         if (!session.submitGuess(guess))
+            throw new IllegalStateException("Strategy guessed an invalid word: " + PackedWord.toString(guess));
+         int code = session.getRowCode(session.getCurrentRow() - 1);
+         //keep only the candidates that would have given the same feedback
+         int kept = 0;
+         for (int i = 0; i < count; i++){
+            if (solver.feedback(guessIndex, candidates[i]) == code)
+               candidates[kept++] = candidates[i];
+         }
+         count = kept;
+      }
+      guessCounts[gameIndex] = session.getResult() == GameSession.WON ? session.getCurrentRow() : 0;
+      gameNanos[gameIndex] = System.nanoTime() - start;
+      if (recorder != null)
+         recordings[gameIndex] = recorder.finish(session);
+   }
+
+   //Records every game played by the next run (see getRecordings)
+   public void setRecording(boolean recording){
+      this.recording = recording;
+   }
+
+   //Returns the recording of each game of the last run, by game number (null if
+   //it wasn't recorded)
+   public GameJournal.Game[] getRecordings(){
+      return recordings;
+   }
+
+   //Prints the guess distribution, failure rate, throughput and latency percentiles
+   public void report(String strategyName, long wallNanos, int cores){
+      int games = guessCounts.length;
+      int[] distribution = new int[GameLogic.MAX_ROWS + 1];
+      long totalGuesses = 0;
+      for (int guesses : guessCounts){
+         distribution[guesses]++;
+         totalGuesses += guesses;
+      }
+      int wins = games - distribution[0];
+      System.out.printf("Strategy: %s, %d games, seed %d, %d core(s)%n", strategyName, games, seed, cores);
+      for (int g = 1; g <= GameLogic.MAX_ROWS; g++)
+         System.out.printf("  %d guesses: %6d  (%5.2f%%)%n", g, distribution[g], 100.0 * distribution[g] / games);
+      System.out.printf("  failed:    %6d  (%5.2f%%)%n", distribution[0], 100.0 * distribution[0] / games);
+      if (wins > 0)
+         System.out.printf("Average guesses (wins): %.4f%n", (double)totalGuesses / wins);
+
+      long[] sorted = Arrays.copyOf(gameNanos, games);
+      Arrays.sort(sorted);
+      System.out.printf("Wall time: %.1f ms, %.1f games/s%n", wallNanos / 1e6, games / (wallNanos / 1e9));
+      System.out.printf("Per-game latency: p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                        Sampling.percentile(sorted, 0.50) / 1e6, Sampling.percentile(sorted, 0.90) / 1e6,
+                        Sampling.percentile(sorted, 0.99) / 1e6, sorted[games - 1] / 1e6);
+   }
+
+   //Returns the number of guesses each game took (0 = failed), by game number
+   public int[] getGuessCounts(){
+      return guessCounts;
+   }
+
+   //Plays the games [from, to), splitting in half until a task has at most
+   //GAMES_PER_TASK games
+   private static class GamesTask extends RecursiveAction {
+
+      private final Simulator simulator;
+      private final int[] secretIndices;
+      private final int from, to;
+
+      private GamesTask(Simulator simulator, int[] secretIndices, int from, int to){
+         this.simulator = simulator;
+         this.secretIndices = secretIndices;
+         this.from = from;
+         this.to = to;
+      }
+
+      protected void compute(){
+         if (to - from > GAMES_PER_TASK){
+            int mid = (from + to) >>> 1;
+            invokeAll(new GamesTask(simulator, secretIndices, from, mid),
+                      new GamesTask(simulator, secretIndices, mid, to));
+            return;
+         }
+         for (int game = from; game < to; game++)
+            simulator.playGame(game, secretIndices[game]);
+      }
+   }
+
+   //Always plays the highest entropy guess (see HintSolver). The first guess is the
+   //same for every game, so it is worked out once up front.
+   private static Strategy entropyStrategy(HintSolver solver, int secretCount){
+      int[] all = new int[secretCount];
+      for (int i = 0; i < all.length; i++)
+         all[i] = i;
+      final int firstGuess = solver.bestGuessIndex(all, all.length);
+      final ThreadLocal<double[]> scratch = ThreadLocal.withInitial(
+         () -> new double[solver.getDictionary().validGuesses().size()]);
+      return (session, candidates, count, rand) -> {
+         if (session.getCurrentRow() == 0)
+            return firstGuess;
+         return solver.bestGuessIndexSequential(candidates, count, scratch.get());
+      };
+   }
+
+   //Plays the same guesses as entropyStrategy, looking each board up in the argument
+   //hint cache first (see HintCache)
+   private static Strategy cachedEntropyStrategy(HintCache cache){
+      final ThreadLocal<long[]> histories = ThreadLocal.withInitial(() -> new long[GameLogic.MAX_ROWS]);
+      return (session, candidates, count, rand) -> {
+         long[] history = histories.get();
+         return cache.bestGuessIndex(history, HintCache.history(session, history), candidates, count);
+      };
+   }
+
+   //Plays a random secret word that is still possible
+   private static Strategy randomStrategy(WordDictionary dictionary){
+      return (session, candidates, count, rand) ->
+         dictionary.validGuesses().indexOf(dictionary.secrets().get(candidates[rand.nextInt(count)]));
+   }
+
+   //Runs a simulation from command line arguments (everything after --simulate)
+   public static void main(String[] args) throws Exception {
+      String strategyName = "entropy";
+      int games = -1;
+      long seed = DEFAULT_SEED;
+      boolean useMatrix = false, useHintCache = false;
+      String recordFilename = null;
+      for (int i = 0; i < args.length; i++){
+         if (args[i].equals("--strategy") && i + 1 < args.length)
+            strategyName = args[++i];
+         else if (args[i].equals("--games") && i + 1 < args.length){
+            games = Integer.parseInt(args[++i]);
+            if (games < 1)
+               throw new IllegalArgumentException("Number of games must be at least 1: " + games);
+         }
+         else if (args[i].equals("--seed") && i + 1 < args.length)
+            seed = Long.parseLong(args[++i]);
+         else if (args[i].equals("--matrix"))
+            useMatrix = true;
+         else if (args[i].equals("--hint-cache"))
+            useHintCache = true;
+         else if (args[i].equals("--record") && i + 1 < args.length)
+            recordFilename = args[++i];
+         else
+            throw new IllegalArgumentException("Unknown simulation option: " + args[i]);
+      }
+
+      WordDictionary dictionary = new WordDictionary(DictionaryLoader.load(GameLogic.SECRET_WORDS_FILENAME),
+                                                     DictionaryLoader.load(GameLogic.VALID_GUESSES_FILENAME));
+      ForkJoinPool pool = ForkJoinPool.commonPool();
+      FeedbackMatrix matrix = useMatrix ? FeedbackMatrix.open(dictionary, FeedbackMatrix.CACHE_FILENAME) : null;
+      HintSolver solver = new HintSolver(dictionary, matrix, pool);
+
+      Strategy strategy;
+      HintCache hintCache = null;
+      if (strategyName.equals("entropy") && useHintCache){
+         hintCache = new HintCache(solver, OpeningBook.open(solver, OpeningBook.BOOK_FILENAME, OpeningBook.DEFAULT_OPENINGS),
+                                   HintCache.DEFAULT_CAPACITY);
+         strategy = cachedEntropyStrategy(hintCache);
+      }
+      else if (strategyName.equals("entropy"))
+         strategy = entropyStrategy(solver, dictionary.secrets().size());
+      else if (strategyName.equals("random"))
+         strategy = randomStrategy(dictionary);
+      else
+         throw new IllegalArgumentException("Unknown strategy: " + strategyName);
+
+      //every secret word in order, or N secrets picked with the seed
+      int secretCount = dictionary.secrets().size();
+      int[] secretIndices;
+      if (games < 0){
+         secretIndices = new int[secretCount];
+         for (int i = 0; i < secretCount; i++)
+            secretIndices[i] = i;
+      }
+      else {
+         //without repeats; past secretCount games, every secret is played once more
+         //before any is played again
+         Random rand = new Random(seed);
+         secretIndices = new int[games];
+         int[] order = new int[secretCount];
+         for (int i = 0; i < secretCount; i++)
+            order[i] = i;
+         for (int start = 0; start < games; start += secretCount){
+            int count = Math.min(secretCount, games - start);
+            Sampling.shuffleFirst(order, count, rand);
+            System.arraycopy(order, 0, secretIndices, start, count);
+         }
+      }
+
+      Simulator simulator = new Simulator(dictionary, solver, strategy, seed);
+      simulator.setRecording(recordFilename != null);
+      long wallNanos = simulator.run(secretIndices, pool);
+      simulator.report(strategyName + (useMatrix ? " (feedback matrix)" : "") + (hintCache != null ? " (hint cache)" : ""),
+                       wallNanos, pool.getParallelism());
+      if (hintCache != null)
+         System.out.println(hintCache.report());
+      if (recordFilename != null){
+         GameJournal.append(recordFilename, dictionary, simulator.getRecordings());
+         System.out.println("Recorded " + secretIndices.length + " games to " + recordFilename);
+      }
+   }
+}
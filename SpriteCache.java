@@ -0,0 +1,57 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+
+//Pre-rendered images ("sprites") of things drawn in the game window, keyed by
+//the state they show (e.g. a tile's letter and colors).
+//A sprite is drawn once, the first time its state is needed, and copied to the
+//window from then on, so painting a tile or key doesn't lay out text or build
+//shapes. There are only a few hundred states in a game (26 letters x 4 colors),
+//so sprites are never evicted.
+//
+//Sprites are opaque: each one starts filled with the window color around the
+//thing drawn, so it fully replaces whatever was under it.
+//
+//Only used from the Swing event thread (or one painting thread), so not thread safe.
+public class SpriteCache {
+
+   private final HashMap<Long, BufferedImage> sprites = new HashMap<Long, BufferedImage>();
+   //Size of every sprite in this cache (the caller's key must cover anything else)
+   private final int width, height;
+   //Color every sprite is filled with before it is drawn into
+   private final Color background;
+
+   public SpriteCache(int width, int height, Color background){
+      this.width = width;
+      this.height = height;
+      this.background = background;
+   }
+
+   //Returns the sprite for the argument state, or null if it hasn't been drawn yet
+   public BufferedImage get(long key){
+      return sprites.get(key);
+   }
+
+   //Returns a new sprite (filled with the background color) for the argument state
+   //for the caller to draw into (replacing any sprite already cached for it)
+   public BufferedImage create(long key){
+      return create(key, width, height);
+   }
+
+   //Same as create(key), for states whose sprite is a different size
+   public BufferedImage create(long key, int width, int height){
+      BufferedImage sprite = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+      Graphics2D g2d = sprite.createGraphics();
+      g2d.setColor(background);
+      g2d.fillRect(0, 0, width, height);
+      g2d.dispose();
+      sprites.put(key, sprite);
+      return sprite;
+   }
+
+   //Returns the number of sprites drawn so far
+   public int size(){
+      return sprites.size();
+   }
+}
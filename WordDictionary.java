@@ -0,0 +1,149 @@
+import java.util.concurrent.CompletableFuture;
+
+//The immutable pair of word lists the game runs on: the possible secret words and
+//the valid guesses, both stored as packed words (see PackedWord).
+//A WordDictionary never changes once built, so one instance can be shared by any
+//number of games and threads.
+//
+//The valid guesses (and everything built from them) may still be loading when the
+//dictionary is created, so a game can start as soon as the secret words are read.
+//Anything needing them waits until they are ready, except validGuessesReady(),
+//which says whether it would have to.
+public final class WordDictionary {
+
+   //Seed and multiplier for the 64 bit FNV-1a checksum
+   private static final long CHECKSUM_SEED = 0xCBF29CE484222325L;
+   private static final long CHECKSUM_PRIME = 0x100000001B3L;
+
+   private final WordSet secrets;
+   //Built the first time it is asked for (like loaded, it only has final fields, so
+   //any thread can read it; two threads may both build it, to the same effect)
+   private CandidateIndex candidateIndex;
+   //Everything built from the valid guesses, once they are loaded
+   private final CompletableFuture<ValidGuesses> valids;
+   //What valids completed with, once seen (its fields are final or, like the graph,
+   //only ever set to objects with final fields, so any thread can read it without
+   //synchronizing)
+   private ValidGuesses loaded;
+
+   //Builds a dictionary from the argument packed secret words and valid guesses
+   public WordDictionary(int[] secretWords, int[] validWords){
+      this(secretWords, CompletableFuture.completedFuture(validWords));
+   }
+
+   //Builds a dictionary from the argument packed secret words and the valid guesses
+   //the argument future completes with. The valid guesses are indexed by the thread
+   //completing the future (or right away if it already has); if it completes
+   //exceptionally, so does every call that needs them.
+   public WordDictionary(int[] secretWords, CompletableFuture<int[]> validWords){
+      secrets = new WordSet(secretWords, secretWords.length);
+      //the graph is only built when first used (most users of a dictionary only look
+      //words up), except when the valid guesses load in the background, where it
+      //costs nothing and saves the game's first key from building it
+      boolean background = !validWords.isDone();
+      valids = validWords.thenApply(words -> {
+         ValidGuesses result = new ValidGuesses(secrets, words);
+         if (background)
+            result.graph();
+         return result;
+      });
+   }
+
+   //The valid guesses, their graph and the checksum of both word lists
+   private static final class ValidGuesses {
+
+      private final WordSet words;
+      private final long checksum;
+      //Built the first time it is asked for (two threads may both build it, to the
+      //same effect)
+      private WordGraph graph;
+
+      private ValidGuesses(WordSet secrets, int[] validWords){
+         words = new WordSet(validWords, validWords.length);
+         checksum = computeChecksum(secrets, words);
+      }
+
+      private WordGraph graph(){
+         WordGraph result = graph;
+         if (result == null)
+            graph = result = new WordGraph(words);
+         return result;
+      }
+   }
+
+   //Returns the valid guesses and what is built from them, waiting for them to load
+   private ValidGuesses loaded(){
+      ValidGuesses result = loaded;
+      if (result == null)
+         loaded = result = valids.join();
+      return result;
+   }
+
+   //Returns the possible secret words
+   public WordSet secrets(){
+      return secrets;
+   }
+
+   //Returns the valid guesses (waiting for them to load)
+   public WordSet validGuesses(){
+      return loaded().words;
+   }
+
+   //Returns the bitset index used to track which secret words are still possible
+   public CandidateIndex candidateIndex(){
+      CandidateIndex result = candidateIndex;
+      if (result == null)
+         candidateIndex = result = new CandidateIndex(secrets);
+      return result;
+   }
+
+   //Returns the valid guesses as a graph for checking a guess letter by letter
+   //(waiting for them to load, and building it if this is the first call)
+   public WordGraph validGuessGraph(){
+      return loaded().graph();
+   }
+
+   //Returns true if the valid guesses are loaded, so using them won't wait
+   public boolean validGuessesReady(){
+      return valids.isDone() && !valids.isCompletedExceptionally();
+   }
+
+   //Waits until the valid guesses are loaded.
+   //Throws CompletionException (caused by what went wrong) if they couldn't be.
+   public void awaitValidGuesses(){
+      valids.join();
+   }
+
+   //Returns true if the packed word may be guessed (waiting for the valid guesses
+   //to load)
+   public boolean isValidGuess(int packedWord){
+      return validGuesses().contains(packedWord);
+   }
+
+   //Returns a 64 bit hash of both word lists (including their order).
+   //Anything derived from a dictionary can store this to detect when the word
+   //lists it was built from have changed. (Waits for the valid guesses to load.)
+   public long checksum(){
+      return loaded().checksum;
+   }
+
+   private static long computeChecksum(WordSet secrets, WordSet validGuesses){
+      long hash = CHECKSUM_SEED;
+      hash = mix(hash, secrets.size());
+      for (int i = 0; i < secrets.size(); i++)
+         hash = mix(hash, secrets.get(i));
+      hash = mix(hash, validGuesses.size());
+      for (int i = 0; i < validGuesses.size(); i++)
+         hash = mix(hash, validGuesses.get(i));
+      return hash;
+   }
+
+   //Folds the 4 bytes of value into the hash
+   private static long mix(long hash, int value){
+      for (int shift = 0; shift < 32; shift += 8){
+         hash ^= (value >>> shift) & 0xFF;
+         hash *= CHECKSUM_PRIME;
+      }
+      return hash;
+   }
+}
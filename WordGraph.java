@@ -0,0 +1,240 @@
+import java.util.Arrays;
+
+//The valid guesses as a minimised DAWG (a trie whose identical subtrees are merged),
+//stored in three flat int arrays, for following a word one letter at a time.
+//
+//Node n has one bit per letter it has a child for in letterMasks[n], and its
+//children are stored together in the edges array from firstEdges[n], in letter
+//order. So the child for a letter is at
+//   firstEdges[n] + bitCount(letterMasks[n] & (bit of the letter - 1))
+//which is one step with no search. Every word is 5 letters long, so the only node
+//5 steps down from the root is the end node: reaching it means the letters typed
+//are a word.
+//
+//Merging the common suffixes ("-ATED", "-ING"...) leaves far fewer nodes than a
+//plain trie, so the whole graph is smaller than the hash table of WordSet, and much
+//smaller than the valid guesses as Strings (see DictionaryBenchmark).
+public final class WordGraph {
+
+   //Returned by step() when no word starts with the letters so far
+   public static final int DEAD = -1;
+
+   //Node every word ends at (it has no children)
+   private static final int END = 0;
+
+   private final int root;
+   private final int[] letterMasks;
+   private final int[] firstEdges;
+   private final int[] edges;
+
+   //Builds the graph of the argument set of words
+   public WordGraph(WordSet words){
+      int[] sorted = words.toArray();
+      Arrays.sort(sorted);
+      Builder builder = new Builder(sorted.length);
+      root = sorted.length == 0 ? builder.node(0, new int[0], 0) : builder.build(sorted, 0, sorted.length, 0);
+      letterMasks = Arrays.copyOf(builder.letterMasks, builder.nodeCount);
+      firstEdges = Arrays.copyOf(builder.firstEdges, builder.nodeCount);
+      edges = Arrays.copyOf(builder.edges, builder.edgeCount);
+   }
+
+   //Returns the node of the empty prefix
+   public int root(){
+      return root;
+   }
+
+   //Returns the node reached from the argument node by the argument letter (0-25),
+   //or DEAD if no word continues that way (or node is DEAD already)
+   public int step(int node, int letter){
+      if (node < 0)
+         return DEAD;
+      int mask = letterMasks[node];
+      int bit = 1 << letter;
+      if ((mask & bit) == 0)
+         return DEAD;
+      return edges[firstEdges[node] + Integer.bitCount(mask & (bit - 1))];
+   }
+
+   //Returns true if the argument node is reached by a whole word
+   public boolean isWord(int node){
+      return node == END;
+   }
+
+   //Returns true if the packed word is in the graph
+   public boolean contains(int packedWord){
+      if (packedWord < 0)
+         return false;
+      int node = root;
+      for (int pos = 0; pos < PackedWord.LENGTH && node >= 0; pos++)
+         node = step(node, PackedWord.letterAt(packedWord, pos));
+      return node == END;
+   }
+
+   //Returns the number of nodes
+   public int nodeCount(){
+      return letterMasks.length;
+   }
+
+   //Returns the number of edges
+   public int edgeCount(){
+      return edges.length;
+   }
+
+   //Returns the bytes taken by the graph's arrays (including their headers)
+   public long memoryBytes(){
+      return 3 * 16 + 4L * (letterMasks.length + firstEdges.length + edges.length);
+   }
+
+   //Checks the graph of the valid guesses against WordSet.contains: every valid guess
+   //and a sample of random strings (half of them a valid guess with one letter
+   //changed) are followed one letter at a time. Each prefix must be DEAD exactly when
+   //no valid guess starts with it, and only the valid guesses may reach the end node.
+   //Usage: java WordGraph [random words]
+   public static void main(String[] args) throws java.io.IOException {
+      int randomWords = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+      WordSet words = new WordDictionary(DictionaryLoader.load(GameLogic.SECRET_WORDS_FILENAME),
+                                         DictionaryLoader.load(GameLogic.VALID_GUESSES_FILENAME)).validGuesses();
+      WordGraph graph = new WordGraph(words);
+      //every prefix of a valid guess, packed with its length on top
+      java.util.HashSet<Integer> prefixes = new java.util.HashSet<Integer>();
+      for (int word : words.toArray()){
+         for (int length = 1; length <= PackedWord.LENGTH; length++)
+            prefixes.add((length << 28) | (word >>> ((PackedWord.LENGTH - length) * PackedWord.LETTER_BITS)));
+      }
+
+      int[] samples = new int[words.size() + randomWords];
+      System.arraycopy(words.toArray(), 0, samples, 0, words.size());
+      java.util.Random rand = new java.util.Random(42);
+      for (int i = words.size(); i < samples.length; i++){
+         int word = 0;
+         if (i % 2 == 0){
+            //a valid guess with one letter changed, so its prefixes go deep
+            int pos = rand.nextInt(PackedWord.LENGTH);
+            int shift = (PackedWord.LENGTH - 1 - pos) * PackedWord.LETTER_BITS;
+            word = (words.get(rand.nextInt(words.size())) & ~(PackedWord.LETTER_MASK << shift)) | (rand.nextInt(26) << shift);
+         }
+         else {
+            for (int pos = 0; pos < PackedWord.LENGTH; pos++)
+               word = (word << PackedWord.LETTER_BITS) | rand.nextInt(26);
+         }
+         samples[i] = word;
+      }
+
+      long mismatches = 0;
+      for (int word : samples){
+         int node = graph.root();
+         boolean wrong = false;
+         for (int length = 1; length <= PackedWord.LENGTH; length++){
+            node = graph.step(node, PackedWord.letterAt(word, length - 1));
+            boolean isPrefix = prefixes.contains((length << 28) | (word >>> ((PackedWord.LENGTH - length) * PackedWord.LETTER_BITS)));
+            if ((node != DEAD) != isPrefix || (length < PackedWord.LENGTH && node != DEAD && graph.isWord(node)))
+               wrong = true;
+         }
+         boolean isWord = words.contains(word);
+         if (graph.isWord(node) != isWord || graph.contains(word) != isWord)
+            wrong = true;
+         if (wrong && mismatches++ == 0)
+            System.out.println("Mismatch: " + PackedWord.toString(word) + " (" + (isWord ? "a" : "not a")
+                               + " valid guess)");
+      }
+      System.out.println(words.size() + " valid guesses and " + randomWords + " random words, " + mismatches
+                         + " mismatches (" + graph.nodeCount() + " nodes, " + graph.edgeCount() + " edges)");
+      if (mismatches > 0)
+         System.exit(1);
+   }
+
+   //Builds a trie depth first, merging every node with the same children as one
+   //already built (only used while constructing)
+   private static final class Builder {
+
+      private int[] letterMasks, firstEdges, edges;
+      private int nodeCount = 0, edgeCount = 0;
+      //Open addressing table of the nodes built (node + 1, 0 = free), by their
+      //children, for finding a node with the same children as a new one
+      private int[] table;
+      //Children being gathered at each depth (reused, so building allocates little)
+      private final int[][] children = new int[PackedWord.LENGTH][26];
+
+      private Builder(int words){
+         letterMasks = new int[words + 1];
+         firstEdges = new int[words + 1];
+         edges = new int[words + 1];
+         table = new int[Integer.highestOneBit(words * 2 + 1) * 2];
+         //node 0 is END
+         node(0, new int[0], 0);
+      }
+
+      //Returns the node for the suffixes at depth of sorted[from, to)
+      private int build(int[] sorted, int from, int to, int depth){
+         if (depth == PackedWord.LENGTH)
+            return END;
+         int mask = 0;
+         int[] children = this.children[depth];
+         int count = 0;
+         int start = from;
+         while (start < to){
+            int letter = PackedWord.letterAt(sorted[start], depth);
+            int end = start + 1;
+            while (end < to && PackedWord.letterAt(sorted[end], depth) == letter)
+               end++;
+            mask |= 1 << letter;
+            children[count++] = build(sorted, start, end, depth + 1);
+            start = end;
+         }
+         return node(mask, children, count);
+      }
+
+      //Returns the node with the argument children, adding it if it is new
+      private int node(int mask, int[] children, int count){
+         int hash = mask;
+         for (int i = 0; i < count; i++)
+            hash = hash * 31 + children[i];
+         int slot = (hash * 0x9E3779B9) >>> 1;
+         for (slot &= table.length - 1; table[slot] != 0; slot = (slot + 1) & (table.length - 1)){
+            if (sameChildren(table[slot] - 1, mask, children, count))
+               return table[slot] - 1;
+         }
+         if (nodeCount == letterMasks.length){
+            letterMasks = Arrays.copyOf(letterMasks, nodeCount * 2);
+            firstEdges = Arrays.copyOf(firstEdges, nodeCount * 2);
+         }
+         while (edgeCount + count > edges.length)
+            edges = Arrays.copyOf(edges, edges.length * 2);
+         letterMasks[nodeCount] = mask;
+         firstEdges[nodeCount] = edgeCount;
+         System.arraycopy(children, 0, edges, edgeCount, count);
+         edgeCount += count;
+         table[slot] = nodeCount + 1;
+         if (++nodeCount * 2 > table.length)
+            rehash();
+         return nodeCount - 1;
+      }
+
+      //Returns true if the argument node has exactly the argument children
+      private boolean sameChildren(int node, int mask, int[] children, int count){
+         if (letterMasks[node] != mask)
+            return false;
+         int first = firstEdges[node];
+         for (int i = 0; i < count; i++){
+            if (edges[first + i] != children[i])
+               return false;
+         }
+         return true;
+      }
+
+      //Doubles the table, putting every node back
+      private void rehash(){
+         table = new int[table.length * 2];
+         for (int node = 0; node < nodeCount; node++){
+            int hash = letterMasks[node];
+            int first = firstEdges[node], count = Integer.bitCount(letterMasks[node]);
+            for (int i = 0; i < count; i++)
+               hash = hash * 31 + edges[first + i];
+            int slot = ((hash * 0x9E3779B9) >>> 1) & (table.length - 1);
+            while (table[slot] != 0)
+               slot = (slot + 1) & (table.length - 1);
+            table[slot] = node + 1;
+         }
+      }
+   }
+}
@@ -0,0 +1,89 @@
+import java.util.Arrays;
+
+//An immutable set of packed 5 letter words (see PackedWord).
+//Words are kept in the order they were added, so each one also has an index,
+//and lookups go through a primitive open addressing hash table so checking a
+//word never allocates anything.
+public final class WordSet {
+
+   //Marks an unused slot in the hash table (no packed word is negative)
+   private static final int EMPTY = -1;
+
+   //Multiplier used to spread packed words over the table (golden ratio)
+   private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+   //The words in the order they were added
+   private final int[] words;
+
+   //Hash table of packed words, and the index of each word in the words array
+   private final int[] table;
+   private final int[] tableIndex;
+   //Table size is a power of two, shift turns a 32 bit hash into a slot number
+   private final int shift;
+   private final int mask;
+
+   //Builds a set from the first count packed words of the argument array.
+   //Duplicates and invalid words are dropped.
+   public WordSet(int[] packedWords, int count){
+      int capacity = Integer.highestOneBit(Math.max(count, 1) * 2 - 1) << 1;
+      capacity = Math.max(capacity, 16);
+      table = new int[capacity];
+      tableIndex = new int[capacity];
+      Arrays.fill(table, EMPTY);
+      shift = 32 - Integer.numberOfTrailingZeros(capacity);
+      mask = capacity - 1;
+
+      int[] kept = new int[count];
+      int size = 0;
+      for (int i = 0; i < count; i++){
+         int word = packedWords[i];
+         if (word < 0 || word >= PackedWord.WORD_SPACE)
+            continue;
+         int slot = slotOf(word);
+         if (table[slot] == word)
+            continue;
+         table[slot] = word;
+         tableIndex[slot] = size;
+         kept[size++] = word;
+      }
+      words = size == count ? kept : Arrays.copyOf(kept, size);
+   }
+
+   //Returns the number of words in the set
+   public int size(){
+      return words.length;
+   }
+
+   //Returns the packed word at the argument index
+   public int get(int index){
+      return words[index];
+   }
+
+   //Returns true if the packed word is in the set
+   public boolean contains(int word){
+      if (word < 0)
+         return false;
+      return table[slotOf(word)] == word;
+   }
+
+   //Returns the index of the packed word in this set, or -1 if it isn't in it
+   public int indexOf(int word){
+      if (word < 0)
+         return -1;
+      int slot = slotOf(word);
+      return table[slot] == word ? tableIndex[slot] : -1;
+   }
+
+   //Returns a copy of all the packed words in this set
+   public int[] toArray(){
+      return Arrays.copyOf(words, words.length);
+   }
+
+   //Finds the slot holding the word, or the empty slot where it would go
+   private int slotOf(int word){
+      int slot = (word * HASH_MULTIPLIER) >>> shift;
+      while (table[slot] != EMPTY && table[slot] != word)
+         slot = (slot + 1) & mask;
+      return slot;
+   }
+}
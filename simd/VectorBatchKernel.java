@@ -0,0 +1,75 @@
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorSpecies;
+
+//BatchScorer kernel that scores one guess against a whole vector of secrets at a time
+//with the incubating Java Vector API (one byte lane per secret).
+//
+//Lives apart from the other sources because it needs the jdk.incubator.vector module
+//to compile and run. The Maven build (pom.xml) compiles it with that module added;
+//the game has to be run with it too:
+//
+//   java --add-modules jdk.incubator.vector -cp target/jwordle.jar BatchScorer
+//
+//It follows FeedbackScorer.score step for step, lane-wise: greens first (the
+//matched secret letters become USED), then each non green guess letter, left to
+//right, takes the first unused copy of itself in the secret and becomes yellow. A
+//lane that took a copy drops out of the "wanting" mask, so duplicate letters are
+//limited by how many copies the secret has left, exactly like the scalar code.
+//
+//The Vector API only keeps vectors in registers while C2 inlines every call, and on
+//JDK 17 writing all five guess letters out by hand made the method too big for
+//that: the later steps were left as calls and every vector they made was allocated
+//(about 150 KB per scoreAll). So the guess letters are a loop, and the code is added
+//up in the codes array rather than carried from one letter to the next, which keeps
+//scoring allocation free (check with the benchmarks' -prof gc, see pom.xml).
+public final class VectorBatchKernel implements BatchScorer.Kernel {
+
+   private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+   //Marks a secret letter already matched (never equal to a guess letter)
+   private static final ByteVector USED = ByteVector.broadcast(SPECIES, (byte)-1);
+   private static final ByteVector ZERO = ByteVector.zero(SPECIES);
+
+   public int score(int guess, byte[][] lanes, int count, byte[] codes){
+      byte[] lane0 = lanes[0], lane1 = lanes[1], lane2 = lanes[2], lane3 = lanes[3], lane4 = lanes[4];
+      int bound = SPECIES.loopBound(count);
+      for (int i = 0; i < bound; i += SPECIES.length()){
+         ByteVector s0 = ByteVector.fromArray(SPECIES, lane0, i), s1 = ByteVector.fromArray(SPECIES, lane1, i),
+                    s2 = ByteVector.fromArray(SPECIES, lane2, i), s3 = ByteVector.fromArray(SPECIES, lane3, i),
+                    s4 = ByteVector.fromArray(SPECIES, lane4, i);
+
+         //greens first: a matched secret letter can't also make a yellow
+         s0 = s0.blend(USED, s0.eq(letter(guess, 0)));
+         s1 = s1.blend(USED, s1.eq(letter(guess, 1)));
+         s2 = s2.blend(USED, s2.eq(letter(guess, 2)));
+         s3 = s3.blend(USED, s3.eq(letter(guess, 3)));
+         s4 = s4.blend(USED, s4.eq(letter(guess, 4)));
+         ZERO.intoArray(codes, i);
+
+         //then each guess letter that isn't green takes the first unused copy of itself
+         int weight = 1;
+         for (int pos = 0; pos < PackedWord.LENGTH; pos++, weight *= 3){
+            ByteVector g = letter(guess, pos);
+            VectorMask<Byte> green = ByteVector.fromArray(SPECIES, lanes[pos], i).eq(g);
+            VectorMask<Byte> want = green.not(), took;
+            took = s0.eq(g).and(want); s0 = s0.blend(USED, took); want = want.andNot(took);
+            took = s1.eq(g).and(want); s1 = s1.blend(USED, took); want = want.andNot(took);
+            took = s2.eq(g).and(want); s2 = s2.blend(USED, took); want = want.andNot(took);
+            took = s3.eq(g).and(want); s3 = s3.blend(USED, took); want = want.andNot(took);
+            took = s4.eq(g).and(want); s4 = s4.blend(USED, took); want = want.andNot(took);
+            //a green adds 2 * weight, a yellow (not green, took a copy) weight
+            ByteVector.fromArray(SPECIES, codes, i)
+                      .add(ZERO.blend(ByteVector.broadcast(SPECIES, (byte)(2 * weight)), green))
+                      .add(ZERO.blend(ByteVector.broadcast(SPECIES, (byte)weight), green.not().andNot(want)))
+                      .intoArray(codes, i);
+         }
+      }
+      return bound;
+   }
+
+   //Returns the letter (0-25) at the argument position of the packed guess, in every lane
+   private static ByteVector letter(int guess, int pos){
+      return ByteVector.broadcast(SPECIES, (byte)PackedWord.letterAt(guess, pos));
+   }
+}
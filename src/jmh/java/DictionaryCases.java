@@ -0,0 +1,55 @@
+import java.io.*;
+import java.util.Random;
+
+//The cases of bench.DictionaryBench (see bench.Cases for why they live apart)
+public class DictionaryCases implements bench.DictionaryBench.Workload {
+
+   private final int[] guesses, secrets;
+   private final File binary;
+   //half real words, half random letters, in both cases
+   private final char[][] queries = new char[1024][];
+   private int query;
+
+   public DictionaryCases() throws IOException {
+      WordDictionary dictionary = new WordDictionary(DictionaryLoader.load(GameLogic.SECRET_WORDS_FILENAME),
+                                                     DictionaryLoader.load(GameLogic.VALID_GUESSES_FILENAME));
+      guesses = dictionary.validGuesses().toArray();
+      secrets = dictionary.secrets().toArray();
+      //validWordCheck uses the dictionary GameLogic loads
+      GameLogic.initializeGame();
+
+      binary = File.createTempFile("jwordle-bench", ".bin");
+      binary.deleteOnExit();
+      BinaryDictionary.write(binary.getPath(), secrets, guesses,
+                             GameLogic.SECRET_WORDS_FILENAME, GameLogic.VALID_GUESSES_FILENAME);
+
+      Random rand = new Random(42);
+      for (int i = 0; i < queries.length; i++){
+         if (i % 2 == 0)
+            queries[i] = PackedWord.unpack(guesses[rand.nextInt(guesses.length)], new char[PackedWord.LENGTH]);
+         else {
+            queries[i] = new char[PackedWord.LENGTH];
+            for (int c = 0; c < PackedWord.LENGTH; c++)
+               queries[i][c] = (char)('a' + rand.nextInt(26));
+         }
+      }
+   }
+
+   public long loadText() throws IOException {
+      return new WordDictionary(DictionaryLoader.load(GameLogic.SECRET_WORDS_FILENAME),
+                                DictionaryLoader.load(GameLogic.VALID_GUESSES_FILENAME)).checksum();
+   }
+
+   public long loadBinary() throws IOException {
+      return BinaryDictionary.load(binary.getPath(), GameLogic.SECRET_WORDS_FILENAME,
+                                   GameLogic.VALID_GUESSES_FILENAME).checksum();
+   }
+
+   public long initializeGame(){
+      return GameLogic.initializeGame()[0];
+   }
+
+   public boolean validWordCheck(){
+      return GameLogic.validWordCheck(queries[query++ & (queries.length - 1)]);
+   }
+}
@@ -0,0 +1,102 @@
+import java.io.IOException;
+import java.util.Arrays;
+
+//The cases of bench.ScoringBench (see bench.Cases for why they live apart).
+//Each case steps through the guesses (31 at a time) and secrets, so no two
+//operations in a row score the same words.
+public class ScoringCases implements bench.ScoringBench.Workload {
+
+   private final WordDictionary dictionary;
+   private final int[] guesses, secrets;
+   private final byte[] row;
+   private final BatchScorer scalar, vector;
+   private final AdversarialSecret adversary;
+   private final CandidateIndex index;
+   private final long[] mask;
+   private final int[] boardSecrets;
+   //not registered with Metrics, so it is measured even with metrics off
+   private final Metrics.Histogram histogram = new Metrics.Histogram("benchmark");
+
+   //Index of the last guess and secret handed out, and the next (guess, secret)
+   //pair for score
+   private int guessIndex, secretIndex, g, s;
+   private int recorded;
+
+   public ScoringCases() throws IOException {
+      dictionary = new WordDictionary(DictionaryLoader.load(GameLogic.SECRET_WORDS_FILENAME),
+                                      DictionaryLoader.load(GameLogic.VALID_GUESSES_FILENAME));
+      guesses = dictionary.validGuesses().toArray();
+      secrets = dictionary.secrets().toArray();
+      row = new byte[secrets.length];
+      scalar = new BatchScorer(secrets, false);
+      vector = new BatchScorer(secrets);
+      adversary = new AdversarialSecret(dictionary);
+      index = dictionary.candidateIndex();
+      mask = index.newMask();
+      boardSecrets = Arrays.copyOf(secrets, GameLogic.MAX_BOARDS);
+   }
+
+   //Returns the next guess to score
+   private int nextGuess(){
+      guessIndex = (guessIndex + 31) % guesses.length;
+      return guesses[guessIndex];
+   }
+
+   //Returns the next secret to score against
+   private int nextSecret(){
+      secretIndex = (secretIndex + 1) % secrets.length;
+      return secrets[secretIndex];
+   }
+
+   public int score(){
+      int code = FeedbackScorer.score(guesses[g], secrets[s]);
+      if (++s == secrets.length){
+         s = 0;
+         if (++g == guesses.length)
+            g = 0;
+      }
+      return code;
+   }
+
+   public int scoreRow(){
+      int guess = nextGuess();
+      for (int i = 0; i < secrets.length; i++)
+         row[i] = (byte)FeedbackScorer.score(guess, secrets[i]);
+      return row[guessIndex % secrets.length];
+   }
+
+   public int scoreAll(boolean useVectors){
+      (useVectors ? vector : scalar).scoreAll(nextGuess(), row);
+      return row[guessIndex % secrets.length];
+   }
+
+   public int adversarialRespond(){
+      adversary.reset();
+      return adversary.respond(nextGuess());
+   }
+
+   public int sessionScoreRow(){
+      GameSession session = new GameSession(dictionary, nextSecret());
+      session.submitGuess(nextGuess());
+      return session.getRowCode(0);
+   }
+
+   public long candidateIndexApply(){
+      Arrays.fill(mask, -1L);
+      int guess = nextGuess();
+      index.apply(mask, guess, FeedbackScorer.score(guess, nextSecret()));
+      return mask[0];
+   }
+
+   public int multiBoardScoreRow16(){
+      MultiBoardSession game = new MultiBoardSession(dictionary, boardSecrets);
+      game.submitGuess(nextGuess());
+      return game.getRowCode(guessIndex % GameLogic.MAX_BOARDS, 0);
+   }
+
+   public long metricsRecord(){
+      recorded = (recorded + 1) & 0xFFFFF;
+      histogram.record(recorded);
+      return histogram.getCount();
+   }
+}
@@ -0,0 +1,111 @@
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Arrays;
+
+//The cases of bench.WindowBench (see bench.Cases for why they live apart). The
+//windows are set up offscreen, which works with java.awt.headless=true.
+public class WindowCases implements bench.WindowBench.Workload {
+
+   //Dimensions of the offscreen image the window is painted into
+   private static final int FRAME_WIDTH = 480;
+   private static final int FRAME_HEIGHT = 750;
+   //Region of the cell a key press changes (second letter of the third row)
+   private static final Rectangle DIRTY_CELL = new Rectangle(93, 143, 54, 54);
+
+   private static final String TYPED = "The quick brown fox jumps over the lazy dog\n\b";
+   //Three letters typed into the half typed row and erased again, so the board is
+   //back where it started after each operation
+   private static final char[] TYPED_KEYS = {'s', 'O', 'a', GameLogic.BACKSPACE_KEY, GameLogic.BACKSPACE_KEY,
+                                             GameLogic.BACKSPACE_KEY};
+
+   private final GameGUI canvas;
+   private final GameSession session;
+   private final BufferedImage image = new BufferedImage(FRAME_WIDTH, FRAME_HEIGHT, BufferedImage.TYPE_INT_ARGB);
+   private final KeyEvent[] keyEvents = new KeyEvent[TYPED_KEYS.length];
+   private final MouseEvent[] mouseEvents = new MouseEvent[TYPED_KEYS.length];
+
+   private final MultiBoardGUI boardCanvas;
+   private final BufferedImage boardImage;
+   private final KeyEvent[] boardKeys;
+
+   //Index in TYPED of the last char upper cased
+   private int typedIndex;
+
+   public WindowCases() throws IOException {
+      WordDictionary dictionary = new WordDictionary(DictionaryLoader.load(GameLogic.SECRET_WORDS_FILENAME),
+                                                     DictionaryLoader.load(GameLogic.VALID_GUESSES_FILENAME));
+      int[] secrets = dictionary.secrets().toArray();
+      //the game window uses the dictionary GameLogic loads
+      GameLogic.initializeGame();
+
+      //a realistic board: two scored rows and a half typed one
+      canvas = GameGUI.initOffscreen(PackedWord.unpack(secrets[0], new char[PackedWord.LENGTH]));
+      session = GameGUI.getSession();
+      session.submitGuess(PackedWord.pack("SOARE"));
+      session.submitGuess(PackedWord.pack("CLINT"));
+      session.reactToKey('B');
+      session.reactToKey('E');
+      for (int i = 0; i < TYPED_KEYS.length; i++){
+         keyEvents[i] = new KeyEvent(canvas, KeyEvent.KEY_PRESSED, 0, 0, KeyEvent.VK_UNDEFINED, TYPED_KEYS[i]);
+         Rectangle key = GameGUI.getKeyBounds(TYPED_KEYS[i]);
+         mouseEvents[i] = new MouseEvent(canvas, MouseEvent.MOUSE_PRESSED, 0, 0, (int)key.getCenterX(),
+                                         (int)key.getCenterY(), 1, false, MouseEvent.BUTTON1);
+      }
+
+      MultiBoardSession boardGame = new MultiBoardSession(dictionary, Arrays.copyOf(secrets, GameLogic.MAX_BOARDS));
+      boardGame.submitGuess(PackedWord.pack("SOARE"));
+      boardGame.submitGuess(PackedWord.pack("CLINT"));
+      boardCanvas = MultiBoardGUI.initOffscreen(boardGame);
+      boardImage = new BufferedImage(MultiBoardGUI.getFrameSize().width, MultiBoardGUI.getFrameSize().height,
+                                     BufferedImage.TYPE_INT_ARGB);
+      boardKeys = new KeyEvent[] {new KeyEvent(boardCanvas, KeyEvent.KEY_PRESSED, 0, 0, KeyEvent.VK_UNDEFINED, 'b'),
+                                  new KeyEvent(boardCanvas, KeyEvent.KEY_PRESSED, 0, 0, KeyEvent.VK_UNDEFINED,
+                                               GameLogic.BACKSPACE_KEY)};
+   }
+
+   public char charToUpperCase(){
+      typedIndex = (typedIndex + 1) % TYPED.length();
+      return GameGUI.charToUpperCase(TYPED.charAt(typedIndex));
+   }
+
+   public int paintComponent(){
+      Graphics2D g = image.createGraphics();
+      canvas.paintComponent(g);
+      g.dispose();
+      return image.getRGB(FRAME_WIDTH / 2, FRAME_HEIGHT / 2);
+   }
+
+   public int paintDirtyCell(){
+      Graphics2D g = image.createGraphics();
+      g.setClip(DIRTY_CELL);
+      canvas.paintComponent(g);
+      g.dispose();
+      return image.getRGB(DIRTY_CELL.x + 1, DIRTY_CELL.y + 1);
+   }
+
+   public int keyPressed(){
+      for (KeyEvent event : keyEvents)
+         canvas.keyPressed(event);
+      return session.getCurrentCol();
+   }
+
+   public int mousePressed(){
+      for (MouseEvent event : mouseEvents)
+         canvas.mousePressed(event);
+      return session.getCurrentCol();
+   }
+
+   public int multiBoardKeyAndPaint16(){
+      for (KeyEvent event : boardKeys){
+         boardCanvas.keyPressed(event);
+         Graphics2D g = boardImage.createGraphics();
+         boardCanvas.paintComponent(g);
+         g.dispose();
+      }
+      return boardImage.getRGB(boardImage.getWidth() / 2, boardImage.getHeight() / 2);
+   }
+}
@@ -0,0 +1,20 @@
+package bench;
+
+//Creates the object that runs a benchmark class's cases on the game.
+//
+//JMH won't generate code for benchmarks in the default package, and code in a named
+//package can't refer to the game's classes (which are all in the default package).
+//So each benchmark class in this package declares its cases as an interface, and a
+//default package class next to it (in src/jmh/java) implements them. It is looked
+//up by name once per fork, in the benchmark's setup; after that every operation is
+//a plain interface call, which the JIT inlines like a direct one.
+final class Cases {
+
+   private Cases(){ }
+
+   //Returns a new instance of the default package class of the argument name, which
+   //implements the argument cases interface
+   static <T> T load(Class<T> cases, String className) throws Exception {
+      return Class.forName(className).asSubclass(cases).getDeclaredConstructor().newInstance();
+   }
+}
@@ -0,0 +1,52 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+//Loading the word lists (as text and from the binary dictionary) and checking guesses
+//against them. The cases are in DictionaryCases.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 3, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Djava.awt.headless=true"})
+public class DictionaryBench {
+
+   //One operation of each benchmark below; the result only keeps the work from being
+   //optimized away
+   public interface Workload {
+      long loadText() throws Exception;
+      long loadBinary() throws Exception;
+      long initializeGame();
+      //half real words, half random letters
+      boolean validWordCheck();
+   }
+
+   private Workload cases;
+
+   @Setup
+   public void setup() throws Exception {
+      cases = Cases.load(Workload.class, "DictionaryCases");
+   }
+
+   @Benchmark
+   public long loadText() throws Exception {
+      return cases.loadText();
+   }
+
+   @Benchmark
+   public long loadBinary() throws Exception {
+      return cases.loadBinary();
+   }
+
+   @Benchmark
+   public long initializeGame(){
+      return cases.initializeGame();
+   }
+
+   @Benchmark
+   public boolean validWordCheck(){
+      return cases.validWordCheck();
+   }
+}
@@ -0,0 +1,92 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+//Scoring guesses and narrowing down the secrets, from one pair of words up to a
+//whole row of a 16 board game. The cases are in ScoringCases.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 3, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Djava.awt.headless=true"})
+public class ScoringBench {
+
+   //One operation of each benchmark below; the result only keeps the work from being
+   //optimized away
+   public interface Workload {
+      //one (valid guess, secret) pair
+      int score();
+      //one guess against every secret, one pair at a time
+      int scoreRow();
+      //one guess against every secret with BatchScorer, with or without the Vector
+      //API kernel
+      int scoreAll(boolean vector);
+      //answer a first guess adversarially, over every secret
+      int adversarialRespond();
+      //start a session and type, submit and score one row
+      int sessionScoreRow();
+      //apply one row of feedback to a full candidate mask
+      long candidateIndexApply();
+      //start a 16 board game and type, submit and score one row on every board
+      int multiBoardScoreRow16();
+      //record one latency into a histogram
+      long metricsRecord();
+   }
+
+   //Whether scoreAll uses the Vector API kernel (true scores like false if the
+   //kernel can't be loaded); only scoreAll is run with both
+   @State(Scope.Thread)
+   public static class Kernel {
+      @Param({"false", "true"})
+      public boolean vector;
+   }
+
+   private Workload cases;
+
+   @Setup
+   public void setup() throws Exception {
+      cases = Cases.load(Workload.class, "ScoringCases");
+   }
+
+   @Benchmark
+   public int score(){
+      return cases.score();
+   }
+
+   @Benchmark
+   public int scoreRow(){
+      return cases.scoreRow();
+   }
+
+   @Benchmark
+   public int scoreAll(Kernel kernel){
+      return cases.scoreAll(kernel.vector);
+   }
+
+   @Benchmark
+   public int adversarialRespond(){
+      return cases.adversarialRespond();
+   }
+
+   @Benchmark
+   public int sessionScoreRow(){
+      return cases.sessionScoreRow();
+   }
+
+   @Benchmark
+   public long candidateIndexApply(){
+      return cases.candidateIndexApply();
+   }
+
+   @Benchmark
+   public int multiBoardScoreRow16(){
+      return cases.multiBoardScoreRow16();
+   }
+
+   @Benchmark
+   public long metricsRecord(){
+      return cases.metricsRecord();
+   }
+}
@@ -0,0 +1,68 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+//Key and mouse input and painting the game windows offscreen (into a BufferedImage,
+//so it runs headless). The cases are in WindowCases.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 3, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Djava.awt.headless=true"})
+public class WindowBench {
+
+   //One operation of each benchmark below; the result only keeps the work from being
+   //optimized away
+   public interface Workload {
+      char charToUpperCase();
+      //paint the whole board (two scored rows and a half typed one)
+      int paintComponent();
+      //paint after one key press: only the changed cell's region is dirty
+      int paintDirtyCell();
+      //type three letters into the half typed row and erase them again, by key and
+      //by clicking the on screen keyboard
+      int keyPressed();
+      int mousePressed();
+      //type a letter into a 16 board game and erase it, painting after each key
+      int multiBoardKeyAndPaint16();
+   }
+
+   private Workload cases;
+
+   @Setup
+   public void setup() throws Exception {
+      cases = Cases.load(Workload.class, "WindowCases");
+   }
+
+   @Benchmark
+   public char charToUpperCase(){
+      return cases.charToUpperCase();
+   }
+
+   @Benchmark
+   public int paintComponent(){
+      return cases.paintComponent();
+   }
+
+   @Benchmark
+   public int paintDirtyCell(){
+      return cases.paintDirtyCell();
+   }
+
+   @Benchmark
+   public int keyPressed(){
+      return cases.keyPressed();
+   }
+
+   @Benchmark
+   public int mousePressed(){
+      return cases.mousePressed();
+   }
+
+   @Benchmark
+   public int multiBoardKeyAndPaint16(){
+      return cases.multiBoardKeyAndPaint16();
+   }
+}